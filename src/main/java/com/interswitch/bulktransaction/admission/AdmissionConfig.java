@@ -0,0 +1,33 @@
+package com.interswitch.bulktransaction.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the admission filter on the bulk submission endpoint, ahead of Spring Security
+ * so shed requests cost neither a JWT check nor a body read
+ */
+@Configuration
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdmissionControlService admissionControlService,
+            ObjectMapper objectMapper,
+            @Value("${admission.bytes-per-item-estimate:128}") long bytesPerItemEstimate,
+            @Value("${admission.compression-ratio-estimate:8}") long compressionRatioEstimate) {
+
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(admissionControlService, objectMapper,
+                        bytesPerItemEstimate, compressionRatioEstimate));
+        registration.addUrlPatterns("/api/v1/bulk-transactions", "/api/v1/bulk-transactions/files");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
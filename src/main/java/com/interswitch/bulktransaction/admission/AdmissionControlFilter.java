@@ -0,0 +1,86 @@
+package com.interswitch.bulktransaction.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interswitch.bulktransaction.exceptions.GlobalExceptionHandler.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Sheds bulk submissions before the request body is read
+ * The item count is taken from the optional X-Batch-Size header, otherwise estimated from
+ * Content-Length, scaled up for compressed bodies. Requests that pass are checked again with the exact count once deserialized.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String BATCH_SIZE_HEADER = "X-Batch-Size";
+
+    private final AdmissionControlService admissionControlService;
+    private final ObjectMapper objectMapper;
+    private final long bytesPerItemEstimate;
+    private final long compressionRatioEstimate;
+
+    public AdmissionControlFilter(AdmissionControlService admissionControlService, ObjectMapper objectMapper,
+                                  long bytesPerItemEstimate, long compressionRatioEstimate) {
+        this.admissionControlService = admissionControlService;
+        this.objectMapper = objectMapper;
+        this.bytesPerItemEstimate = Math.max(1, bytesPerItemEstimate);
+        this.compressionRatioEstimate = Math.max(1, compressionRatioEstimate);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        AdmissionDecision decision = admissionControlService.check(estimateItems(request));
+        if (decision.admitted()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        log.warn("ADMISSION rejected {} {} with {}: {}",
+                request.getMethod(), request.getRequestURI(), decision.status().value(), decision.reason());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                decision.status().value(),
+                decision.status().getReasonPhrase(),
+                decision.reason()
+        );
+        response.setStatus(decision.status().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private long estimateItems(HttpServletRequest request) {
+        String batchSize = request.getHeader(BATCH_SIZE_HEADER);
+        if (batchSize != null) {
+            try {
+                return Math.max(0, Long.parseLong(batchSize.trim()));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring invalid {} header: {}", BATCH_SIZE_HEADER, batchSize);
+            }
+        }
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > 0 && request.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            // Compressed bodies inflate to several times their wire size
+            contentLength *= compressionRatioEstimate;
+        }
+        return contentLength > 0 ? contentLength / bytesPerItemEstimate : 0;
+    }
+}
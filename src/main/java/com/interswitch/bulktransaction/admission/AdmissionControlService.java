@@ -0,0 +1,190 @@
+package com.interswitch.bulktransaction.admission;
+
+import com.interswitch.bulktransaction.exceptions.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for the bulk endpoint
+ *
+ * Tracks the number of items admitted but not yet finished, heap usage and a moving average
+ * of downstream item latency. New work is shed with 429 when the item queue is full and with
+ * 503 when heap or latency show the node is already struggling, so admitted batches finish on time.
+ *
+ * Heap usage is read as left after the last collection, so garbage that has not been collected yet
+ * does not count. The latency average is cleared once nothing is in flight, otherwise a node that
+ * shed all work would keep its last, slow average and never admit again.
+ */
+@Slf4j
+@Service
+public class AdmissionControlService {
+
+    private static final double LATENCY_SMOOTHING = 0.05;
+
+    private final boolean enabled;
+    private final long maxQueuedItems;
+    private final double maxHeapUsage;
+    private final long maxItemLatencyNanos;
+    private final long retryAfterSeconds;
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null)
+            .toList();
+    private final AtomicLong queuedItems = new AtomicLong();
+    private final AtomicBoolean shedding = new AtomicBoolean();
+    private final Counter queueFullCounter;
+    private final Counter overloadedCounter;
+
+    // Exponentially weighted moving average, written racily; an approximate signal is enough
+    private volatile double averageItemLatencyNanos;
+
+    public AdmissionControlService(@Value("${admission.enabled:true}") boolean enabled,
+                                   @Value("${admission.max-queued-items:200000}") long maxQueuedItems,
+                                   @Value("${admission.max-heap-usage:0.85}") double maxHeapUsage,
+                                   @Value("${admission.max-item-latency-ms:0}") long maxItemLatencyMs,
+                                   @Value("${admission.retry-after-seconds:5}") long retryAfterSeconds,
+                                   MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxQueuedItems = maxQueuedItems;
+        this.maxHeapUsage = maxHeapUsage;
+        this.maxItemLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxItemLatencyMs);
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("admission.queued.items", queuedItems, AtomicLong::get)
+                .description("Batch items admitted and not yet finished")
+                .register(meterRegistry);
+        this.queueFullCounter = Counter.builder("admission.rejected")
+                .tag("reason", "queue-full")
+                .description("Batches rejected by admission control")
+                .register(meterRegistry);
+        this.overloadedCounter = Counter.builder("admission.rejected")
+                .tag("reason", "overloaded")
+                .description("Batches rejected by admission control")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cheap check made before the request body is read
+     *
+     * @param estimatedItems Item count estimated from the request size, 0 if unknown
+     */
+    public AdmissionDecision check(long estimatedItems) {
+        if (!enabled) {
+            return AdmissionDecision.ADMITTED;
+        }
+        AdmissionDecision health = checkHealth();
+        if (!health.admitted()) {
+            return health;
+        }
+        long queued = queuedItems.get();
+        if (queued > 0 && queued + estimatedItems > maxQueuedItems) {
+            queueFullCounter.increment();
+            return AdmissionDecision.queueFull(
+                    "Too many items in flight (" + queued + " of " + maxQueuedItems + ")", retryAfterSeconds);
+        }
+        return AdmissionDecision.ADMITTED;
+    }
+
+    /**
+     * Reserves room for a deserialized batch
+     * A single batch larger than the whole queue is still let in when nothing else is running.
+     *
+     * @throws AdmissionRejectedException if the batch cannot be admitted now
+     */
+    public void admit(int items) {
+        if (!enabled) {
+            return;
+        }
+        AdmissionDecision health = checkHealth();
+        if (!health.admitted()) {
+            throw new AdmissionRejectedException(health.status(), health.reason(), health.retryAfterSeconds());
+        }
+        while (true) {
+            long queued = queuedItems.get();
+            if (queued > 0 && queued + items > maxQueuedItems) {
+                queueFullCounter.increment();
+                throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Too many items in flight (" + queued + " of " + maxQueuedItems + ")", retryAfterSeconds);
+            }
+            if (queuedItems.compareAndSet(queued, queued + items)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Releases the room reserved by admit()
+     */
+    public void release(int items) {
+        if (enabled && queuedItems.addAndGet(-items) <= 0) {
+            // Idle: the average describes calls that are over, the next batch starts from a clean slate
+            averageItemLatencyNanos = 0;
+        }
+    }
+
+    /**
+     * Feeds one downstream item latency into the moving average
+     */
+    public void recordItemLatency(long nanos) {
+        double average = averageItemLatencyNanos;
+        averageItemLatencyNanos = average == 0 ? nanos : average + LATENCY_SMOOTHING * (nanos - average);
+    }
+
+    public long getQueuedItems() {
+        return queuedItems.get();
+    }
+
+    private AdmissionDecision checkHealth() {
+        long maxHeap = memoryBean.getHeapMemoryUsage().getMax();
+        long liveHeap = liveHeapUsed();
+        if (maxHeap > 0 && (double) liveHeap / maxHeap > maxHeapUsage) {
+            overloadedCounter.increment();
+            if (shedding.compareAndSet(false, true)) {
+                log.warn("ADMISSION: shedding load, heap usage after GC {}/{} bytes", liveHeap, maxHeap);
+            }
+            return AdmissionDecision.overloaded("Service is low on memory", retryAfterSeconds);
+        }
+        if (maxItemLatencyNanos > 0 && averageItemLatencyNanos > maxItemLatencyNanos) {
+            overloadedCounter.increment();
+            if (shedding.compareAndSet(false, true)) {
+                log.warn("ADMISSION: shedding load, average item latency {} ms",
+                        TimeUnit.NANOSECONDS.toMillis((long) averageItemLatencyNanos));
+            }
+            return AdmissionDecision.overloaded("Downstream latency is too high", retryAfterSeconds);
+        }
+        if (shedding.compareAndSet(true, false)) {
+            log.info("ADMISSION: node healthy again, admitting new batches");
+        }
+        return AdmissionDecision.ADMITTED;
+    }
+
+    /**
+     * Heap in use after the last collection of each heap pool
+     * Falls back to the current usage if the JVM reports no collection usage.
+     */
+    private long liveHeapUsed() {
+        if (heapPools.isEmpty()) {
+            return memoryBean.getHeapMemoryUsage().getUsed();
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            used += pool.getCollectionUsage().getUsed();
+        }
+        return used;
+    }
+}
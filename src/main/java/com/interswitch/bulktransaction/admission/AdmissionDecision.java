@@ -0,0 +1,24 @@
+package com.interswitch.bulktransaction.admission;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of an admission check
+ *
+ * @param admitted          Whether the work may proceed
+ * @param status            Status to reject with: 429 when the queue is full, 503 when the node is unhealthy
+ * @param reason            Why the work was rejected
+ * @param retryAfterSeconds Hint for the Retry-After header
+ */
+public record AdmissionDecision(boolean admitted, HttpStatus status, String reason, long retryAfterSeconds) {
+
+    static final AdmissionDecision ADMITTED = new AdmissionDecision(true, HttpStatus.OK, null, 0);
+
+    static AdmissionDecision queueFull(String reason, long retryAfterSeconds) {
+        return new AdmissionDecision(false, HttpStatus.TOO_MANY_REQUESTS, reason, retryAfterSeconds);
+    }
+
+    static AdmissionDecision overloaded(String reason, long retryAfterSeconds) {
+        return new AdmissionDecision(false, HttpStatus.SERVICE_UNAVAILABLE, reason, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,189 @@
+package com.interswitch.bulktransaction.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LRU cache of serialized results for finished batches
+ *
+ * Results of a finished batch do not change, so status polls are answered from stored
+ * JSON bytes (and pre-compressed copies) instead of running Jackson over the whole response.
+ * The cache is bounded by total bytes. Entries also expire after a TTL, so a replica that
+ * cached a batch owned by another node does not serve it forever if the owner changes it.
+ */
+@Slf4j
+@Component
+public class BatchResultCache {
+
+    private final BulkTransactionService bulkTransactionService;
+    private final ObjectWriter writer;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final boolean precompress;
+    private final int zstdLevel;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedBatchResults> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    // Latest load generation per batch being loaded; evict drops it, so an older load is not stored
+    private final Map<String, Long> loads = new HashMap<>();
+    private long loadGeneration;
+
+    public BatchResultCache(BulkTransactionService bulkTransactionService,
+                            ObjectMapper objectMapper,
+                            @Value("${cache.batch-results.enabled:true}") boolean enabled,
+                            @Value("${cache.batch-results.max-bytes:67108864}") long maxBytes,
+                            @Value("${cache.batch-results.ttl-seconds:300}") long ttlSeconds,
+                            @Value("${cache.batch-results.precompress:true}") boolean precompress,
+                            @Value("${compression.response.zstd-level:3}") int zstdLevel,
+                            MeterRegistry meterRegistry) {
+        this.bulkTransactionService = bulkTransactionService;
+        this.writer = objectMapper.writerFor(BulkTransactionResponse.class);
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.precompress = precompress;
+        this.zstdLevel = zstdLevel;
+
+        this.hitCounter = Counter.builder("batch.results.cache")
+                .tag("result", "hit")
+                .description("Batch result lookups answered from the serialized response cache")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("batch.results.cache")
+                .tag("result", "miss")
+                .description("Batch result lookups answered from the serialized response cache")
+                .register(meterRegistry);
+        Gauge.builder("batch.results.cache.bytes", this, BatchResultCache::getTotalBytes)
+                .description("Bytes held by the serialized response cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the serialized results of a finished batch, loading and caching them on a miss
+     *
+     * @throws RuntimeException if the batch is unknown or not finished, as BulkTransactionService does
+     */
+    public CachedBatchResults get(String batchId) {
+        long now = System.nanoTime();
+        if (enabled) {
+            CachedBatchResults cached = lookup(batchId, now);
+            if (cached != null) {
+                hitCounter.increment();
+                return cached;
+            }
+        }
+        missCounter.increment();
+
+        if (!enabled) {
+            return serialize(bulkTransactionService.getBatchResults(batchId), now);
+        }
+
+        // Loaded outside the lock, so an eviction may land before the store; the generation tells
+        long generation = startLoad(batchId);
+        CachedBatchResults loaded;
+        try {
+            loaded = serialize(bulkTransactionService.getBatchResults(batchId), now);
+        } catch (RuntimeException e) {
+            abandonLoad(batchId, generation);
+            throw e;
+        }
+        if (loaded.sizeInBytes() <= maxBytes) {
+            store(batchId, loaded, generation);
+        } else {
+            abandonLoad(batchId, generation);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops a batch whose results changed
+     */
+    public synchronized void evict(String batchId) {
+        // A load already running may have read the old results
+        loads.remove(batchId);
+        CachedBatchResults removed = entries.remove(batchId);
+        if (removed != null) {
+            totalBytes -= removed.sizeInBytes();
+        }
+    }
+
+    @EventListener
+    public void onResultsChanged(BatchResultsChangedEvent event) {
+        evict(event.batchId());
+    }
+
+    public int getZstdLevel() {
+        return zstdLevel;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized CachedBatchResults lookup(String batchId, long now) {
+        CachedBatchResults cached = entries.get(batchId);
+        if (cached != null && now - cached.createdNanos() > ttlNanos) {
+            entries.remove(batchId);
+            totalBytes -= cached.sizeInBytes();
+            return null;
+        }
+        return cached;
+    }
+
+    private synchronized long startLoad(String batchId) {
+        long generation = ++loadGeneration;
+        loads.put(batchId, generation);
+        return generation;
+    }
+
+    private synchronized void abandonLoad(String batchId, long generation) {
+        loads.remove(batchId, generation);
+    }
+
+    /**
+     * Stores loaded results unless the batch was evicted, or loaded again, since this load began
+     */
+    private synchronized void store(String batchId, CachedBatchResults results, long generation) {
+        if (!loads.remove(batchId, generation)) {
+            return;
+        }
+        CachedBatchResults previous = entries.put(batchId, results);
+        totalBytes += results.sizeInBytes() - (previous == null ? 0 : previous.sizeInBytes());
+
+        Iterator<Map.Entry<String, CachedBatchResults>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().sizeInBytes();
+            eldest.remove();
+        }
+    }
+
+    private CachedBatchResults serialize(BulkTransactionResponse response, long now) {
+        try {
+            byte[] json = writer.writeValueAsBytes(response);
+            String etag = "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return CachedBatchResults.of(etag, json, precompress, zstdLevel, now);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize results of batchId " + response.getBatchId(), e);
+        }
+    }
+}
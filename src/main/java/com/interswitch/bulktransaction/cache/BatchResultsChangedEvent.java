@@ -0,0 +1,8 @@
+package com.interswitch.bulktransaction.cache;
+
+/**
+ * Published when stored results of a finished batch change after the fact
+ * Lets the result cache drop its copy without the publisher depending on the cache.
+ */
+public record BatchResultsChangedEvent(String batchId) {
+}
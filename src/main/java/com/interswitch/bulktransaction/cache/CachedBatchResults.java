@@ -0,0 +1,59 @@
+package com.interswitch.bulktransaction.cache;
+
+import com.interswitch.bulktransaction.compression.ContentEncoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Serialized JSON results of a finished batch, with optional pre-compressed copies
+ *
+ * @param etag    Weak entity tag derived from the JSON bytes
+ * @param json    The JSON body
+ * @param encoded Pre-compressed bodies by content coding; codings missing here are compressed per request
+ */
+public record CachedBatchResults(String etag, byte[] json, Map<ContentEncoding, byte[]> encoded, long createdNanos) {
+
+    /**
+     * Returns the body for the negotiated coding, or the plain JSON when encoding is null
+     */
+    public byte[] body(ContentEncoding encoding, int zstdLevel) {
+        if (encoding == null) {
+            return json;
+        }
+        byte[] body = encoded.get(encoding);
+        return body != null ? body : encode(json, encoding, zstdLevel);
+    }
+
+    public long sizeInBytes() {
+        long size = json.length;
+        for (byte[] body : encoded.values()) {
+            size += body.length;
+        }
+        return size;
+    }
+
+    static CachedBatchResults of(String etag, byte[] json, boolean precompress, int zstdLevel, long createdNanos) {
+        Map<ContentEncoding, byte[]> encoded = new EnumMap<>(ContentEncoding.class);
+        if (precompress) {
+            for (ContentEncoding encoding : ContentEncoding.values()) {
+                encoded.put(encoding, encode(json, encoding, zstdLevel));
+            }
+        }
+        return new CachedBatchResults(etag, json, encoded, createdNanos);
+    }
+
+    private static byte[] encode(byte[] json, ContentEncoding encoding, int zstdLevel) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (OutputStream out = encoding.encode(bytes, zstdLevel)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,18 @@
+package com.interswitch.bulktransaction.callback;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Summary POSTed to a batch's callbackUrl
+ * succeeded and failed are only sent with the COMPLETED event; item results stay behind GET /{batchId}.
+ *
+ * @param event   PROGRESS at a milestone or COMPLETED once every item has a result
+ * @param pending Items still awaiting a final downstream status, if any; COMPLETED is sent again once they settle
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchCallback(String batchId, String event, int totalItems, int completedItems,
+                            Integer succeeded, Integer failed, Integer pending) {
+
+    public static final String PROGRESS = "PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+}
@@ -0,0 +1,202 @@
+package com.interswitch.bulktransaction.callback;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.resolver.dns.DnsAddressResolverGroup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.LoopResources;
+import reactor.netty.transport.NameResolverProvider;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Webhook delivery for batches submitted with a callbackUrl
+ *
+ * A compact summary is POSTed when the batch completes and, if progress-step-percent is set,
+ * each time another step of its items has finished. Delivery is fire-and-forget on the
+ * non-blocking WebClient: retries with exponential backoff run on Reactor timers, so no worker
+ * or request thread waits for a slow receiver. Client errors other than 408 and 429 are not retried.
+ * Without callbacks.allowed-hosts, a connection to a loopback, link-local or private address is
+ * refused when it is made, whatever the callback host resolved to at submission.
+ */
+@Slf4j
+@Service
+public class BatchCallbackService {
+
+    private final WebClient webClient;
+    private final boolean enabled;
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final Duration timeout;
+    private final int progressStepPercent;
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+
+    // Only batches that asked for progress callbacks are tracked
+    private final Map<String, ProgressTracker> trackers = new ConcurrentHashMap<>();
+
+    public BatchCallbackService(WebClient.Builder webClientBuilder, boolean enabled, int maxRetries,
+                                long initialBackoffMillis, long timeoutMillis, int progressStepPercent,
+                                MeterRegistry meterRegistry) {
+        this(webClientBuilder, enabled, List.of(), maxRetries, initialBackoffMillis, timeoutMillis,
+                progressStepPercent, meterRegistry);
+    }
+
+    @Autowired
+    public BatchCallbackService(WebClient.Builder webClientBuilder,
+                                @Value("${callbacks.enabled:true}") boolean enabled,
+                                @Value("${callbacks.allowed-hosts:}") List<String> allowedHosts,
+                                @Value("${callbacks.max-retries:5}") int maxRetries,
+                                @Value("${callbacks.initial-backoff-ms:1000}") long initialBackoffMillis,
+                                @Value("${callbacks.timeout-ms:5000}") long timeoutMillis,
+                                @Value("${callbacks.progress-step-percent:0}") int progressStepPercent,
+                                MeterRegistry meterRegistry) {
+        if (allowedHosts.stream().allMatch(String::isBlank)) {
+            // Without an allow-list, callback addresses are checked as each connection is made
+            webClientBuilder.clientConnector(new ReactorClientHttpConnector(guardedHttpClient()));
+        }
+        this.webClient = webClientBuilder.build();
+        this.enabled = enabled;
+        this.maxRetries = Math.max(0, maxRetries);
+        this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.progressStepPercent = progressStepPercent;
+
+        this.deliveredCounter = Counter.builder("batch.callbacks")
+                .tag("outcome", "delivered")
+                .description("Batch callbacks by delivery outcome")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("batch.callbacks")
+                .tag("outcome", "failed")
+                .description("Batch callbacks by delivery outcome")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts progress tracking for a batch whose items are about to be processed
+     */
+    public void batchStarted(BulkTransactionRequest request, int completedItems) {
+        if (!enabled || request.getCallbackUrl() == null || progressStepPercent <= 0) {
+            return;
+        }
+        int total = request.getTransactions().size();
+        int step = Math.max(1, (int) Math.ceil(total * progressStepPercent / 100.0));
+        trackers.put(request.getBatchId(),
+                new ProgressTracker(request.getCallbackUrl(), total, step, completedItems));
+    }
+
+    /**
+     * Counts one finished item and sends a PROGRESS callback when it completes a step
+     */
+    public void itemCompleted(String batchId) {
+        if (trackers.isEmpty()) {
+            return;
+        }
+        ProgressTracker tracker = trackers.get(batchId);
+        if (tracker == null) {
+            return;
+        }
+        int completed = tracker.completed.incrementAndGet();
+        if (completed % tracker.step == 0 && completed < tracker.total) {
+            send(tracker.callbackUrl, new BatchCallback(batchId, BatchCallback.PROGRESS, tracker.total, completed,
+                    null, null, null));
+        }
+    }
+
+    /**
+     * Sends the COMPLETED callback with success, failure and pending counts
+     */
+    public void batchCompleted(BulkTransactionRequest request, BulkTransactionResponse response) {
+        trackers.remove(request.getBatchId());
+        if (!enabled || request.getCallbackUrl() == null || response == null) {
+            return;
+        }
+        int succeeded = 0;
+        int pending = 0;
+        for (TransactionResult result : response.getResults()) {
+            if ("SUCCESS".equals(result.getStatus())) {
+                succeeded++;
+            } else if ("PENDING".equals(result.getStatus())) {
+                pending++;
+            }
+        }
+        int total = response.getResults().size();
+        send(request.getCallbackUrl(), new BatchCallback(request.getBatchId(), BatchCallback.COMPLETED, total, total,
+                succeeded, total - succeeded - pending, pending > 0 ? pending : null));
+    }
+
+    private void send(String callbackUrl, BatchCallback callback) {
+        webClient.post()
+                .uri(URI.create(callbackUrl))
+                .bodyValue(callback)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(timeout)
+                .retryWhen(Retry.backoff(maxRetries, initialBackoff).filter(BatchCallbackService::isRetryable))
+                .subscribe(
+                        response -> {
+                            deliveredCounter.increment();
+                            log.info("CALLBACK {} delivered for batchId: {}", callback.event(), callback.batchId());
+                        },
+                        e -> {
+                            failedCounter.increment();
+                            log.warn("CALLBACK {} for batchId: {} could not be delivered - Error: {}",
+                                    callback.event(), callback.batchId(), e.getMessage());
+                        });
+    }
+
+    /**
+     * Client resolving hosts with Reactor Netty's usual non-blocking DNS resolver, behind the address check
+     */
+    private static HttpClient guardedHttpClient() {
+        DnsAddressResolverGroup dns = NameResolverProvider.builder().build()
+                .newNameResolverGroup(HttpResources.get(), LoopResources.DEFAULT_NATIVE);
+        return HttpClient.create().resolver(new CallbackAddressResolverGroup(dns));
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CallbackAddressResolverGroup.AddressNotAllowedException) {
+                return false;
+            }
+        }
+        if (e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+            return response.getStatusCode().value() == HttpStatus.REQUEST_TIMEOUT.value()
+                    || response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+        return true;
+    }
+
+    private static final class ProgressTracker {
+
+        private final String callbackUrl;
+        private final int total;
+        private final int step;
+        private final AtomicInteger completed;
+
+        ProgressTracker(String callbackUrl, int total, int step, int completed) {
+            this.callbackUrl = callbackUrl;
+            this.total = total;
+            this.step = step;
+            this.completed = new AtomicInteger(completed);
+        }
+    }
+}
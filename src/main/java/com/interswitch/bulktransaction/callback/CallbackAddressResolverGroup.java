@@ -0,0 +1,117 @@
+package com.interswitch.bulktransaction.callback;
+
+import io.netty.resolver.AbstractAddressResolver;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * Resolves callback hosts on the event loop and refuses any that resolve to an address inside this network
+ *
+ * The check runs each time a connection is made, on the addresses actually connected to, so a host
+ * that passed validation cannot be rebound to an internal address later. Addresses that need no
+ * lookup, such as IP literals, are checked the same way. Lookups are left to the given resolver.
+ */
+public class CallbackAddressResolverGroup extends AddressResolverGroup<InetSocketAddress> {
+
+    private final AddressResolverGroup<InetSocketAddress> dns;
+
+    public CallbackAddressResolverGroup(AddressResolverGroup<InetSocketAddress> dns) {
+        this.dns = dns;
+    }
+
+    /**
+     * Returns true for loopback, link-local, private and other addresses that are not publicly routable
+     */
+    public static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            // 100.64.0.0/10, carrier-grade NAT
+            return (bytes[0] & 0xff) == 100 && (bytes[1] & 0xc0) == 64;
+        }
+        // fc00::/7, IPv6 unique local addresses
+        return (bytes[0] & 0xfe) == 0xfc;
+    }
+
+    @Override
+    protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) {
+        return new PublicAddressResolver(executor, dns.getResolver(executor));
+    }
+
+    private static final class PublicAddressResolver extends AbstractAddressResolver<InetSocketAddress> {
+
+        private final AddressResolver<InetSocketAddress> dns;
+
+        PublicAddressResolver(EventExecutor executor, AddressResolver<InetSocketAddress> dns) {
+            super(executor, InetSocketAddress.class);
+            this.dns = dns;
+        }
+
+        @Override
+        protected boolean doIsResolved(InetSocketAddress address) {
+            // Resolved addresses still go through doResolveAll, to be checked
+            return false;
+        }
+
+        @Override
+        protected void doResolve(InetSocketAddress address, Promise<InetSocketAddress> promise) {
+            Promise<List<InetSocketAddress>> all = executor().newPromise();
+            all.addListener((Future<List<InetSocketAddress>> future) -> {
+                if (future.isSuccess()) {
+                    promise.trySuccess(future.getNow().get(0));
+                } else {
+                    promise.tryFailure(future.cause());
+                }
+            });
+            doResolveAll(address, all);
+        }
+
+        @Override
+        protected void doResolveAll(InetSocketAddress address, Promise<List<InetSocketAddress>> promise) {
+            if (!address.isUnresolved()) {
+                check(address, List.of(address), promise);
+                return;
+            }
+            dns.resolveAll(address).addListener((Future<List<InetSocketAddress>> future) -> {
+                if (future.isSuccess()) {
+                    check(address, future.getNow(), promise);
+                } else {
+                    promise.tryFailure(future.cause());
+                }
+            });
+        }
+
+        private static void check(InetSocketAddress requested, List<InetSocketAddress> resolved,
+                                  Promise<List<InetSocketAddress>> promise) {
+            for (InetSocketAddress address : resolved) {
+                if (address.getAddress() == null || isInternal(address.getAddress())) {
+                    promise.tryFailure(new AddressNotAllowedException(requested.getHostString()));
+                    return;
+                }
+            }
+            promise.trySuccess(resolved);
+        }
+    }
+
+    /**
+     * Raised when a callback host resolves to an internal address; retrying does not help
+     */
+    public static class AddressNotAllowedException extends UnknownHostException {
+
+        public AddressNotAllowedException(String host) {
+            super("Callback host resolves to an address that is not allowed: " + host);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.interswitch.bulktransaction.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests toward the Transaction Service
+ *
+ * A call that has not returned within the observed p95 latency is sent a second time; the
+ * first successful response is used and the other attempt is abandoned. Only safe because the
+ * Transaction Service deduplicates on transactionId, so it is off unless a deployment opts in.
+ * Hedges are capped at a fraction of all calls so a slow downstream is not hit with double load,
+ * and a hedge waits for its own rate limiter permit before it is sent.
+ *
+ * Abandoned is not aborted: the Feign client blocks in HttpURLConnection, which ignores thread
+ * interrupts, so a losing attempt already on the wire keeps its thread and connection until its
+ * response or read timeout arrives, and its result is then discarded.
+ */
+public class HedgedRequestExecutor implements AutoCloseable {
+
+    private static final int WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 128;
+
+    private final int warmupSamples;
+    private final long minDelayNanos;
+    private final double maxHedgeRatio;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ExecutorService executor;
+    private final Counter callCounter;
+    private final Counter hedgeCounter;
+    private final Counter winCounter;
+
+    // Recent successful attempt latencies, overwritten round-robin
+    private final AtomicLongArray latencies = new AtomicLongArray(WINDOW);
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+
+    // -1 until enough samples have been seen to trust the percentile
+    private volatile long hedgeDelayNanos = -1;
+
+    /**
+     * @param rateLimiter Permit every hedge waits for, like a retry, may be null
+     */
+    public HedgedRequestExecutor(int warmupSamples, long minDelayMillis, double maxHedgeRatio,
+                                 TokenBucketRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.warmupSamples = Math.min(Math.max(1, warmupSamples), WINDOW);
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.rateLimiter = rateLimiter;
+
+        // Callers are the bounded worker pool; abandoned attempts hold a thread until their call returns
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hedged-call-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.callCounter = Counter.builder("downstream.hedge.calls")
+                .description("Transaction Service calls eligible for hedging")
+                .register(meterRegistry);
+        this.hedgeCounter = Counter.builder("downstream.hedge.sent")
+                .description("Duplicate Transaction Service calls sent after the hedge delay")
+                .register(meterRegistry);
+        this.winCounter = Counter.builder("downstream.hedge.wins")
+                .description("Hedged calls whose duplicate answered first")
+                .register(meterRegistry);
+        Gauge.builder("downstream.hedge.delay", this, HedgedRequestExecutor::getHedgeDelayMillis)
+                .description("Current hedge delay, the observed p95 latency; -1 while warming up")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call, hedging it once if it is slower than the current p95
+     * Exceptions of the call are rethrown as is when every attempt failed.
+     */
+    public <T> T execute(Supplier<T> call) {
+        long delay = hedgeDelayNanos;
+        calls.incrementAndGet();
+        callCounter.increment();
+        if (delay < 0) {
+            // Warming up: measure on the caller thread, no extra hop
+            long start = System.nanoTime();
+            T result = call.get();
+            recordLatency(System.nanoTime() - start);
+            return result;
+        }
+
+        HedgedCall<T> hedged = new HedgedCall<>(call);
+        hedged.primary = executor.submit(() -> hedged.attempt(false));
+        try {
+            try {
+                return hedged.outcome.get(delay, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                hedged.hedge = tryHedge(hedged);
+            }
+            return hedged.outcome.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the Transaction Service", e);
+        } finally {
+            hedged.cancelRemaining();
+        }
+    }
+
+    public long getHedgeDelayMillis() {
+        long delay = hedgeDelayNanos;
+        return delay < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delay);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Future<?> tryHedge(HedgedCall<?> hedged) {
+        if (hedges.get() + 1 > maxHedgeRatio * calls.get() || !hedged.startSecondAttempt()) {
+            return null;
+        }
+        hedges.incrementAndGet();
+        return executor.submit(hedged::hedgeAttempt);
+    }
+
+    private void recordLatency(long nanos) {
+        long sample = samples.getAndIncrement();
+        latencies.set((int) (sample % WINDOW), nanos);
+        long seen = sample + 1;
+        if (seen == warmupSamples || (seen > warmupSamples && seen % RECOMPUTE_EVERY == 0)) {
+            int size = (int) Math.min(seen, WINDOW);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            hedgeDelayNanos = Math.max(minDelayNanos, sorted[(int) Math.ceil(size * 0.95) - 1]);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * One logical call and its attempts; the first success completes the outcome
+     */
+    private final class HedgedCall<T> {
+
+        private final Supplier<T> call;
+        private final CompletableFuture<T> outcome = new CompletableFuture<>();
+        private final AtomicInteger running = new AtomicInteger(1);
+        private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private volatile Future<?> primary;
+        private volatile Future<?> hedge;
+
+        HedgedCall(Supplier<T> call) {
+            this.call = call;
+        }
+
+        void attempt(boolean isHedge) {
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                recordLatency(System.nanoTime() - start);
+                if (settled.compareAndSet(false, true)) {
+                    if (isHedge) {
+                        winCounter.increment();
+                    }
+                    outcome.complete(result);
+                }
+            } catch (Throwable t) {
+                firstFailure.compareAndSet(null, t);
+                if (running.decrementAndGet() == 0) {
+                    outcome.completeExceptionally(firstFailure.get());
+                }
+            }
+        }
+
+        /**
+         * Waits for the hedge's permit, then sends it unless the primary settled the outcome meanwhile
+         */
+        void hedgeAttempt() {
+            if (rateLimiter != null) {
+                try {
+                    rateLimiter.acquire().get();
+                } catch (InterruptedException e) {
+                    // The caller is done with this call
+                    Thread.currentThread().interrupt();
+                    skipAttempt();
+                    return;
+                } catch (ExecutionException e) {
+                    skipAttempt();
+                    return;
+                }
+            }
+            if (outcome.isDone()) {
+                skipAttempt();
+                return;
+            }
+            hedgeCounter.increment();
+            attempt(true);
+        }
+
+        /**
+         * Gives up a registered attempt without sending it
+         */
+        private void skipAttempt() {
+            if (running.decrementAndGet() == 0) {
+                Throwable failure = firstFailure.get();
+                outcome.completeExceptionally(failure != null ? failure
+                        : new IllegalStateException("Hedged call abandoned before it was sent"));
+            }
+        }
+
+        /**
+         * Registers a second attempt unless the primary already settled the outcome
+         */
+        boolean startSecondAttempt() {
+            running.incrementAndGet();
+            if (outcome.isDone()) {
+                running.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Interrupts attempts still running once the outcome is known
+         * This stops a hedge waiting for its permit, but an attempt blocked in HttpURLConnection
+         * is not interrupted by it: that attempt is abandoned and finishes on its own.
+         */
+        void cancelRemaining() {
+            cancel(primary);
+            cancel(hedge);
+        }
+
+        private void cancel(Future<?> attempt) {
+            if (attempt != null && !attempt.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+    }
+}
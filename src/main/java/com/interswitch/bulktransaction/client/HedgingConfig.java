@@ -0,0 +1,33 @@
+package com.interswitch.bulktransaction.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hedged requests toward the Transaction Service (hedging.transaction-service.*)
+ * Only enable this where the Transaction Service deduplicates on transactionId.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "hedging.transaction-service.enabled", havingValue = "true")
+public class HedgingConfig {
+
+    @Bean(destroyMethod = "close")
+    public HedgedRequestExecutor hedgedRequestExecutor(
+            @Value("${hedging.transaction-service.warmup-samples:100}") int warmupSamples,
+            @Value("${hedging.transaction-service.min-delay-ms:10}") long minDelayMillis,
+            @Value("${hedging.transaction-service.max-hedge-ratio:0.1}") double maxHedgeRatio,
+            ObjectProvider<TokenBucketRateLimiter> rateLimiter,
+            MeterRegistry meterRegistry) {
+
+        log.info("Transaction Service hedging enabled: p95 delay after {} samples, at least {} ms, "
+                + "at most {}% of calls", warmupSamples, minDelayMillis, maxHedgeRatio * 100);
+        return new HedgedRequestExecutor(warmupSamples, minDelayMillis, maxHedgeRatio,
+                rateLimiter.getIfAvailable(), meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package com.interswitch.bulktransaction.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Rate limiting toward the Transaction Service (rate-limiter.transaction-service.*)
+ * A worker that picks up an item whose permit is not due yet puts it back on the queue for when
+ * it is. Retries take their own permit once their backoff has passed and are queued the same way,
+ * so the configured rate covers retries as well and no thread waits for a permit.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "rate-limiter.transaction-service.enabled", havingValue = "true")
+public class RateLimiterConfig {
+
+    @Bean(destroyMethod = "close")
+    public TokenBucketRateLimiter transactionServiceRateLimiter(
+            @Value("${rate-limiter.transaction-service.permits-per-second}") double permitsPerSecond,
+            @Value("${rate-limiter.transaction-service.burst:0}") int burst,
+            MeterRegistry meterRegistry) {
+
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(permitsPerSecond, burst, meterRegistry);
+        log.info("Transaction Service rate limit: {} permits/s, burst {}", permitsPerSecond, burst);
+        return rateLimiter;
+    }
+}
@@ -0,0 +1,17 @@
+package com.interswitch.bulktransaction.client;
+
+import com.interswitch.bulktransaction.exceptions.TransactionFailedException;
+
+import java.util.function.Predicate;
+
+/**
+ * Retry exception predicate of the transactionService retry instance (retry-exception-predicate)
+ * Terminal failures, such as a 4xx rejection, are not attempted again; anything unclassified is.
+ */
+public class RetryableFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        return !(throwable instanceof TransactionFailedException failure) || failure.getCode().isRetryable();
+    }
+}
@@ -0,0 +1,96 @@
+package com.interswitch.bulktransaction.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter for calls to the Transaction Service
+ *
+ * Permits refill continuously at permitsPerSecond. Up to burst unused permits are stored and can
+ * be spent at once; beyond that, callers are spaced evenly one interval apart. Permits are handed
+ * out as reservations: acquire() returns a future completed by a timer once the reservation is
+ * due, so no worker thread sleeps while waiting for a permit.
+ */
+public class TokenBucketRateLimiter implements AutoCloseable {
+
+    private static final CompletableFuture<Void> GRANTED = CompletableFuture.completedFuture(null);
+
+    private final double intervalNanos;
+    private final double burst;
+    private final LongSupplier nanoClock;
+    private final Timer waitTimer;
+    private final ScheduledExecutorService timer;
+
+    private double storedPermits;
+    private long nextFreeNanos;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, MeterRegistry meterRegistry) {
+        this(permitsPerSecond, burst, meterRegistry, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, MeterRegistry meterRegistry,
+                                  LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burst = Math.max(0, burst);
+        this.nanoClock = nanoClock;
+        this.storedPermits = this.burst;
+        this.nextFreeNanos = nanoClock.getAsLong();
+        this.waitTimer = Timer.builder("downstream.ratelimiter.wait")
+                .description("Time spent waiting for a Transaction Service rate limit permit")
+                .register(meterRegistry);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limiter-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns a future that completes when the caller may issue one downstream call
+     */
+    public CompletableFuture<Void> acquire() {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return GRANTED;
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        timer.schedule(() -> permit.complete(null), waitNanos, TimeUnit.NANOSECONDS);
+        return permit;
+    }
+
+    /**
+     * Takes one permit and returns how long the caller has to wait before using it
+     */
+    public long reserve() {
+        long waitNanos;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            if (now > nextFreeNanos) {
+                // Idle time refills the bucket, up to the burst size
+                storedPermits = Math.min(burst, storedPermits + (now - nextFreeNanos) / intervalNanos);
+                nextFreeNanos = now;
+            }
+            waitNanos = nextFreeNanos - now;
+
+            double fromStore = Math.min(1.0, storedPermits);
+            storedPermits -= fromStore;
+            nextFreeNanos += (long) ((1.0 - fromStore) * intervalNanos);
+        }
+        waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        return waitNanos;
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+}
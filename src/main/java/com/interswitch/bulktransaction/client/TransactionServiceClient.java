@@ -1,12 +1,16 @@
 package com.interswitch.bulktransaction.client;
 
 import com.interswitch.bulktransaction.dto.request.TransactionServiceRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionStatusRequest;
 import com.interswitch.bulktransaction.dto.response.TransactionServiceResponse;
 
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 /**
  * Feign Client for calling downstream Transaction Service
  * Handles REST API communication with the Transaction Service
@@ -14,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestBody;
  * Configuration:
  * - name: Logical name for the client
  * - url: Base URL of the Transaction Service (configured in application.yml)
+ * - timeouts: spring.cloud.openfeign.client.config.transaction-service (application.yml)
  */
 @FeignClient(
         name = "transaction-service",
@@ -29,4 +34,25 @@ public interface TransactionServiceClient {
      */
     @PostMapping("/api/v1/transactions")
     TransactionServiceResponse processTransaction(@RequestBody TransactionServiceRequest request);
-}
\ No newline at end of file
+
+    /**
+     * Processes a single transaction with per-call timeouts
+     *
+     * @param request The transaction request
+     * @param options Timeouts for this call, used to keep it within the batch deadline
+     * @return Response from Transaction Service
+     */
+    @PostMapping("/api/v1/transactions")
+    TransactionServiceResponse processTransaction(@RequestBody TransactionServiceRequest request,
+                                                  Request.Options options);
+
+    /**
+     * Looks up the current status of several transactions in one call
+     * Transactions unknown to the Transaction Service are left out of the response.
+     *
+     * @param request The transactionIds to look up
+     * @return One response per known transaction, with status SUCCESS, FAILED or PENDING
+     */
+    @PostMapping("/api/v1/transactions/status")
+    List<TransactionServiceResponse> getTransactionStatuses(@RequestBody TransactionStatusRequest request);
+}
@@ -0,0 +1,156 @@
+package com.interswitch.bulktransaction.cluster;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.exceptions.AdmissionRejectedException;
+import com.interswitch.bulktransaction.exceptions.BatchHandedOffException;
+import com.interswitch.bulktransaction.exceptions.BatchReplayRejectedException;
+import com.interswitch.bulktransaction.exceptions.OwnerUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Routes every batchId to one owning replica with a consistent hash ring
+ *
+ * Only the owner creates, processes and stores a batch, so its local idempotency check
+ * is cluster-wide: a batchId sent to any replica ends up at the same node. Finding the owner
+ * is an in-memory ring lookup, and batches this node owns are never forwarded, so no external
+ * store or extra round trip is involved. All replicas must list the same members
+ * (cluster.self-url plus cluster.peers).
+ *
+ * If the owner is unreachable the batch is refused with 503 rather than processed elsewhere.
+ */
+@Slf4j
+@Component
+public class BatchRouter {
+
+    private final PeerClient peerClient;
+    private final boolean enabled;
+    private final String self;
+    private final ConsistentHashRing ring;
+    private final long retryAfterSeconds;
+
+    public BatchRouter(PeerClient peerClient,
+                       @Value("${cluster.idempotency.enabled:false}") boolean enabled,
+                       @Value("${cluster.self-url:}") String selfUrl,
+                       @Value("${cluster.peers:}") List<String> peers,
+                       @Value("${cluster.idempotency.virtual-nodes:128}") int virtualNodes,
+                       @Value("${admission.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.peerClient = peerClient;
+        this.self = normalize(selfUrl);
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        List<String> members = new ArrayList<>();
+        members.add(self);
+        peers.stream().map(BatchRouter::normalize).filter(peer -> !peer.isEmpty() && !peer.equals(self))
+                .forEach(members::add);
+
+        this.enabled = enabled && !self.isEmpty() && members.size() > 1;
+        this.ring = this.enabled ? new ConsistentHashRing(members, virtualNodes) : null;
+        if (enabled && !this.enabled) {
+            log.warn("Cluster idempotency needs cluster.self-url and at least one peer; batches stay local");
+        } else if (this.enabled) {
+            log.info("Cluster idempotency enabled, this node is {} of {} member(s)", self, members.size());
+        }
+    }
+
+    /**
+     * Returns the owner's base URL when another replica owns the batchId, or null if this node does
+     */
+    public String remoteOwnerOf(String batchId) {
+        if (!enabled || batchId == null) {
+            return null;
+        }
+        String owner = ring.ownerOf(batchId);
+        return owner.equals(self) ? null : owner;
+    }
+
+    /**
+     * Hands the batch to its owner and returns the owner's response
+     * Load shedding by the owner is passed on to the caller as is, and so is a batch the owner's
+     * shutdown cut off, which resumes there.
+     */
+    public BulkTransactionResponse forward(String owner, BulkTransactionRequest request) {
+        log.info("ROUTING batchId: {} to owner {}", request.getBatchId(), owner);
+        try {
+            return peerClient.submitBatch(owner, request);
+        } catch (RestClientResponseException e) {
+            if (e.getStatusCode().value() == HttpStatus.CONFLICT.value()) {
+                throw new BatchHandedOffException("Batch " + request.getBatchId() + " was interrupted by a shutdown "
+                        + "of its owner; the remaining items resume on replica " + owner + " when it restarts. "
+                        + "Poll the batch results instead of resubmitting it");
+            }
+            throw rejected(owner, request.getBatchId(), e);
+        } catch (ResourceAccessException e) {
+            throw unavailable(owner, e);
+        }
+    }
+
+    /**
+     * Hands a replay of failed items to the batch's owner and returns the merged results
+     * A conflict reported by the owner (batch unfinished or already replaying) is passed on as is.
+     */
+    public BulkTransactionResponse forwardReplay(String owner, String batchId, String reason) {
+        log.info("ROUTING replay of batchId: {} to owner {}", batchId, owner);
+        try {
+            return peerClient.replayBatch(owner, batchId, reason);
+        } catch (RestClientResponseException e) {
+            if (e.getStatusCode().value() == HttpStatus.CONFLICT.value()) {
+                throw new BatchReplayRejectedException("Batch " + batchId + " cannot be replayed right now");
+            }
+            throw rejected(owner, batchId, e);
+        } catch (ResourceAccessException e) {
+            throw unavailable(owner, e);
+        }
+    }
+
+    /**
+     * Reads batch results from the owner
+     */
+    public Optional<BulkTransactionResponse> fetch(String owner, String batchId) {
+        try {
+            return peerClient.fetchBatch(owner, batchId);
+        } catch (ResourceAccessException e) {
+            throw unavailable(owner, e);
+        }
+    }
+
+    private RuntimeException rejected(String owner, String batchId, RestClientResponseException e) {
+        int status = e.getStatusCode().value();
+        if (status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            return new AdmissionRejectedException(HttpStatus.valueOf(status),
+                    "Owner replica is shedding load", retryAfter(e));
+        }
+        return new IllegalStateException("Owner replica " + owner + " failed batchId " + batchId
+                + " with status " + status, e);
+    }
+
+    private OwnerUnavailableException unavailable(String owner, Exception e) {
+        log.warn("ROUTING owner {} unreachable - Error: {}", owner, e.getMessage());
+        return new OwnerUnavailableException("Owner replica for this batch is unavailable", retryAfterSeconds, e);
+    }
+
+    private long retryAfter(RestClientResponseException e) {
+        HttpHeaders headers = e.getResponseHeaders();
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        try {
+            return value == null ? retryAfterSeconds : Long.parseLong(value.trim());
+        } catch (NumberFormatException ignored) {
+            return retryAfterSeconds;
+        }
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,103 @@
+package com.interswitch.bulktransaction.cluster;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.security.ClusterNodeAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * HTTP client for the internal endpoints of peer replicas
+ * Bodies travel as CBOR; calls carry the shared cluster.node-secret, which every replica must set.
+ */
+@Component
+public class PeerClient {
+
+    static final String SHARD_PATH = "/internal/v1/shards";
+    static final String BATCH_PATH = "/internal/v1/batches";
+
+    private final RestClient restClient;
+    private final String nodeSecret;
+
+    public PeerClient(RestClient.Builder restClientBuilder,
+                      @Value("${cluster.node-secret:}") String nodeSecret,
+                      @Value("${cluster.coordinator.connect-timeout-ms:2000}") long connectTimeoutMs,
+                      @Value("${cluster.coordinator.shard-timeout-seconds:120}") long shardTimeoutSeconds) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofSeconds(shardTimeoutSeconds));
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.nodeSecret = nodeSecret;
+    }
+
+    /**
+     * Sends one shard to a peer and waits for its results
+     *
+     * @throws RuntimeException if the peer is unreachable, times out or answers with an error
+     */
+    public BulkTransactionResponse processShard(String peerUrl, BulkTransactionRequest shard) {
+        return post(peerUrl + SHARD_PATH, shard);
+    }
+
+    /**
+     * Hands a batch to the replica that owns its batchId and waits for the response
+     *
+     * @throws RestClientResponseException if the owner answers with an error status
+     * @throws RuntimeException            if the owner is unreachable or times out
+     */
+    public BulkTransactionResponse submitBatch(String ownerUrl, BulkTransactionRequest request) {
+        return post(ownerUrl + BATCH_PATH, request);
+    }
+
+    /**
+     * Asks the replica that owns the batchId to replay the batch's failed items
+     *
+     * @param reason Optional reason prefix that failed items must match, null for all
+     * @throws RestClientResponseException if the owner answers with an error status
+     * @throws RuntimeException            if the owner is unreachable or times out
+     */
+    public BulkTransactionResponse replayBatch(String ownerUrl, String batchId, String reason) {
+        return restClient.post()
+                .uri(ownerUrl + BATCH_PATH + "/{batchId}/replay?reason={reason}", batchId, reason == null ? "" : reason)
+                .header(ClusterNodeAuthenticationFilter.NODE_SECRET_HEADER, nodeSecret)
+                .accept(MediaType.APPLICATION_CBOR)
+                .retrieve()
+                .body(BulkTransactionResponse.class);
+    }
+
+    /**
+     * Reads batch results from the replica that owns the batchId
+     *
+     * @return Empty if the owner does not know the batch
+     */
+    public Optional<BulkTransactionResponse> fetchBatch(String ownerUrl, String batchId) {
+        return Optional.ofNullable(restClient.get()
+                .uri(ownerUrl + BATCH_PATH + "/{batchId}", batchId)
+                .header(ClusterNodeAuthenticationFilter.NODE_SECRET_HEADER, nodeSecret)
+                .accept(MediaType.APPLICATION_CBOR)
+                .retrieve()
+                .onStatus(status -> status.value() == 404, (request, response) -> { })
+                .body(BulkTransactionResponse.class));
+    }
+
+    private BulkTransactionResponse post(String url, BulkTransactionRequest body) {
+        return restClient.post()
+                .uri(url)
+                .header(ClusterNodeAuthenticationFilter.NODE_SECRET_HEADER, nodeSecret)
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .body(body)
+                .retrieve()
+                .body(BulkTransactionResponse.class);
+    }
+}
@@ -0,0 +1,282 @@
+package com.interswitch.bulktransaction.cluster;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Coordinator mode: splits a large batch into shards and processes them across replicas
+ *
+ * Shards are built from whole accounts, so per-account ordering still holds when shards run
+ * on different nodes. Every node, this one included, pulls shards from a shared queue, which
+ * lets faster nodes take more of the batch. A peer that fails or times out is dropped for the
+ * rest of the batch and put on cooldown, and its shard goes back on the queue for another node.
+ * This node never drops out, so a batch always completes even with every peer down.
+ *
+ * Peers process a shard as a batch of their own with the id batchId#shard-F-H, where F is the
+ * shard's first item index and H a hash of all its indexes. The id depends only on the shard's
+ * items, so a shard retried on the same peer is answered from its journal instead of being sent
+ * downstream twice. Every returned result is matched against the shard's transaction ids before
+ * it is recorded.
+ *
+ * Before a shard is posted, its items are journaled as dispatched on this node, just like items
+ * sent downstream from here. If this node crashes while a peer holds the shard, recovery finds
+ * them in doubt and settles them through reconciliation rather than sharding them out again.
+ */
+@Slf4j
+@Service
+public class ShardCoordinator implements AutoCloseable {
+
+    public static final String SHARD_SEPARATOR = "#shard-";
+
+    private static final long POLL_MILLIS = 50;
+
+    private final PeerClient peerClient;
+    private final boolean enabled;
+    private final List<String> peers;
+    private final int minItems;
+    private final int shardSize;
+    private final long peerCooldownNanos;
+    private final Map<String, Long> peerDownUntil = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+    private final Counter dispatchedCounter;
+    private final Counter reassignedCounter;
+
+    public ShardCoordinator(PeerClient peerClient,
+                            @Value("${cluster.coordinator.enabled:false}") boolean enabled,
+                            @Value("${cluster.peers:}") List<String> peers,
+                            @Value("${cluster.coordinator.min-items:5000}") int minItems,
+                            @Value("${cluster.coordinator.shard-size:1000}") int shardSize,
+                            @Value("${cluster.coordinator.peer-cooldown-seconds:30}") long peerCooldownSeconds,
+                            MeterRegistry meterRegistry) {
+        this.peerClient = peerClient;
+        this.peers = peers.stream().map(String::trim).filter(peer -> !peer.isEmpty()).toList();
+        this.enabled = enabled && !this.peers.isEmpty();
+        this.minItems = minItems;
+        this.shardSize = Math.max(1, shardSize);
+        this.peerCooldownNanos = TimeUnit.SECONDS.toNanos(peerCooldownSeconds);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.dispatcher = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "shard-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatchedCounter = Counter.builder("cluster.shards.dispatched")
+                .description("Shards sent to peer replicas")
+                .register(meterRegistry);
+        this.reassignedCounter = Counter.builder("cluster.shards.reassigned")
+                .description("Shards moved to another node after a peer failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true if the batch is large enough to be split across replicas
+     * Shard batches received from a coordinator are never split again.
+     */
+    public boolean shouldDistribute(BatchRecord batch, int pendingItems) {
+        return enabled && pendingItems >= minItems && !isShard(batch.getBatchId());
+    }
+
+    public static boolean isShard(String batchId) {
+        return batchId.contains(SHARD_SEPARATOR);
+    }
+
+    /**
+     * Processes the pending items of a batch across this node and its peers
+     * Returns once every item has a result.
+     *
+     * @param localRunner    Processes a shard on this node, recording results itself, and blocks until done
+     * @param remoteSink     Records a result received from a peer, by item index
+     * @param markDispatched Journals an item as handed to a peer; the shard is posted once the returned futures complete
+     */
+    public void distribute(BatchRecord batch, Consumer<int[]> localRunner, ResultSink remoteSink,
+                           IntFunction<CompletableFuture<Void>> markDispatched) {
+        List<int[]> shardIndexes = buildShards(batch);
+        Queue<Shard> queue = new ConcurrentLinkedQueue<>();
+        for (int[] indexes : shardIndexes) {
+            queue.add(new Shard(indexes));
+        }
+        CountDownLatch remaining = new CountDownLatch(queue.size());
+
+        List<String> livePeers = peers.stream().filter(this::isAvailable).toList();
+        log.info("SHARDING batchId: {} into {} shard(s) across this node and {} peer(s)",
+                batch.getBatchId(), queue.size(), livePeers.size());
+
+        for (String peer : livePeers) {
+            dispatcher.execute(() -> runPeer(peer, batch, queue, remaining, remoteSink, markDispatched));
+        }
+        runLocal(queue, remaining, localRunner);
+    }
+
+    private void runLocal(Queue<Shard> queue, CountDownLatch remaining, Consumer<int[]> localRunner) {
+        try {
+            while (remaining.getCount() > 0) {
+                Shard shard = queue.poll();
+                if (shard == null) {
+                    // Peers may still hand a shard back
+                    remaining.await(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                localRunner.accept(shard.indexes());
+                remaining.countDown();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        }
+    }
+
+    private void runPeer(String peer, BatchRecord batch, Queue<Shard> queue, CountDownLatch remaining,
+                         ResultSink remoteSink, IntFunction<CompletableFuture<Void>> markDispatched) {
+        Shard shard;
+        while ((shard = queue.poll()) != null) {
+            BulkTransactionRequest request = shard.toRequest(batch);
+            try {
+                journalDispatch(shard, markDispatched);
+            } catch (Exception e) {
+                // Not the peer's fault; this node runs the shard and surfaces the journal error per item
+                queue.add(shard);
+                log.warn("SHARDING could not journal shard {} of batchId: {}, leaving it to this node - Error: {}",
+                        request.getBatchId(), batch.getBatchId(), e.getMessage());
+                return;
+            }
+            try {
+                dispatchedCounter.increment();
+                BulkTransactionResponse response = peerClient.processShard(peer, request);
+                List<TransactionResult> results = response == null ? null : response.getResults();
+                if (results == null || results.size() != shard.indexes().length) {
+                    throw new IllegalStateException("incomplete shard response");
+                }
+                List<TransactionRequest> items = request.getTransactions();
+                for (int i = 0; i < results.size(); i++) {
+                    if (!Objects.equals(items.get(i).getTransactionId(), results.get(i).getTransactionId())) {
+                        throw new IllegalStateException("shard response does not match the request at item " + i);
+                    }
+                }
+                for (int i = 0; i < results.size(); i++) {
+                    remoteSink.record(shard.indexes()[i], results.get(i));
+                }
+                remaining.countDown();
+            } catch (Exception e) {
+                peerDownUntil.put(peer, System.nanoTime() + peerCooldownNanos);
+                reassignedCounter.increment();
+                queue.add(shard);
+                log.warn("SHARDING peer {} failed shard {} of batchId: {}, reassigning - Error: {}",
+                        peer, request.getBatchId(), batch.getBatchId(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static void journalDispatch(Shard shard, IntFunction<CompletableFuture<Void>> markDispatched) {
+        CompletableFuture<?>[] markers = new CompletableFuture[shard.indexes().length];
+        for (int i = 0; i < markers.length; i++) {
+            markers[i] = markDispatched.apply(shard.indexes()[i]);
+        }
+        CompletableFuture.allOf(markers).join();
+    }
+
+    private boolean isAvailable(String peer) {
+        Long downUntil = peerDownUntil.get(peer);
+        if (downUntil == null) {
+            return true;
+        }
+        if (System.nanoTime() - downUntil >= 0) {
+            peerDownUntil.remove(peer, downUntil);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Packs pending items into shards of about shardSize, keeping each fromAccount in one shard
+     */
+    private List<int[]> buildShards(BatchRecord batch) {
+        List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+        Map<String, List<Integer>> byAccount = new LinkedHashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            if (batch.getResult(i) == null) {
+                byAccount.computeIfAbsent(transactions.get(i).getFromAccount(), key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<int[]> shards = new ArrayList<>();
+        List<Integer> current = new ArrayList<>(shardSize);
+        for (List<Integer> accountItems : byAccount.values()) {
+            if (!current.isEmpty() && current.size() + accountItems.size() > shardSize) {
+                shards.add(toSortedArray(current));
+                current = new ArrayList<>(shardSize);
+            }
+            current.addAll(accountItems);
+        }
+        if (!current.isEmpty()) {
+            shards.add(toSortedArray(current));
+        }
+        return shards;
+    }
+
+    private static int[] toSortedArray(List<Integer> indexes) {
+        return indexes.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Receives results of items processed by a peer
+     */
+    @FunctionalInterface
+    public interface ResultSink {
+        void record(int index, TransactionResult result);
+    }
+
+    private record Shard(int[] indexes) {
+
+        /**
+         * Id derived from the shard's items rather than its position, which changes when a batch is re-sharded
+         */
+        String id(String batchId) {
+            return batchId + SHARD_SEPARATOR + indexes[0] + "-" + Integer.toHexString(Arrays.hashCode(indexes));
+        }
+
+        BulkTransactionRequest toRequest(BatchRecord batch) {
+            List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+            List<TransactionRequest> items = new ArrayList<>(indexes.length);
+            for (int index : indexes) {
+                items.add(transactions.get(index));
+            }
+            return BulkTransactionRequest.builder()
+                    .batchId(id(batch.getBatchId()))
+                    .transactions(items)
+                    .build();
+        }
+    }
+}
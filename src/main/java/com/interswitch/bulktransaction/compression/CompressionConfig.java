@@ -0,0 +1,43 @@
+package com.interswitch.bulktransaction.compression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers compressed body support on the bulk endpoints
+ * Both filters run after Spring Security, so unauthenticated requests are never inflated
+ * and error responses from the security chain are sent as is.
+ */
+@Configuration
+public class CompressionConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "compression.request.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RequestDecompressionFilter> requestDecompressionFilter(
+            ObjectMapper objectMapper,
+            @Value("${compression.request.max-inflated-bytes:268435456}") long maxInflatedBytes) {
+
+        FilterRegistrationBean<RequestDecompressionFilter> registration = new FilterRegistrationBean<>(
+                new RequestDecompressionFilter(objectMapper, maxInflatedBytes));
+        registration.addUrlPatterns("/api/v1/bulk-transactions", "/api/v1/bulk-transactions/files");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "compression.response.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(
+            @Value("${compression.response.zstd-level:3}") int zstdLevel) {
+
+        FilterRegistrationBean<ResponseCompressionFilter> registration = new FilterRegistrationBean<>(
+                new ResponseCompressionFilter(zstdLevel));
+        registration.addUrlPatterns("/api/v1/bulk-transactions/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,113 @@
+package com.interswitch.bulktransaction.compression;
+
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP content codings supported for bulk payloads
+ * Both directions are streaming: bodies are inflated or deflated in small chunks
+ * and never held in memory as a whole.
+ */
+public enum ContentEncoding {
+
+    GZIP("gzip") {
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+
+        @Override
+        public OutputStream encode(OutputStream out, int level) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+    },
+
+    ZSTD("zstd") {
+        @Override
+        public InputStream decode(InputStream in) throws IOException {
+            return new ZstdInputStreamNoFinalizer(in);
+        }
+
+        @Override
+        public OutputStream encode(OutputStream out, int level) throws IOException {
+            return new ZstdOutputStreamNoFinalizer(out, level);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public abstract InputStream decode(InputStream in) throws IOException;
+
+    /**
+     * @param level Compression level, only used by zstd
+     */
+    public abstract OutputStream encode(OutputStream out, int level) throws IOException;
+
+    /**
+     * Resolves a Content-Encoding header value, null if the coding is not supported
+     */
+    public static ContentEncoding fromToken(String value) {
+        String token = value.trim().toLowerCase(Locale.ROOT);
+        if ("gzip".equals(token) || "x-gzip".equals(token)) {
+            return GZIP;
+        }
+        if ("zstd".equals(token)) {
+            return ZSTD;
+        }
+        return null;
+    }
+
+    /**
+     * Picks the response coding from an Accept-Encoding header, preferring zstd over gzip
+     * Codings listed with q=0 are treated as refused.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean gzip = false;
+        for (String part : acceptEncoding.split(",")) {
+            int params = part.indexOf(';');
+            String coding = (params < 0 ? part : part.substring(0, params)).trim().toLowerCase(Locale.ROOT);
+            if (params >= 0 && isRefused(part.substring(params + 1))) {
+                continue;
+            }
+            if ("zstd".equals(coding)) {
+                return ZSTD;
+            }
+            gzip |= "gzip".equals(coding) || "x-gzip".equals(coding);
+        }
+        return gzip ? GZIP : null;
+    }
+
+    private static boolean isRefused(String params) {
+        for (String param : params.split(";")) {
+            String[] pair = param.split("=", 2);
+            if (pair.length == 2 && "q".equalsIgnoreCase(pair[0].trim())) {
+                try {
+                    return Double.parseDouble(pair[1].trim()) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
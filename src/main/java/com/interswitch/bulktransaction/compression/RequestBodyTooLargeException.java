@@ -0,0 +1,13 @@
+package com.interswitch.bulktransaction.compression;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading a compressed request body that inflates beyond the configured limit
+ */
+public class RequestBodyTooLargeException extends IOException {
+
+    public RequestBodyTooLargeException(long maxBytes) {
+        super("Decompressed request body exceeds " + maxBytes + " bytes");
+    }
+}
@@ -0,0 +1,201 @@
+package com.interswitch.bulktransaction.compression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interswitch.bulktransaction.exceptions.GlobalExceptionHandler.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Accepts gzip or zstd compressed request bodies
+ * The servlet input stream is replaced by a decoding stream, so Jackson parses the JSON
+ * while it is being inflated. Inflated size is capped to guard against decompression bombs.
+ */
+@Slf4j
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final long maxInflatedBytes;
+
+    public RequestDecompressionFilter(ObjectMapper objectMapper, long maxInflatedBytes) {
+        this.objectMapper = objectMapper;
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding == null || contentEncoding.isBlank() || "identity".equalsIgnoreCase(contentEncoding.trim())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ContentEncoding encoding = ContentEncoding.fromToken(contentEncoding);
+        if (encoding == null) {
+            log.warn("Unsupported Content-Encoding {} on {} {}", contentEncoding, request.getMethod(), request.getRequestURI());
+            ErrorResponse errorResponse = new ErrorResponse(
+                    LocalDateTime.now(),
+                    HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(),
+                    HttpStatus.UNSUPPORTED_MEDIA_TYPE.getReasonPhrase(),
+                    "Unsupported Content-Encoding: " + contentEncoding
+            );
+            response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+            response.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, zstd");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), errorResponse);
+            return;
+        }
+
+        filterChain.doFilter(new DecompressedRequest(request, encoding, maxInflatedBytes), response);
+    }
+
+    /**
+     * Request view with the decoded body; Content-Encoding and Content-Length are hidden
+     * because they describe the compressed bytes
+     */
+    private static final class DecompressedRequest extends HttpServletRequestWrapper {
+
+        private static final List<String> HIDDEN_HEADERS =
+                List.of(HttpHeaders.CONTENT_ENCODING.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase());
+
+        private final ContentEncoding encoding;
+        private final long maxInflatedBytes;
+        private ServletInputStream inputStream;
+
+        DecompressedRequest(HttpServletRequest request, ContentEncoding encoding, long maxInflatedBytes) {
+            super(request);
+            this.encoding = encoding;
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new DecodingInputStream(
+                        encoding.decode(super.getInputStream()), maxInflatedBytes);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String characterEncoding = getCharacterEncoding();
+            Charset charset = characterEncoding == null ? StandardCharsets.UTF_8 : Charset.forName(characterEncoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(DecompressedRequest::isHidden);
+            return Collections.enumeration(names);
+        }
+
+        private static boolean isHidden(String name) {
+            return HIDDEN_HEADERS.contains(name.toLowerCase());
+        }
+    }
+
+    /**
+     * Blocking servlet stream over the decoder that fails once the inflated size exceeds the limit
+     */
+    private static final class DecodingInputStream extends ServletInputStream {
+
+        private final InputStream decoded;
+        private final long maxBytes;
+        private long bytesRead;
+        private boolean finished;
+
+        DecodingInputStream(InputStream decoded, long maxBytes) {
+            this.decoded = decoded;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = decoded.read();
+            count(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = decoded.read(buffer, offset, length);
+            count(n);
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            if (n < 0) {
+                finished = true;
+                return;
+            }
+            bytesRead += n;
+            if (bytesRead > maxBytes) {
+                throw new RequestBodyTooLargeException(maxBytes);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Asynchronous reads are not supported for compressed bodies");
+        }
+
+        @Override
+        public void close() throws IOException {
+            decoded.close();
+        }
+    }
+}
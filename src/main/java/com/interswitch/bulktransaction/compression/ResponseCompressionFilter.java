@@ -0,0 +1,197 @@
+package com.interswitch.bulktransaction.compression;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Compresses batch result responses with zstd or gzip, as negotiated by Accept-Encoding
+ * The body is encoded while Jackson writes it; Content-Length is dropped and the response
+ * is sent chunked. Bodies the handler already encoded itself, such as pre-compressed cached
+ * results, are passed through untouched.
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private final int zstdLevel;
+
+    public ResponseCompressionFilter(int zstdLevel) {
+        this.zstdLevel = zstdLevel;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CompressedResponse compressedResponse = new CompressedResponse(response, encoding, zstdLevel);
+        try {
+            filterChain.doFilter(request, compressedResponse);
+        } finally {
+            compressedResponse.finish();
+        }
+    }
+
+    /**
+     * Response view that encodes everything written to its body
+     * Encoding starts with the first write, so bodiless responses are left untouched.
+     */
+    private static final class CompressedResponse extends HttpServletResponseWrapper {
+
+        private final ContentEncoding encoding;
+        private final int level;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean passThrough;
+        private long contentLength = -1;
+
+        CompressedResponse(HttpServletResponse response, ContentEncoding encoding, int level) {
+            super(response);
+            this.encoding = encoding;
+            this.level = level;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                if (containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+                    passThrough = true;
+                    if (contentLength >= 0) {
+                        super.setContentLengthLong(contentLength);
+                    }
+                    outputStream = target;
+                } else {
+                    setHeader(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+                    outputStream = new EncodingOutputStream(target, encoding.encode(target, level));
+                }
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            // Only known to be right once it is clear whether this filter encodes the body
+            if (passThrough) {
+                super.setContentLengthLong(length);
+            } else {
+                contentLength = length;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (outputStream != null) {
+                outputStream.flush();
+            }
+            super.flushBuffer();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.close();
+            } else if (outputStream != null) {
+                outputStream.close();
+            }
+        }
+    }
+
+    private static final class EncodingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream target;
+        private final OutputStream encoded;
+        private boolean closed;
+
+        EncodingOutputStream(ServletOutputStream target, OutputStream encoded) {
+            this.target = target;
+            this.encoded = encoded;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            encoded.write(b);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            encoded.write(buffer, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            encoded.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                encoded.close();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+    }
+}
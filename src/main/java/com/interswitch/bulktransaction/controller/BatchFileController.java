@@ -0,0 +1,64 @@
+package com.interswitch.bulktransaction.controller;
+
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.exceptions.BatchFileRejectedException;
+import com.interswitch.bulktransaction.ingestion.FileFormat;
+import com.interswitch.bulktransaction.ingestion.FileIngestionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * REST Controller for bank file uploads
+ * Accepts CSV or fixed-width files as the raw request body and processes them as one batch
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/bulk-transactions/files")
+@RequiredArgsConstructor
+public class BatchFileController {
+
+    private final FileIngestionService fileIngestionService;
+
+    /**
+     * Processes an uploaded bank file
+     * Only users with ROLE_USER or ROLE_ADMIN can submit bulk transactions
+     *
+     * @param batchId The batch ID for the file
+     * @param format  csv (default) or fixed-width
+     * @return Response with processing results for each row, in file order
+     */
+    @PostMapping(consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BulkTransactionResponse> uploadBatchFile(
+            @RequestParam String batchId,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) throws IOException {
+
+        FileFormat fileFormat = FileFormat.fromParameter(format);
+        if (fileFormat == null) {
+            throw new BatchFileRejectedException("Unsupported file format: " + format, List.of());
+        }
+
+        log.info("Received {} bank file for batchId: {}", fileFormat, batchId);
+
+        Charset charset = request.getCharacterEncoding() == null
+                ? StandardCharsets.UTF_8
+                : Charset.forName(request.getCharacterEncoding());
+        BulkTransactionResponse response =
+                fileIngestionService.ingest(batchId, fileFormat, request.getInputStream(), charset);
+
+        log.info("Completed processing for batchId: {}", batchId);
+
+        return ResponseEntity.ok(response);
+    }
+}
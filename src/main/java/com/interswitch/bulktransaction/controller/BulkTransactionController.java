@@ -1,13 +1,23 @@
 package com.interswitch.bulktransaction.controller;
 
+import com.interswitch.bulktransaction.cache.BatchResultCache;
+import com.interswitch.bulktransaction.cache.CachedBatchResults;
+import com.interswitch.bulktransaction.compression.ContentEncoding;
 import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
 import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
 import com.interswitch.bulktransaction.service.BulkTransactionService;
+import com.interswitch.bulktransaction.tracing.TraceSpans;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -17,10 +27,30 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/bulk-transactions")
-@RequiredArgsConstructor
 public class BulkTransactionController {
 
     private final BulkTransactionService bulkTransactionService;
+    private final BatchPreflightValidator preflightValidator;
+    private final BatchResultCache batchResultCache;
+    private final Tracer tracer;
+
+    public BulkTransactionController(BulkTransactionService bulkTransactionService,
+                                     BatchPreflightValidator preflightValidator,
+                                     BatchResultCache batchResultCache,
+                                     @Nullable Tracer tracer) {
+        this.bulkTransactionService = bulkTransactionService;
+        this.preflightValidator = preflightValidator;
+        this.batchResultCache = batchResultCache;
+        this.tracer = tracer == null ? Tracer.NOOP : tracer;
+    }
+
+    /**
+     * Validates bulk requests with the pre-flight validator instead of Bean Validation
+     */
+    @InitBinder("bulkTransactionRequest")
+    public void initBinder(WebDataBinder binder) {
+        binder.setValidator(preflightValidator);
+    }
 
     /**
      * Processes a batch of transactions
@@ -35,6 +65,7 @@ public class BulkTransactionController {
             @Valid @RequestBody BulkTransactionRequest request) {
 
         log.info("Received bulk transaction request for batchId: {}", request.getBatchId());
+        tagRequestSpan(request.getBatchId());
 
         // Process the bulk transaction
         BulkTransactionResponse response = bulkTransactionService.processBulkTransactions(request);
@@ -44,21 +75,78 @@ public class BulkTransactionController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Replays the failed items of a finished batch
+     * Only failed items are sent downstream again; their new outcomes replace the stored ones.
+     *
+     * @param batchId The batch ID to replay
+     * @param reason  Optional reason prefix, e.g. "All retry attempts failed", to replay only matching failures
+     * @return The batch results after the replay
+     */
+    @PostMapping("/{batchId}/replay")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BulkTransactionResponse> replayFailedTransactions(
+            @PathVariable String batchId,
+            @RequestParam(required = false) String reason) {
+
+        log.info("Received replay request for batchId: {}", batchId);
+        tagRequestSpan(batchId);
+
+        BulkTransactionResponse response = bulkTransactionService.replayFailures(batchId, reason);
+
+        log.info("Completed replay for batchId: {}", batchId);
+
+        return ResponseEntity.ok(response);
+    }
 
     /**
      * Retrieves batch processing results (Admin only)
+     * JSON results are served from the serialized response cache, pre-compressed when the
+     * client accepts it, and answered with 304 when the client's ETag still matches.
      *
      * @param batchId The batch ID to retrieve results for
      * @return The processing results
      */
     @GetMapping("/{batchId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BulkTransactionResponse> getBatchResults(@PathVariable String batchId) {
+    public ResponseEntity<?> getBatchResults(
+            @PathVariable String batchId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
         log.info("Admin retrieving results for batchId: {}", batchId);
 
-        BulkTransactionResponse response = bulkTransactionService.getBatchResults(batchId);
+        if (prefersCbor(accept)) {
+            return ResponseEntity.ok(bulkTransactionService.getBatchResults(batchId));
+        }
 
-        return ResponseEntity.ok(response);
+        CachedBatchResults results = batchResultCache.get(batchId);
+        ContentEncoding encoding = ContentEncoding.negotiate(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(results.etag())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (encoding != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        }
+        return response.body(results.body(encoding, batchResultCache.getZstdLevel()));
+    }
+
+    /**
+     * Tags the request's span, so the trace of a batch can be found by its batchId
+     */
+    private void tagRequestSpan(String batchId) {
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            span.tag(TraceSpans.BATCH_ID, batchId);
+        }
+    }
+
+    private static boolean prefersCbor(String accept) {
+        if (accept == null || !accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+            return false;
+        }
+        return MediaType.parseMediaTypes(accept).stream()
+                .noneMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_JSON));
     }
 }
\ No newline at end of file
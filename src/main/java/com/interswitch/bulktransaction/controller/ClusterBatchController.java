@@ -0,0 +1,60 @@
+package com.interswitch.bulktransaction.controller;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Internal endpoints used by peer replicas to hand this node the batches it owns
+ * Only replicas presenting the cluster node secret get the NODE role these endpoints require.
+ * Forwarded batches skip request binding, so BulkTransactionService validates them before they run.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/v1/batches")
+@RequiredArgsConstructor
+public class ClusterBatchController {
+
+    private final BulkTransactionService bulkTransactionService;
+
+    /**
+     * Processes a batch forwarded by a peer
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('NODE')")
+    public ResponseEntity<BulkTransactionResponse> processBatch(@RequestBody BulkTransactionRequest request) {
+
+        log.info("Received forwarded batchId: {}", request.getBatchId());
+
+        return ResponseEntity.ok(bulkTransactionService.processForwarded(request));
+    }
+
+    /**
+     * Replays failed items of a batch stored on this node, for a peer that received the request
+     */
+    @PostMapping("/{batchId}/replay")
+    @PreAuthorize("hasRole('NODE')")
+    public ResponseEntity<BulkTransactionResponse> replayBatch(@PathVariable String batchId,
+                                                               @RequestParam(required = false) String reason) {
+
+        log.info("Received forwarded replay of batchId: {}", batchId);
+
+        return ResponseEntity.ok(bulkTransactionService.replayLocally(batchId, reason));
+    }
+
+    /**
+     * Returns the results of a batch stored on this node, 404 if it is unknown or unfinished
+     */
+    @GetMapping("/{batchId}")
+    @PreAuthorize("hasRole('NODE')")
+    public ResponseEntity<BulkTransactionResponse> getBatchResults(@PathVariable String batchId) {
+        return bulkTransactionService.findLocalResults(batchId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
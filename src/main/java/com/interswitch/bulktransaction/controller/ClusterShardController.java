@@ -0,0 +1,42 @@
+package com.interswitch.bulktransaction.controller;
+
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Internal endpoint used by a coordinator replica to hand this node one shard of a batch
+ * The shard is validated again and processed here as a batch of its own.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/v1/shards")
+@RequiredArgsConstructor
+public class ClusterShardController {
+
+    private final BulkTransactionService bulkTransactionService;
+
+    /**
+     * Processes a shard and returns its results in shard order
+     * Only peer replicas presenting the cluster node secret can submit shards
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('NODE')")
+    public ResponseEntity<BulkTransactionResponse> processShard(@RequestBody BulkTransactionRequest request) {
+
+        if (request.getBatchId() == null || !ShardCoordinator.isShard(request.getBatchId())
+                || request.getTransactions() == null || request.getTransactions().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Received shard {} with {} item(s)", request.getBatchId(), request.getTransactions().size());
+
+        return ResponseEntity.ok(bulkTransactionService.processForwarded(request));
+    }
+}
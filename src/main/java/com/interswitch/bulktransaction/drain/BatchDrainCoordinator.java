@@ -0,0 +1,272 @@
+package com.interswitch.bulktransaction.drain;
+
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.exceptions.AdmissionRejectedException;
+import com.interswitch.bulktransaction.exceptions.BatchHandedOffException;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains this replica on shutdown (drain.*)
+ *
+ * Stops first when the context closes on SIGTERM, before the web server's graceful shutdown.
+ * Readiness turns to REFUSING_TRAFFIC and new batches, replays and shards are refused with 503,
+ * so callers and shard coordinators move on to other replicas while batches already running
+ * here keep their full throughput. Those get grace-period-seconds to finish. After that no
+ * further items of theirs are sent downstream; items already sent get handoff-timeout-seconds
+ * to return. What is left has no stored result, i.e. is checkpointed in the batch journal, and
+ * is resumed by BatchRecoveryService when a replica with the same repository starts again.
+ * The request of such a batch is answered with 409 naming that replica, not with 503, so the
+ * client polls for the results instead of resubmitting the batch elsewhere.
+ *
+ * Shards are exempt from the cut-off: the coordinator would re-send a whole shard, including
+ * items already processed here, so they run to completion. Drain can also be started early
+ * through /actuator/drain, e.g. from a preStop hook.
+ */
+@Slf4j
+@Component
+public class BatchDrainCoordinator implements SmartLifecycle {
+
+    public enum State { ACCEPTING, DRAINING, HANDING_OFF, DRAINED }
+
+    static final String DRAINING_REASON = "Service is shutting down, submit to another replica";
+    private static final String THIS_REPLICA = "this replica";
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long gracePeriodMillis;
+    private final long handoffTimeoutMillis;
+    private final long retryAfterSeconds;
+    private final String replica;
+    private final Map<String, InFlightBatch> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchEnded = lock.newCondition();
+    private final Set<String> handedOff = new LinkedHashSet<>();
+    private final Counter rejectedCounter;
+    private final Counter handedOffCounter;
+    private volatile State state = State.ACCEPTING;
+    private volatile boolean running;
+    private volatile Instant drainStartedAt;
+    private volatile long graceEndsNanos;
+
+    public BatchDrainCoordinator(ApplicationEventPublisher eventPublisher, boolean enabled, long gracePeriodSeconds,
+                                 long handoffTimeoutSeconds, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this(eventPublisher, enabled, gracePeriodSeconds, handoffTimeoutSeconds, retryAfterSeconds, "", meterRegistry);
+    }
+
+    @Autowired
+    public BatchDrainCoordinator(ApplicationEventPublisher eventPublisher,
+                                 @Value("${drain.enabled:true}") boolean enabled,
+                                 @Value("${drain.grace-period-seconds:45}") long gracePeriodSeconds,
+                                 @Value("${drain.handoff-timeout-seconds:10}") long handoffTimeoutSeconds,
+                                 @Value("${drain.retry-after-seconds:5}") long retryAfterSeconds,
+                                 @Value("${cluster.self-url:}") String selfUrl,
+                                 MeterRegistry meterRegistry) {
+        this.eventPublisher = eventPublisher;
+        this.replica = selfUrl.isBlank() ? THIS_REPLICA : "replica " + selfUrl.trim();
+        this.enabled = enabled;
+        this.gracePeriodMillis = TimeUnit.SECONDS.toMillis(Math.max(0, gracePeriodSeconds));
+        this.handoffTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(0, handoffTimeoutSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("drain.batches.inflight", inFlight, Map::size)
+                .description("Batches running on this replica")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("drain.rejected")
+                .description("Batches refused because this replica is draining")
+                .register(meterRegistry);
+        this.handedOffCounter = Counter.builder("drain.handed.off")
+                .description("Batches checkpointed unfinished at the end of the drain grace period")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refuses new work once draining has started
+     *
+     * @throws AdmissionRejectedException with 503 and a Retry-After hint while draining
+     */
+    public void checkAccepting() {
+        if (state != State.ACCEPTING) {
+            rejectedCounter.increment();
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, DRAINING_REASON, retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Registers a batch run; every call must be paired with finished()
+     */
+    public void started(BatchRecord batch) {
+        inFlight.put(batch.getBatchId(), new InFlightBatch(batch, Instant.now()));
+    }
+
+    public void finished(String batchId) {
+        inFlight.remove(batchId);
+        lock.lock();
+        try {
+            batchEnded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether items of this batch that have not been sent downstream yet should be left for a later resume
+     */
+    public boolean shouldStopDispatch(String batchId) {
+        State current = state;
+        return (current == State.HANDING_OFF || current == State.DRAINED) && !ShardCoordinator.isShard(batchId);
+    }
+
+    /**
+     * Builds the error that ends a batch cut off by the drain, once its dispatched items returned
+     */
+    public BatchHandedOffException handedOff(BatchRecord batch) {
+        int total = batch.getRequest().getTransactions().size();
+        lock.lock();
+        try {
+            if (handedOff.add(batch.getBatchId())) {
+                handedOffCounter.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.warn("DRAIN checkpointed batchId: {} with {} of {} item(s) completed; the rest resume on restart",
+                batch.getBatchId(), batch.getCompletedItems(), total);
+        return new BatchHandedOffException("Batch " + batch.getBatchId() + " was interrupted by a shutdown with "
+                + batch.getCompletedItems() + " of " + total + " items completed; the remaining items resume on "
+                + replica + " when it restarts. Poll the batch results instead of resubmitting it");
+    }
+
+    /**
+     * Starts draining: readiness is withdrawn and new work refused; does nothing if already draining
+     */
+    public DrainStatus drain() {
+        if (!enabled) {
+            return status();
+        }
+        lock.lock();
+        try {
+            if (state == State.ACCEPTING) {
+                drainStartedAt = Instant.now();
+                graceEndsNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(gracePeriodMillis);
+                state = State.DRAINING;
+                log.info("DRAIN started with {} batch(es) in flight, grace period {} s",
+                        inFlight.size(), TimeUnit.MILLISECONDS.toSeconds(gracePeriodMillis));
+            }
+        } finally {
+            lock.unlock();
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        return status();
+    }
+
+    public DrainStatus status() {
+        List<DrainStatus.BatchProgress> batches = inFlight.values().stream()
+                .map(InFlightBatch::progress)
+                .toList();
+        long graceRemainingMillis = state == State.DRAINING
+                ? Math.max(0, TimeUnit.NANOSECONDS.toMillis(graceEndsNanos - System.nanoTime()))
+                : 0;
+        lock.lock();
+        try {
+            return new DrainStatus(state, drainStartedAt, graceRemainingMillis, batches, List.copyOf(handedOff));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Blocks the shutdown until every batch has finished or been checkpointed
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (!enabled) {
+            return;
+        }
+        drain();
+        long start = System.nanoTime();
+        if (!awaitInFlight(graceEndsNanos)) {
+            state = State.HANDING_OFF;
+            log.warn("DRAIN grace period over with {} batch(es) in flight; checkpointing their remaining items",
+                    inFlight.size());
+            if (!awaitInFlight(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(handoffTimeoutMillis))) {
+                log.warn("DRAIN handoff timed out; batch(es) {} still waiting on downstream calls",
+                        inFlight.keySet());
+            }
+        }
+        state = State.DRAINED;
+        log.info("DRAIN finished in {} ms, {} batch(es) checkpointed",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), (long) handedOffCounter.count());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops before the web server's graceful shutdown, so requests for running batches can still complete
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    private boolean awaitInFlight(long untilNanos) {
+        lock.lock();
+        try {
+            while (!inFlight.isEmpty()) {
+                long remaining = untilNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                batchEnded.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record InFlightBatch(BatchRecord batch, Instant startedAt) {
+
+        DrainStatus.BatchProgress progress() {
+            return new DrainStatus.BatchProgress(batch.getBatchId(), batch.getRequest().getTransactions().size(),
+                    batch.getCompletedItems(), startedAt);
+        }
+    }
+}
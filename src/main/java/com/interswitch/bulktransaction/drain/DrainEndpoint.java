@@ -0,0 +1,29 @@
+package com.interswitch.bulktransaction.drain;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint for the shutdown drain (/actuator/drain)
+ * Reading reports drain progress; writing starts the drain ahead of SIGTERM, e.g. from a preStop hook.
+ */
+@Component
+@Endpoint(id = "drain")
+@RequiredArgsConstructor
+public class DrainEndpoint {
+
+    private final BatchDrainCoordinator drainCoordinator;
+
+    @ReadOperation
+    public DrainStatus status() {
+        return drainCoordinator.status();
+    }
+
+    @WriteOperation
+    public DrainStatus drain() {
+        return drainCoordinator.drain();
+    }
+}
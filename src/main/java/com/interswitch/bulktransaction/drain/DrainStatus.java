@@ -0,0 +1,21 @@
+package com.interswitch.bulktransaction.drain;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Drain progress as reported on /actuator/drain
+ *
+ * @param graceRemainingMillis Time left for running batches to finish before they are checkpointed
+ * @param inFlight             Batches still running on this replica
+ * @param handedOff            Batches checkpointed unfinished, to be resumed after the restart
+ */
+public record DrainStatus(BatchDrainCoordinator.State state,
+                          Instant drainStartedAt,
+                          long graceRemainingMillis,
+                          List<BatchProgress> inFlight,
+                          List<String> handedOff) {
+
+    public record BatchProgress(String batchId, int items, int completedItems, Instant startedAt) {
+    }
+}
@@ -25,4 +25,9 @@ public class BulkTransactionRequest {
     @Size(min = 1, message = "At least one transaction is required")
     @Valid // Validates each transaction in the list
     private List<TransactionRequest> transactions;
+
+    /**
+     * Optional http(s) URL that receives a summary when the batch completes
+     */
+    private String callbackUrl;
 }
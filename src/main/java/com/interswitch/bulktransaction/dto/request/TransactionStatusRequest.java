@@ -0,0 +1,20 @@
+package com.interswitch.bulktransaction.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a downstream status lookup of several transactions at once
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatusRequest {
+
+    private List<String> transactionIds;
+}
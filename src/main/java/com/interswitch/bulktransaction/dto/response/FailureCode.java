@@ -0,0 +1,63 @@
+package com.interswitch.bulktransaction.dto.response;
+
+/**
+ * Why a transaction FAILED, carried next to the human readable reason
+ * Retryable failures may succeed on another attempt; terminal ones are not retried.
+ */
+public enum FailureCode {
+
+    /**
+     * Transaction Service unreachable, timed out, overloaded (408, 429) or failing (5xx)
+     */
+    DOWNSTREAM_UNAVAILABLE(true),
+
+    /**
+     * Transaction Service refused the transaction (4xx); the same request would be refused again
+     */
+    DOWNSTREAM_REJECTED(false),
+
+    /**
+     * The batch deadline passed before the item could be completed
+     */
+    DEADLINE_EXCEEDED(false),
+
+    /**
+     * The item failed pre-flight validation and was never sent downstream
+     */
+    VALIDATION_FAILED(false),
+
+    /**
+     * The account's total debit in the batch exceeds the configured limit; never sent downstream
+     */
+    DEBIT_LIMIT_EXCEEDED(false),
+
+    /**
+     * The Transaction Service kept reporting the transaction as PENDING past reconciliation.max-pending-seconds
+     */
+    OUTCOME_UNKNOWN(false),
+
+    /**
+     * Anything else
+     */
+    UNEXPECTED_ERROR(false);
+
+    private final boolean retryable;
+
+    FailureCode(boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * Classifies an HTTP status from the Transaction Service; a status below 100 means no response
+     */
+    public static FailureCode ofHttpStatus(int status) {
+        if (status < 100 || status == 408 || status == 429 || status >= 500) {
+            return DOWNSTREAM_UNAVAILABLE;
+        }
+        return status >= 400 ? DOWNSTREAM_REJECTED : UNEXPECTED_ERROR;
+    }
+}
@@ -1,5 +1,6 @@
 package com.interswitch.bulktransaction.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +16,9 @@ import lombok.NoArgsConstructor;
 public class TransactionResult {
 
     private String transactionId;
-    private String status; // SUCCESS or FAILED
-    private String reason; // Error message if failed
+    private String status; // SUCCESS, FAILED or PENDING until reconciled
+    private String reason; // Error message if failed or pending
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private FailureCode failureCode; // Set if failed
 }
@@ -0,0 +1,21 @@
+package com.interswitch.bulktransaction.exceptions;
+
+import com.interswitch.bulktransaction.ingestion.LineError;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when an uploaded bank file cannot be accepted as a batch
+ * Carries the offending rows with their line numbers
+ */
+@Getter
+public class BatchFileRejectedException extends RuntimeException {
+
+    private final List<LineError> errors;
+
+    public BatchFileRejectedException(String message, List<LineError> errors) {
+        super(message);
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,13 @@
+package com.interswitch.bulktransaction.exceptions;
+
+/**
+ * Thrown when a shutdown cut a batch off before all of its items were sent downstream
+ * Completed items are stored; the rest are resumed when the replica holding the batch restarts,
+ * so the batch must be polled there rather than submitted again
+ */
+public class BatchHandedOffException extends RuntimeException {
+
+    public BatchHandedOffException(String message) {
+        super(message);
+    }
+}
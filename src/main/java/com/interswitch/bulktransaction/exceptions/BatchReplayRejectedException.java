@@ -0,0 +1,12 @@
+package com.interswitch.bulktransaction.exceptions;
+
+/**
+ * Thrown when failed items of a batch cannot be replayed right now
+ * The batch is still being processed, or another replay of it is already running.
+ */
+public class BatchReplayRejectedException extends RuntimeException {
+
+    public BatchReplayRejectedException(String message) {
+        super(message);
+    }
+}
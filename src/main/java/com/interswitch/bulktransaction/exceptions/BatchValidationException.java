@@ -0,0 +1,21 @@
+package com.interswitch.bulktransaction.exceptions;
+
+import com.interswitch.bulktransaction.validation.ItemViolation;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when a batch that reached the service without going through request binding,
+ * e.g. a forwarded batch or a shard, fails pre-flight validation
+ */
+@Getter
+public class BatchValidationException extends RuntimeException {
+
+    private final List<ItemViolation> violations;
+
+    public BatchValidationException(String message, List<ItemViolation> violations) {
+        super(message);
+        this.violations = violations;
+    }
+}
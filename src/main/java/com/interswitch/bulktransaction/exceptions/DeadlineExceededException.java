@@ -0,0 +1,16 @@
+package com.interswitch.bulktransaction.exceptions;
+
+/**
+ * Thrown instead of calling the Transaction Service once the batch deadline has passed
+ * Listed in the retry ignore-exceptions, so no further attempt is made for the item.
+ * Like TransactionFailedException it is expected and carries no stack trace; use INSTANCE.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public static final DeadlineExceededException INSTANCE =
+            new DeadlineExceededException("Batch deadline exceeded");
+
+    public DeadlineExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
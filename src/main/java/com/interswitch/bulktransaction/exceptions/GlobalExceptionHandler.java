@@ -1,10 +1,13 @@
 package com.interswitch.bulktransaction.exceptions;
 
+import com.interswitch.bulktransaction.compression.RequestBodyTooLargeException;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -53,6 +56,49 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    /**
+     * Handles rejected bank file uploads
+     * Returns the offending rows with their line numbers
+     */
+    @ExceptionHandler(BatchFileRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleBatchFileRejectedException(
+            BatchFileRejectedException ex) {
+
+        log.warn("Batch file rejected: {} {}", ex.getMessage(), ex.getErrors());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation Failed",
+                ex.getErrors().isEmpty() ? ex.getMessage() : ex.getMessage() + ": " + ex.getErrors()
+        );
+
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
+    /**
+     * Handles batches rejected by pre-flight validation inside the service
+     * Returns field-specific error messages like binding failures do
+     */
+    @ExceptionHandler(BatchValidationException.class)
+    public ResponseEntity<ErrorResponse> handleBatchValidationException(
+            BatchValidationException ex) {
+
+        Map<String, String> errors = new HashMap<>();
+        ex.getViolations().forEach(violation -> errors.putIfAbsent(violation.field(), violation.message()));
+
+        log.warn("{}: {}", ex.getMessage(), errors);
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation Failed",
+                errors.toString()
+        );
+
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
     /**
      * Handles access denied exceptions (authorization failures)
      */
@@ -72,6 +118,114 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
     }
 
+    /**
+     * Handles batches shed by admission control after deserialization
+     * Returns 429 or 503 with a Retry-After hint
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleAdmissionRejectedException(
+            AdmissionRejectedException ex) {
+
+        log.warn("Admission rejected: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                ex.getStatus().value(),
+                ex.getStatus().getReasonPhrase(),
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles batches whose owning replica cannot be reached
+     * Returns 503 with a Retry-After hint
+     */
+    @ExceptionHandler(OwnerUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleOwnerUnavailableException(
+            OwnerUnavailableException ex) {
+
+        log.warn("Owner unavailable: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles batches cut off by a shutdown drain
+     * Returns 409 without Retry-After: the stored batch resumes on its replica after the restart,
+     * and a resubmit to another replica would send its completed items again
+     */
+    @ExceptionHandler(BatchHandedOffException.class)
+    public ResponseEntity<ErrorResponse> handleBatchHandedOffException(
+            BatchHandedOffException ex) {
+
+        log.warn("Batch handed off: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /**
+     * Handles replays of batches that are unfinished or already being replayed
+     */
+    @ExceptionHandler(BatchReplayRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleBatchReplayRejectedException(
+            BatchReplayRejectedException ex) {
+
+        log.warn("Replay rejected: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    /**
+     * Handles unreadable request bodies
+     * Compressed bodies that inflate past the configured limit are answered with 413
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(
+            HttpMessageNotReadableException ex) {
+
+        if (!(ex.getMostSpecificCause() instanceof RequestBodyTooLargeException tooLarge)) {
+            return handleRuntimeException(ex);
+        }
+
+        log.warn("Request body rejected: {}", tooLarge.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                "Payload Too Large",
+                tooLarge.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+    }
+
     /**
      * Handles all other runtime exceptions
      */
@@ -113,7 +267,7 @@ public class GlobalExceptionHandler {
      */
     @Data
     @AllArgsConstructor
-    static class ErrorResponse {
+    public static class ErrorResponse {
         private LocalDateTime timestamp;
         private int status;
         private String error;
@@ -0,0 +1,18 @@
+package com.interswitch.bulktransaction.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the replica that owns a batchId cannot be reached
+ * The batch is not processed elsewhere, which would break cluster-wide idempotency
+ */
+@Getter
+public class OwnerUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public OwnerUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,42 @@
+package com.interswitch.bulktransaction.exceptions;
+
+import com.interswitch.bulktransaction.dto.response.FailureCode;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Expected failure of one Transaction Service call, classified by FailureCode
+ *
+ * Failures are routine during a downstream outage, so instances are preallocated per code and
+ * carry no stack trace, cause or suppressed exceptions: throwing one costs no more than a return.
+ * The original error is logged where it is caught. RetryableFailurePredicate lets the retry
+ * skip further attempts for terminal codes.
+ */
+public final class TransactionFailedException extends RuntimeException {
+
+    public static final String MESSAGE = "Transaction processing failed";
+
+    private static final Map<FailureCode, TransactionFailedException> INSTANCES = new EnumMap<>(FailureCode.class);
+
+    static {
+        for (FailureCode code : FailureCode.values()) {
+            INSTANCES.put(code, new TransactionFailedException(code));
+        }
+    }
+
+    private final FailureCode code;
+
+    private TransactionFailedException(FailureCode code) {
+        super(MESSAGE, null, false, false);
+        this.code = code;
+    }
+
+    public static TransactionFailedException of(FailureCode code) {
+        return INSTANCES.get(code);
+    }
+
+    public FailureCode getCode() {
+        return code;
+    }
+}
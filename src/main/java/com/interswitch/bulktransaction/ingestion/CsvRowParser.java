@@ -0,0 +1,88 @@
+package com.interswitch.bulktransaction.ingestion;
+
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+
+import java.math.BigDecimal;
+
+/**
+ * Parses transactionId,fromAccount,toAccount,amount rows
+ * Fields are cut out of the line by index; double-quoted fields (with "" escapes) are
+ * supported but may not span lines. A first row starting with "transactionId" is a header.
+ */
+class CsvRowParser implements RowParser {
+
+    private static final int COLUMNS = 4;
+
+    @Override
+    public TransactionRequest parse(String line, long lineNumber) throws RowParseException {
+        String[] fields = new String[COLUMNS];
+        int count = 0;
+        int position = 0;
+        int length = line.length();
+
+        while (position <= length) {
+            if (count == COLUMNS) {
+                throw new RowParseException("Expected " + COLUMNS + " columns but found more");
+            }
+            if (position < length && line.charAt(position) == '"') {
+                StringBuilder field = new StringBuilder();
+                int i = position + 1;
+                while (true) {
+                    if (i >= length) {
+                        throw new RowParseException("Unterminated quoted field in column " + (count + 1));
+                    }
+                    char c = line.charAt(i);
+                    if (c == '"') {
+                        if (i + 1 < length && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    field.append(c);
+                    i++;
+                }
+                if (i < length && line.charAt(i) != ',') {
+                    throw new RowParseException("Unexpected character after quoted field in column " + (count + 1));
+                }
+                fields[count++] = field.toString();
+                position = i + 1;
+            } else {
+                int comma = line.indexOf(',', position);
+                int end = comma < 0 ? length : comma;
+                fields[count++] = line.substring(position, end).trim();
+                position = end + 1;
+            }
+        }
+
+        if (lineNumber == 1 && "transactionId".equalsIgnoreCase(fields[0])) {
+            return null;
+        }
+        if (count != COLUMNS) {
+            throw new RowParseException("Expected " + COLUMNS + " columns but found " + count);
+        }
+        return TransactionRequest.builder()
+                .transactionId(emptyToNull(fields[0]))
+                .fromAccount(emptyToNull(fields[1]))
+                .toAccount(emptyToNull(fields[2]))
+                .amount(parseAmount(fields[3]))
+                .build();
+    }
+
+    private static BigDecimal parseAmount(String value) throws RowParseException {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new RowParseException("Amount is not a number: " + value);
+        }
+    }
+
+    static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
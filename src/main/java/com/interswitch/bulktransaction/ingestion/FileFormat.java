@@ -0,0 +1,26 @@
+package com.interswitch.bulktransaction.ingestion;
+
+import java.util.Locale;
+
+/**
+ * Layouts accepted by the bank file upload endpoint
+ */
+public enum FileFormat {
+    /** Comma separated transactionId,fromAccount,toAccount,amount with an optional header row */
+    CSV,
+    /** Fixed column widths configured under batch.ingestion.fixed-width */
+    FIXED_WIDTH;
+
+    /**
+     * Resolves the format query parameter, e.g. csv or fixed-width
+     */
+    public static FileFormat fromParameter(String value) {
+        String normalized = value.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        for (FileFormat format : values()) {
+            if (format.name().equals(normalized)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.interswitch.bulktransaction.ingestion;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.exceptions.BatchFileRejectedException;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import com.interswitch.bulktransaction.validation.ItemViolation;
+import com.interswitch.bulktransaction.validation.ValidationMode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ingests CSV and fixed-width bank files as batches
+ * The upload is read line by line straight from the request stream and each row is mapped
+ * to a TransactionRequest, so neither the file nor a JSON document is ever held in memory.
+ * Rows are kept as transactions because the batch repository stores one result slot per item.
+ *
+ * Parse errors always reject the file. Validation errors follow batch.validation.mode, and in
+ * REJECT_BATCH mode they are reported against line numbers instead of item indexes.
+ */
+@Slf4j
+@Service
+public class FileIngestionService {
+
+    private final BulkTransactionService bulkTransactionService;
+    private final BatchPreflightValidator preflightValidator;
+    private final int[] fixedWidthColumns;
+    private final int impliedDecimals;
+    private final int maxReportedErrors;
+
+    public FileIngestionService(BulkTransactionService bulkTransactionService,
+                                BatchPreflightValidator preflightValidator,
+                                @Value("${batch.ingestion.fixed-width.columns:16,34,34,18}") int[] fixedWidthColumns,
+                                @Value("${batch.ingestion.fixed-width.amount-implied-decimals:2}") int impliedDecimals,
+                                @Value("${batch.ingestion.max-reported-errors:100}") int maxReportedErrors) {
+        this.bulkTransactionService = bulkTransactionService;
+        this.preflightValidator = preflightValidator;
+        this.fixedWidthColumns = fixedWidthColumns;
+        this.impliedDecimals = impliedDecimals;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Parses the file, validates every row and processes it as one batch
+     */
+    public BulkTransactionResponse ingest(String batchId, FileFormat format, InputStream body, Charset charset)
+            throws IOException {
+
+        RowParser parser = format == FileFormat.CSV
+                ? new CsvRowParser()
+                : new FixedWidthRowParser(fixedWidthColumns, impliedDecimals);
+
+        List<TransactionRequest> transactions = new ArrayList<>();
+        long[] lineNumbers = new long[64];
+        List<LineError> errors = new ArrayList<>();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset), 64 * 1024);
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null && errors.size() < maxReportedErrors) {
+            lineNumber++;
+            if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                TransactionRequest transaction = parser.parse(line, lineNumber);
+                if (transaction != null) {
+                    if (transactions.size() == lineNumbers.length) {
+                        lineNumbers = Arrays.copyOf(lineNumbers, lineNumbers.length * 2);
+                    }
+                    lineNumbers[transactions.size()] = lineNumber;
+                    transactions.add(transaction);
+                }
+            } catch (RowParseException e) {
+                errors.add(new LineError(lineNumber, e.getMessage()));
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            log.warn("INGESTION rejected {} file for batchId: {} - {} unreadable row(s)", format, batchId, errors.size());
+            throw new BatchFileRejectedException("File contains unreadable rows", errors);
+        }
+        if (transactions.isEmpty()) {
+            throw new BatchFileRejectedException("File contains no transactions", List.of());
+        }
+        log.info("INGESTION parsed {} row(s) from {} line(s) of {} file for batchId: {}",
+                transactions.size(), lineNumber, format, batchId);
+
+        BulkTransactionRequest request = BulkTransactionRequest.builder()
+                .batchId(batchId)
+                .transactions(transactions)
+                .build();
+        rejectInvalidRows(request, lineNumbers);
+        return bulkTransactionService.processBulkTransactions(request);
+    }
+
+    /**
+     * In REJECT_BATCH mode, fails the upload with every validation error mapped to its line
+     */
+    private void rejectInvalidRows(BulkTransactionRequest request, long[] lineNumbers) {
+        if (preflightValidator.getMode() != ValidationMode.REJECT_BATCH) {
+            return;
+        }
+        List<ItemViolation> violations = preflightValidator.validate(request).violations();
+        if (violations.isEmpty()) {
+            return;
+        }
+        List<LineError> errors = new ArrayList<>(Math.min(violations.size(), maxReportedErrors));
+        for (ItemViolation violation : violations) {
+            if (errors.size() == maxReportedErrors) {
+                break;
+            }
+            long line = violation.isBatchLevel() ? 0 : lineNumbers[violation.index()];
+            errors.add(new LineError(line, violation.message()));
+        }
+        throw new BatchFileRejectedException("File failed validation", errors);
+    }
+}
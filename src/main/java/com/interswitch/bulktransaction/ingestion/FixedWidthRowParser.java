@@ -0,0 +1,73 @@
+package com.interswitch.bulktransaction.ingestion;
+
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+
+import java.math.BigDecimal;
+
+/**
+ * Parses fixed-width rows: transactionId, fromAccount, toAccount and amount in columns of
+ * configured widths, each padded with spaces. An amount without a decimal point is read in
+ * minor units with the configured number of implied decimals, as is usual in bank files.
+ */
+class FixedWidthRowParser implements RowParser {
+
+    private final int[] widths;
+    private final int recordLength;
+    private final int impliedDecimals;
+
+    FixedWidthRowParser(int[] widths, int impliedDecimals) {
+        if (widths.length != 4) {
+            throw new IllegalArgumentException("Fixed-width layout needs 4 column widths, got " + widths.length);
+        }
+        this.widths = widths.clone();
+        int total = 0;
+        for (int width : widths) {
+            total += width;
+        }
+        this.recordLength = total;
+        this.impliedDecimals = impliedDecimals;
+    }
+
+    @Override
+    public TransactionRequest parse(String line, long lineNumber) throws RowParseException {
+        // The last column may lose its trailing padding to editors that trim lines
+        int amountStart = recordLength - widths[3];
+        if (line.length() <= amountStart || line.length() > recordLength) {
+            throw new RowParseException("Expected a record of " + recordLength + " characters but found " + line.length());
+        }
+
+        int start = 0;
+        String transactionId = field(line, start, widths[0]);
+        start += widths[0];
+        String fromAccount = field(line, start, widths[1]);
+        start += widths[1];
+        String toAccount = field(line, start, widths[2]);
+        start += widths[2];
+        String amount = field(line, start, widths[3]);
+
+        return TransactionRequest.builder()
+                .transactionId(CsvRowParser.emptyToNull(transactionId))
+                .fromAccount(CsvRowParser.emptyToNull(fromAccount))
+                .toAccount(CsvRowParser.emptyToNull(toAccount))
+                .amount(parseAmount(amount))
+                .build();
+    }
+
+    private static String field(String line, int start, int width) {
+        return line.substring(start, Math.min(line.length(), start + width)).trim();
+    }
+
+    private BigDecimal parseAmount(String value) throws RowParseException {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (value.indexOf('.') >= 0) {
+                return new BigDecimal(value);
+            }
+            return BigDecimal.valueOf(Long.parseLong(value), impliedDecimals);
+        } catch (NumberFormatException e) {
+            throw new RowParseException("Amount is not a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.interswitch.bulktransaction.ingestion;
+
+/**
+ * A problem with one row of an uploaded bank file
+ *
+ * @param line    1-based physical line number in the file, or 0 for file-level problems
+ * @param message Human readable reason
+ */
+public record LineError(long line, String message) {
+
+    @Override
+    public String toString() {
+        return line > 0 ? "line " + line + ": " + message : message;
+    }
+}
@@ -0,0 +1,12 @@
+package com.interswitch.bulktransaction.ingestion;
+
+/**
+ * Thrown by a RowParser for a row that cannot be mapped to a transaction
+ * Stackless: a bad file can produce one per row and the parser location is never useful.
+ */
+class RowParseException extends Exception {
+
+    RowParseException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,14 @@
+package com.interswitch.bulktransaction.ingestion;
+
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+
+/**
+ * Maps one line of a bank file to a transaction
+ */
+interface RowParser {
+
+    /**
+     * @return The transaction, or null if the line is a header row to be skipped
+     */
+    TransactionRequest parse(String line, long lineNumber) throws RowParseException;
+}
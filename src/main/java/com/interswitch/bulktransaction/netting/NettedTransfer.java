@@ -0,0 +1,16 @@
+package com.interswitch.bulktransaction.netting;
+
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+
+/**
+ * One downstream transfer standing in for one or more original batch items
+ *
+ * @param request       The transfer actually sent downstream
+ * @param memberIndexes Positions of the original items it settles
+ */
+public record NettedTransfer(TransactionRequest request, int[] memberIndexes) {
+
+    public boolean isMerged() {
+        return memberIndexes.length > 1;
+    }
+}
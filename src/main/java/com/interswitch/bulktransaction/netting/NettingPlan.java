@@ -0,0 +1,17 @@
+package com.interswitch.bulktransaction.netting;
+
+import java.util.List;
+
+/**
+ * Result of netting a batch
+ *
+ * @param transfers       Transfers to send downstream
+ * @param offsetIndexes   Items fully cancelled by opposite transfers; no downstream call is needed
+ * @param originalItems   Number of items that went into the plan
+ */
+public record NettingPlan(List<NettedTransfer> transfers, int[] offsetIndexes, int originalItems) {
+
+    public int callsSaved() {
+        return originalItems - transfers.size();
+    }
+}
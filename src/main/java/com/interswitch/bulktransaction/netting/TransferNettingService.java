@@ -0,0 +1,132 @@
+package com.interswitch.bulktransaction.netting;
+
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Optional netting stage applied before items are sent to TransactionProcessorService
+ * Transfers between the same two accounts are collapsed into one transfer of the net amount:
+ * same-direction transfers are merged and opposite-direction transfers offset each other.
+ * A pair that nets to zero needs no downstream call at all.
+ *
+ * Netting is bilateral only; flows through a third account (A to B to C to A) are not
+ * rewritten into transfers between parties that never traded.
+ */
+@Slf4j
+@Service
+public class TransferNettingService {
+
+    static final String NETTED_ID_PREFIX = "NET-";
+
+    private final boolean enabled;
+    private final Counter callsSavedCounter;
+
+    public TransferNettingService(@Value("${batch.netting.enabled:false}") boolean enabled,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.callsSavedCounter = Counter.builder("batch.netting.calls.saved")
+                .description("Downstream calls avoided by netting transfers within a batch")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Nets the batch items, skipping those for which the predicate returns true
+     */
+    public NettingPlan plan(List<TransactionRequest> transactions, IntPredicate skip) {
+        // Keyed by unordered account pair, in order of first appearance
+        Map<AccountPair, PairGroup> groups = new LinkedHashMap<>();
+        int originalItems = 0;
+
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionRequest transaction = transactions.get(i);
+            if (skip.test(i)) {
+                continue;
+            }
+            originalItems++;
+            AccountPair pair = AccountPair.of(transaction.getFromAccount(), transaction.getToAccount());
+            groups.computeIfAbsent(pair, key -> new PairGroup()).add(i, transaction, pair);
+        }
+
+        List<NettedTransfer> transfers = new ArrayList<>(groups.size());
+        List<Integer> offset = new ArrayList<>();
+
+        groups.forEach((pair, group) -> {
+            if (group.indexes.size() == 1) {
+                transfers.add(new NettedTransfer(group.first, new int[]{group.indexes.get(0)}));
+                return;
+            }
+
+            int signum = group.net.signum();
+            if (signum == 0) {
+                offset.addAll(group.indexes);
+                return;
+            }
+            TransactionRequest netted = TransactionRequest.builder()
+                    .transactionId(NETTED_ID_PREFIX + group.first.getTransactionId())
+                    .fromAccount(signum > 0 ? pair.low() : pair.high())
+                    .toAccount(signum > 0 ? pair.high() : pair.low())
+                    .amount(group.net.abs())
+                    .build();
+            transfers.add(new NettedTransfer(netted, toArray(group.indexes)));
+        });
+
+        NettingPlan plan = new NettingPlan(transfers, toArray(offset), originalItems);
+        callsSavedCounter.increment(plan.callsSaved());
+        log.info("NETTING reduced {} item(s) to {} downstream transfer(s), {} fully offset",
+                originalItems, transfers.size(), offset.size());
+        return plan;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Account pair in canonical order, so A to B and B to A share a key
+     */
+    private record AccountPair(String low, String high) {
+
+        static AccountPair of(String from, String to) {
+            return from.compareTo(to) <= 0 ? new AccountPair(from, to) : new AccountPair(to, from);
+        }
+    }
+
+    /**
+     * Items of one account pair and their net flow from low to high
+     */
+    private static class PairGroup {
+
+        private final List<Integer> indexes = new ArrayList<>(2);
+        private TransactionRequest first;
+        private BigDecimal net = BigDecimal.ZERO;
+
+        void add(int index, TransactionRequest transaction, AccountPair pair) {
+            if (first == null) {
+                first = transaction;
+            }
+            indexes.add(index);
+            net = pair.low().equals(transaction.getFromAccount())
+                    ? net.add(transaction.getAmount())
+                    : net.subtract(transaction.getAmount());
+        }
+    }
+}
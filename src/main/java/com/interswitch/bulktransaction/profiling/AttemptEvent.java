@@ -0,0 +1,61 @@
+package com.interswitch.bulktransaction.profiling;
+
+import com.interswitch.bulktransaction.dto.response.FailureCode;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one downstream call of an item; an item with several of them was retried
+ */
+@Name(AttemptEvent.NAME)
+@Label("Transaction Attempt")
+@Category({"Bulk Transaction", "Item"})
+@Description("One call to the Transaction Service, first attempt or retry")
+@StackTrace(false)
+public class AttemptEvent extends Event {
+
+    public static final String NAME = "com.interswitch.bulktransaction.Attempt";
+
+    @Label("Transaction Id")
+    String transactionId;
+
+    @Label("Status")
+    @Description("Status answered by the Transaction Service, or FAILED when the call failed")
+    String status;
+
+    @Label("Failure Code")
+    String failureCode;
+
+    public static AttemptEvent start(String transactionId) {
+        AttemptEvent event = new AttemptEvent();
+        if (event.isEnabled()) {
+            event.transactionId = transactionId;
+            event.begin();
+        }
+        return event;
+    }
+
+    public void succeeded(String status) {
+        finish(status, null);
+    }
+
+    public void failed(FailureCode code) {
+        finish("FAILED", code);
+    }
+
+    private void finish(String status, FailureCode code) {
+        if (!isEnabled()) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            this.status = status;
+            this.failureCode = code == null ? null : code.name();
+            commit();
+        }
+    }
+}
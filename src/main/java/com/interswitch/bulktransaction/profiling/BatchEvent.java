@@ -0,0 +1,83 @@
+package com.interswitch.bulktransaction.profiling;
+
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one batch run on this node, from its first item to its last outcome
+ * Processing and resuming a batch record a "process" run, replaying its failures a "replay" run.
+ */
+@Name(BatchEvent.NAME)
+@Label("Batch")
+@Category({"Bulk Transaction", "Batch"})
+@Description("A batch processed, resumed or replayed on this node")
+@StackTrace(false)
+public class BatchEvent extends Event {
+
+    public static final String NAME = "com.interswitch.bulktransaction.Batch";
+
+    @Label("Batch Id")
+    String batchId;
+
+    @Label("Run")
+    String run;
+
+    @Label("Items")
+    @Description("Items sent downstream in this run")
+    int items;
+
+    @Label("Succeeded")
+    int succeeded;
+
+    @Label("Failed")
+    int failed;
+
+    @Label("Pending")
+    int pending;
+
+    /**
+     * Starts the event; cheap enough to call unconditionally, as nothing is recorded while JFR is off
+     */
+    public static BatchEvent start(String batchId, String run, int items) {
+        BatchEvent event = new BatchEvent();
+        if (event.isEnabled()) {
+            event.batchId = batchId;
+            event.run = run;
+            event.items = items;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Ends and commits the event with the outcome counts of the whole batch
+     */
+    public void finish(BulkTransactionResponse response) {
+        if (!isEnabled()) {
+            return;
+        }
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        if (response != null && response.getResults() != null) {
+            for (TransactionResult result : response.getResults()) {
+                if (result == null) {
+                    continue;
+                }
+                switch (result.getStatus()) {
+                    case "SUCCESS" -> succeeded++;
+                    case "PENDING" -> pending++;
+                    default -> failed++;
+                }
+            }
+        }
+        commit();
+    }
+}
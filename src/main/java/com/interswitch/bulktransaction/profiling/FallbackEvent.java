@@ -0,0 +1,37 @@
+package com.interswitch.bulktransaction.profiling;
+
+import com.interswitch.bulktransaction.dto.response.FailureCode;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for an item that ended in the retry fallback, after its last attempt failed
+ */
+@Name(FallbackEvent.NAME)
+@Label("Retry Fallback")
+@Category({"Bulk Transaction", "Item"})
+@Description("An item failed after all retry attempts, or once the batch deadline passed")
+@StackTrace(false)
+public class FallbackEvent extends Event {
+
+    public static final String NAME = "com.interswitch.bulktransaction.Fallback";
+
+    @Label("Transaction Id")
+    String transactionId;
+
+    @Label("Failure Code")
+    String failureCode;
+
+    public static void emit(String transactionId, FailureCode code) {
+        FallbackEvent event = new FallbackEvent();
+        if (event.shouldCommit()) {
+            event.transactionId = transactionId;
+            event.failureCode = code.name();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.interswitch.bulktransaction.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Actuator endpoint for JDK Flight Recorder recordings (/actuator/flightrecorder, profiling.jfr.*)
+ *
+ * Keeps an always-on continuous recording with the JDK "default" settings (about 1% overhead),
+ * bounded by max-age and max-size, which includes the batch, item, attempt, fallback and
+ * idempotency events of this service. Further recordings, e.g. with the "profile" settings,
+ * can be started for a while, and any recording is dumped to a file in dump-directory and
+ * downloaded from here. Dumps overwrite the previous dump of the same recording.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint implements AutoCloseable {
+
+    static final String CONTINUOUS_RECORDING = "bulk-transaction-continuous";
+
+    private final Path dumpDirectory;
+    private final Recording continuous;
+
+    public FlightRecorderEndpoint(
+            @Value("${profiling.jfr.continuous.enabled:true}") boolean continuousEnabled,
+            @Value("${profiling.jfr.continuous.settings:default}") String settings,
+            @Value("${profiling.jfr.continuous.max-age-minutes:360}") long maxAgeMinutes,
+            @Value("${profiling.jfr.continuous.max-size-mb:256}") long maxSizeMb,
+            @Value("${profiling.jfr.dump-directory:${java.io.tmpdir}}") String dumpDirectory) {
+        this.dumpDirectory = Path.of(dumpDirectory);
+        this.continuous = continuousEnabled && FlightRecorder.isAvailable()
+                ? startContinuous(settings, maxAgeMinutes, maxSizeMb)
+                : null;
+    }
+
+    /**
+     * Lists all recordings of this JVM, including ones started outside this endpoint
+     */
+    @ReadOperation
+    public List<RecordingInfo> recordings() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .map(RecordingInfo::of)
+                .toList();
+    }
+
+    /**
+     * Starts a recording
+     *
+     * @param settings        JDK settings name, "default" or "profile" (more detail, more overhead)
+     * @param durationSeconds Stops the recording by itself after this long; runs until stopped when absent
+     * @return The started recording, or 400 for unknown settings
+     */
+    @WriteOperation
+    public WebEndpointResponse<RecordingInfo> start(@Nullable String name, @Nullable String settings,
+                                                    @Nullable Long durationSeconds) {
+        Configuration configuration = configuration(settings == null ? "profile" : settings);
+        if (configuration == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Recording recording = new Recording(configuration);
+        recording.setName(name == null || name.isBlank() ? "bulk-transaction-" + Instant.now() : name);
+        if (durationSeconds != null && durationSeconds > 0) {
+            recording.setDuration(Duration.ofSeconds(durationSeconds));
+        }
+        recording.setToDisk(true);
+        recording.start();
+        log.info("JFR recording {} ({}) started with {} settings",
+                recording.getId(), recording.getName(), configuration.getName());
+        return new WebEndpointResponse<>(RecordingInfo.of(recording));
+    }
+
+    /**
+     * Dumps what a recording has collected so far and returns it as a .jfr file
+     */
+    @ReadOperation
+    public WebEndpointResponse<Resource> dump(@Selector long id) {
+        Optional<Recording> recording = find(id);
+        if (recording.isEmpty() || recording.get().getState() == RecordingState.NEW
+                || recording.get().getState() == RecordingState.CLOSED) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            Files.createDirectories(dumpDirectory);
+            Path file = dumpDirectory.resolve("recording-" + id + ".jfr");
+            recording.get().dump(file);
+            log.info("JFR recording {} dumped to {} ({} bytes)", id, file, Files.size(file));
+            return new WebEndpointResponse<>(new FileSystemResource(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to dump JFR recording " + id, e);
+        }
+    }
+
+    /**
+     * Stops and discards a recording; dump it first to keep its data
+     */
+    @DeleteOperation
+    public WebEndpointResponse<RecordingInfo> stop(@Selector long id) {
+        Optional<Recording> recording = find(id);
+        if (recording.isEmpty()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        RecordingInfo info = RecordingInfo.of(recording.get());
+        recording.get().close();
+        log.info("JFR recording {} ({}) closed", id, info.name());
+        return new WebEndpointResponse<>(info);
+    }
+
+    @Override
+    public void close() {
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+
+    private Recording startContinuous(String settings, long maxAgeMinutes, long maxSizeMb) {
+        Configuration configuration = configuration(settings);
+        if (configuration == null) {
+            throw new IllegalArgumentException("Unknown JFR settings for the continuous recording: " + settings);
+        }
+        Recording recording = new Recording(configuration);
+        recording.setName(CONTINUOUS_RECORDING);
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(maxAgeMinutes));
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.start();
+        log.info("JFR continuous recording {} started with {} settings (max age {} min, max size {} MB)",
+                recording.getId(), settings, maxAgeMinutes, maxSizeMb);
+        return recording;
+    }
+
+    /**
+     * @return The JDK settings of that name, or null when there are none
+     */
+    @Nullable
+    private static Configuration configuration(String settings) {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            return null;
+        }
+    }
+
+    private static Optional<Recording> find(long id) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> recording.getId() == id)
+                .findFirst();
+    }
+
+    /**
+     * A recording as listed by the endpoint
+     */
+    public record RecordingInfo(long id, String name, String state, Instant startTime,
+                                Long durationSeconds, long sizeBytes) {
+
+        static RecordingInfo of(Recording recording) {
+            Duration duration = recording.getDuration();
+            return new RecordingInfo(recording.getId(), recording.getName(), recording.getState().name(),
+                    recording.getStartTime(), duration == null ? null : duration.toSeconds(),
+                    recording.getSize());
+        }
+    }
+}
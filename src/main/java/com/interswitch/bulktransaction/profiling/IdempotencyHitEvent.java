@@ -0,0 +1,37 @@
+package com.interswitch.bulktransaction.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a batch submitted again under a batchId this node already has
+ */
+@Name(IdempotencyHitEvent.NAME)
+@Label("Idempotency Hit")
+@Category({"Bulk Transaction", "Batch"})
+@Description("A duplicate batchId answered with the stored results instead of being processed")
+@StackTrace(false)
+public class IdempotencyHitEvent extends Event {
+
+    public static final String NAME = "com.interswitch.bulktransaction.IdempotencyHit";
+
+    @Label("Batch Id")
+    String batchId;
+
+    @Label("Completed")
+    @Description("Whether the earlier submission had finished; if not, no results are returned yet")
+    boolean completed;
+
+    public static void emit(String batchId, boolean completed) {
+        IdempotencyHitEvent event = new IdempotencyHitEvent();
+        if (event.shouldCommit()) {
+            event.batchId = batchId;
+            event.completed = completed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.interswitch.bulktransaction.profiling;
+
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one item, from dispatch to its outcome, including all retry attempts
+ */
+@Name(ItemEvent.NAME)
+@Label("Transaction Item")
+@Category({"Bulk Transaction", "Item"})
+@Description("An item of a batch sent to the Transaction Service, from dispatch to outcome")
+@StackTrace(false)
+public class ItemEvent extends Event {
+
+    public static final String NAME = "com.interswitch.bulktransaction.Item";
+
+    @Label("Batch Id")
+    String batchId;
+
+    @Label("Transaction Id")
+    String transactionId;
+
+    @Label("Status")
+    String status;
+
+    @Label("Failure Code")
+    String failureCode;
+
+    public static ItemEvent start(String batchId, String transactionId) {
+        ItemEvent event = new ItemEvent();
+        if (event.isEnabled()) {
+            event.batchId = batchId;
+            event.transactionId = transactionId;
+            event.begin();
+        }
+        return event;
+    }
+
+    public void finish(TransactionResult result) {
+        if (!isEnabled()) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            status = result.getStatus();
+            failureCode = result.getFailureCode() == null ? null : result.getFailureCode().name();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.interswitch.bulktransaction.reactive;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking Transaction Service client for the "reactive" profile (reactive.*)
+ * A few event-loop threads multiplex every downstream call; the connection pool bounds how
+ * many are open at once and queues the rest without holding a thread.
+ */
+@Slf4j
+@Configuration
+@Profile("reactive")
+public class ReactiveClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources transactionServiceLoopResources(@Value("${reactive.event-loop-threads:4}") int threads) {
+        return LoopResources.create("transaction-service-io", Math.max(1, threads), true);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider transactionServiceConnectionProvider(
+            @Value("${reactive.max-connections:2000}") int maxConnections,
+            @Value("${reactive.pending-acquire-max:100000}") int pendingAcquireMax) {
+        return ConnectionProvider.builder("transaction-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .build();
+    }
+
+    @Bean
+    public WebClient transactionServiceWebClient(
+            WebClient.Builder builder,
+            LoopResources transactionServiceLoopResources,
+            ConnectionProvider transactionServiceConnectionProvider,
+            @Value("${transaction-service.url}") String baseUrl,
+            @Value("${spring.cloud.openfeign.client.config.transaction-service.connect-timeout:2000}") int connectTimeoutMillis,
+            @Value("${spring.cloud.openfeign.client.config.transaction-service.read-timeout:10000}") long readTimeoutMillis) {
+
+        HttpClient httpClient = HttpClient.create(transactionServiceConnectionProvider)
+                .runOn(transactionServiceLoopResources)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(readTimeoutMillis));
+
+        log.info("Reactive Transaction Service client enabled for {}", baseUrl);
+        // ReactiveTransactionPipeline records the spans and propagates their trace context itself
+        return builder.baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .observationRegistry(ObservationRegistry.NOOP)
+                .build();
+    }
+}
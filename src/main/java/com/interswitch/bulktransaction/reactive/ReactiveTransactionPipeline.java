@@ -0,0 +1,273 @@
+package com.interswitch.bulktransaction.reactive;
+
+import com.interswitch.bulktransaction.admission.AdmissionControlService;
+import com.interswitch.bulktransaction.client.TokenBucketRateLimiter;
+import com.interswitch.bulktransaction.drain.BatchDrainCoordinator;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionServiceRequest;
+import com.interswitch.bulktransaction.dto.response.FailureCode;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.dto.response.TransactionServiceResponse;
+import com.interswitch.bulktransaction.exceptions.DeadlineExceededException;
+import com.interswitch.bulktransaction.exceptions.TransactionFailedException;
+import com.interswitch.bulktransaction.profiling.AttemptEvent;
+import com.interswitch.bulktransaction.profiling.FallbackEvent;
+import com.interswitch.bulktransaction.profiling.ItemEvent;
+import com.interswitch.bulktransaction.service.BatchDeadline;
+import com.interswitch.bulktransaction.service.TransactionProcessorService;
+import com.interswitch.bulktransaction.tracing.TraceSpans;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Non-blocking item pipeline used instead of the worker pool under the "reactive" profile
+ *
+ * Items of one fromAccount form a lane that is processed in order, as AccountOrderedScheduler
+ * does; up to max-concurrency lanes run at once and further lanes are only pulled as earlier
+ * ones finish. Retries run as a Reactor operator of a retry instance with the transactionService
+ * settings, so retry behaviour, deadline handling and result reasons match the Feign path. Every
+ * attempt, first or retry, waits for its own rate limiter permit without blocking.
+ */
+@Slf4j
+@Component
+@Profile("reactive")
+public class ReactiveTransactionPipeline {
+
+    private static final String TRANSACTIONS_PATH = "/api/v1/transactions";
+    // Separate from transactionService, so retry metrics tell the two HTTP clients apart
+    private static final String RETRY_NAME = "transactionServiceReactive";
+
+    private final WebClient webClient;
+    private final Retry retry;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AdmissionControlService admissionControlService;
+    private final BatchDrainCoordinator drainCoordinator;
+    private final int maxConcurrency;
+    private final long readTimeoutMillis;
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    /**
+     * @param rateLimiter Present only when rate limiting is enabled
+     * @param tracer      Records item and attempt spans; absent, with the propagator, when tracing is disabled
+     */
+    public ReactiveTransactionPipeline(
+            WebClient transactionServiceWebClient,
+            RetryRegistry retryRegistry,
+            @Nullable TokenBucketRateLimiter rateLimiter,
+            AdmissionControlService admissionControlService,
+            BatchDrainCoordinator drainCoordinator,
+            @Value("${reactive.max-concurrency:10000}") int maxConcurrency,
+            @Value("${spring.cloud.openfeign.client.config.transaction-service.read-timeout:10000}") long readTimeoutMillis,
+            @Nullable Tracer tracer,
+            @Nullable Propagator propagator) {
+        this.webClient = transactionServiceWebClient;
+        this.retry = retryRegistry.retry(RETRY_NAME, retryRegistry.retry("transactionService").getRetryConfig());
+        this.rateLimiter = rateLimiter;
+        this.admissionControlService = admissionControlService;
+        this.drainCoordinator = drainCoordinator;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.tracer = tracer == null ? Tracer.NOOP : tracer;
+        this.propagator = propagator;
+    }
+
+    /**
+     * Processes the given items of a batch and returns once every one has a result
+     * Results are handed to the sink on event-loop threads as they arrive. Items not started yet
+     * when the shutdown drain cuts the batch off get no result.
+     *
+     * @param markDispatched Records an item as sent downstream; the call waits for the returned future
+     * @return Number of account lanes the items were spread over
+     */
+    public int process(String batchId, List<TransactionRequest> transactions, int[] indexes,
+                       BatchDeadline deadline, IntFunction<CompletableFuture<Void>> markDispatched,
+                       ObjIntConsumer<TransactionResult> sink) {
+        long start = System.nanoTime();
+        List<List<Integer>> lanes = lanes(transactions, indexes);
+        // Item spans are children of the caller's batch span, whichever thread they start on
+        Span batchSpan = tracer.currentSpan();
+
+        Flux.fromIterable(lanes)
+                .flatMap(lane -> Flux.fromIterable(lane)
+                        .concatMap(index -> processItem(batchId, transactions.get(index), deadline, batchSpan,
+                                        Mono.fromFuture(() -> markDispatched.apply(index)))
+                                .doOnNext(result -> sink.accept(result, index))), maxConcurrency)
+                .then()
+                .block();
+
+        log.info("REACTIVE batchId: {} - {} item(s) across {} account(s) in {} ms", batchId, indexes.length,
+                lanes.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return lanes.size();
+    }
+
+    private Mono<TransactionResult> processItem(String batchId, TransactionRequest transaction,
+                                                BatchDeadline deadline, @Nullable Span batchSpan,
+                                                Mono<Void> dispatched) {
+        if (drainCoordinator.shouldStopDispatch(batchId)) {
+            return Mono.empty();
+        }
+        if (deadline.isExpired()) {
+            return Mono.just(failed(transaction, BatchDeadline.EXCEEDED_REASON, FailureCode.DEADLINE_EXCEEDED));
+        }
+        Mono<Void> permit = rateLimiter == null ? Mono.empty() : Mono.fromFuture(rateLimiter::acquire);
+        AtomicInteger attempts = new AtomicInteger();
+        long start = System.nanoTime();
+
+        return Mono.defer(() -> {
+            Span item = tracer.nextSpan(batchSpan).name(TraceSpans.ITEM)
+                    .tag(TraceSpans.BATCH_ID, batchId)
+                    .tag(TraceSpans.TRANSACTION_ID, transaction.getTransactionId())
+                    .start();
+            ItemEvent event = ItemEvent.start(batchId, transaction.getTransactionId());
+            return permit
+                    .then(dispatched)
+                    .then(Mono.defer(() -> attempts.getAndIncrement() == 0
+                                    ? send(transaction, deadline, item)
+                                    : permit.then(Mono.defer(() -> send(transaction, deadline, item))))
+                            .transformDeferred(RetryOperator.of(retry)))
+                    .map(result -> {
+                        admissionControlService.recordItemLatency(System.nanoTime() - start);
+                        log.debug("{} transactionId: {}", result.getStatus(), transaction.getTransactionId());
+                        return result;
+                    })
+                    // An unwritable journal fails the batch, leaving the item unsent and without a result
+                    .onErrorResume(e -> !(e instanceof UncheckedIOException), e -> {
+                        TransactionResult failed;
+                        if (e instanceof DeadlineExceededException) {
+                            failed = failed(transaction, BatchDeadline.EXCEEDED_REASON, FailureCode.DEADLINE_EXCEEDED);
+                        } else if (e instanceof TransactionFailedException failure) {
+                            failed = failed(transaction, TransactionProcessorService.RETRIES_EXHAUSTED_REASON,
+                                    failure.getCode());
+                        } else {
+                            failed = failed(transaction, "All retry attempts failed: " + e.getMessage(),
+                                    FailureCode.UNEXPECTED_ERROR);
+                        }
+                        FallbackEvent.emit(transaction.getTransactionId(), failed.getFailureCode());
+                        log.info("FAILED transactionId: {} - Reason: {}", transaction.getTransactionId(),
+                                failed.getReason());
+                        return Mono.just(failed);
+                    })
+                    .doOnNext(result -> {
+                        event.finish(result);
+                        item.tag(TraceSpans.OUTCOME, result.getStatus());
+                        if (result.getFailureCode() != null) {
+                            item.tag(TraceSpans.FAILURE_CODE, result.getFailureCode().name());
+                        }
+                    })
+                    .doFinally(signal -> item.end());
+        });
+    }
+
+    /**
+     * One attempt under its own span; errors are mapped like TransactionProcessorService maps them
+     */
+    private Mono<TransactionResult> send(TransactionRequest transaction, BatchDeadline deadline, Span item) {
+        if (deadline.isExpired()) {
+            return Mono.error(DeadlineExceededException.INSTANCE);
+        }
+        TransactionServiceRequest serviceRequest = TransactionServiceRequest.builder()
+                .transactionId(transaction.getTransactionId())
+                .fromAccount(transaction.getFromAccount())
+                .toAccount(transaction.getToAccount())
+                .amount(transaction.getAmount())
+                .build();
+
+        item.event(TraceSpans.ATTEMPT_EVENT);
+        Span attempt = tracer.nextSpan(item).name(TraceSpans.ATTEMPT)
+                .tag(TraceSpans.TRANSACTION_ID, transaction.getTransactionId())
+                .start();
+        AttemptEvent event = AttemptEvent.start(transaction.getTransactionId());
+        Mono<TransactionServiceResponse> response = webClient.post()
+                .uri(TRANSACTIONS_PATH)
+                .headers(headers -> injectTraceContext(attempt, headers))
+                .bodyValue(serviceRequest)
+                .retrieve()
+                .bodyToMono(TransactionServiceResponse.class);
+        if (deadline.isBounded()) {
+            // The response timeout never runs past the batch deadline
+            response = response.timeout(Duration.ofMillis(
+                    Math.max(1, Math.min(readTimeoutMillis, deadline.remainingMillis()))));
+        }
+        return response
+                .map(body -> TransactionProcessorService.toResult(transaction.getTransactionId(), body))
+                // An empty body still means the call succeeded
+                .defaultIfEmpty(TransactionProcessorService.toResult(transaction.getTransactionId(), null))
+                .doOnNext(result -> {
+                    attempt.tag(TraceSpans.OUTCOME, result.getStatus());
+                    event.succeeded(result.getStatus());
+                })
+                .onErrorMap(e -> deadline.isExpired()
+                        ? DeadlineExceededException.INSTANCE
+                        : TransactionFailedException.of(classify(e)))
+                .doOnError(e -> {
+                    FailureCode code = e instanceof TransactionFailedException failure
+                            ? failure.getCode()
+                            : FailureCode.DEADLINE_EXCEEDED;
+                    attempt.error(e);
+                    attempt.tag(TraceSpans.FAILURE_CODE, code.name());
+                    event.failed(code);
+                })
+                .doFinally(signal -> attempt.end());
+    }
+
+    private void injectTraceContext(Span attempt, HttpHeaders headers) {
+        if (propagator != null) {
+            propagator.inject(attempt.context(), headers, HttpHeaders::set);
+        }
+    }
+
+    private static FailureCode classify(Throwable e) {
+        // Connection errors and the response timeout carry no status
+        return e instanceof WebClientResponseException responseException
+                ? FailureCode.ofHttpStatus(responseException.getStatusCode().value())
+                : FailureCode.DOWNSTREAM_UNAVAILABLE;
+    }
+
+    /**
+     * Groups item indexes by fromAccount, in order of first appearance
+     */
+    private static List<List<Integer>> lanes(List<TransactionRequest> transactions, int[] indexes) {
+        Map<String, List<Integer>> lanes = new LinkedHashMap<>();
+        for (int index : indexes) {
+            lanes.computeIfAbsent(transactions.get(index).getFromAccount(), account -> new ArrayList<>())
+                    .add(index);
+        }
+        return new ArrayList<>(lanes.values());
+    }
+
+    private static TransactionResult failed(TransactionRequest transaction, String reason, FailureCode code) {
+        return TransactionResult.builder()
+                .transactionId(transaction.getTransactionId())
+                .status("FAILED")
+                .reason(reason)
+                .failureCode(code)
+                .build();
+    }
+}
@@ -0,0 +1,412 @@
+package com.interswitch.bulktransaction.reconciliation;
+
+import com.interswitch.bulktransaction.cache.BatchResultsChangedEvent;
+import com.interswitch.bulktransaction.callback.BatchCallbackService;
+import com.interswitch.bulktransaction.client.TokenBucketRateLimiter;
+import com.interswitch.bulktransaction.client.TransactionServiceClient;
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionStatusRequest;
+import com.interswitch.bulktransaction.dto.response.FailureCode;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.dto.response.TransactionServiceResponse;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import com.interswitch.bulktransaction.repository.BatchRepository;
+import com.interswitch.bulktransaction.service.TransactionProcessorService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Settles items the Transaction Service reported as PENDING (reconciliation.*)
+ *
+ * Pending items wait in one queue ordered by their next lookup time. A single poller thread
+ * takes the items that are due, looks them up batch-size at a time with one status call each,
+ * and waits exponentially longer, up to max-backoff, before looking up an item that is still
+ * pending again. An item costs one small object, not a thread or timer, so hundreds of thousands
+ * can be pending at once. Settled outcomes replace the stored PENDING result; once the last
+ * pending item of a finished batch settles, its COMPLETED callback is sent again with the final
+ * counts. Items still pending after max-pending-seconds fail with OUTCOME_UNKNOWN. With
+ * reconciliation disabled, every item handed over, in doubt after a restart or reported PENDING,
+ * fails that way at once, so it does not stay PENDING with nothing left to settle it.
+ *
+ * Pending results of stored batches are picked up again on startup, looked up by the id each
+ * item was sent downstream with, as recorded by its dispatch marker. Members of a merged netted
+ * transfer are thus tracked together under the netted id again.
+ */
+@Slf4j
+@Component
+public class PendingTransactionReconciler implements AutoCloseable {
+
+    public static final String OUTCOME_UNKNOWN_REASON = "Final status not confirmed by Transaction Service";
+    static final String DISABLED_REASON = OUTCOME_UNKNOWN_REASON + "; reconciliation is disabled";
+
+    private final TransactionServiceClient transactionServiceClient;
+    private final BatchRepository batchRepository;
+    private final BatchCallbackService callbackService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final long maxPendingNanos;
+    private final ScheduledExecutorService poller;
+    private final Counter succeededCounter;
+    private final Counter failedCounter;
+    private final Counter expiredCounter;
+    private final Counter lookupErrorCounter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Ordered by next lookup time; nanoTime values are compared by difference
+    private final PriorityQueue<PendingItem> queue =
+            new PriorityQueue<>((a, b) -> Long.signum(a.dueAt - b.dueAt));
+    private final Map<String, Integer> pendingByBatch = new HashMap<>();
+
+    /**
+     * @param rateLimiter Present only when downstream rate limiting is enabled; each status call takes a permit
+     */
+    public PendingTransactionReconciler(TransactionServiceClient transactionServiceClient,
+                                        BatchRepository batchRepository,
+                                        BatchCallbackService callbackService,
+                                        ApplicationEventPublisher eventPublisher,
+                                        @Nullable TokenBucketRateLimiter rateLimiter,
+                                        @Value("${reconciliation.enabled:false}") boolean enabled,
+                                        @Value("${reconciliation.poll-interval-ms:1000}") long pollIntervalMillis,
+                                        @Value("${reconciliation.batch-size:500}") int batchSize,
+                                        @Value("${reconciliation.initial-backoff-ms:5000}") long initialBackoffMillis,
+                                        @Value("${reconciliation.max-backoff-ms:300000}") long maxBackoffMillis,
+                                        @Value("${reconciliation.max-pending-seconds:86400}") long maxPendingSeconds,
+                                        MeterRegistry meterRegistry) {
+        this.transactionServiceClient = transactionServiceClient;
+        this.batchRepository = batchRepository;
+        this.callbackService = callbackService;
+        this.eventPublisher = eventPublisher;
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, initialBackoffMillis));
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(initialBackoffMillis, maxBackoffMillis));
+        this.maxPendingNanos = TimeUnit.SECONDS.toNanos(maxPendingSeconds);
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reconciliation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            long interval = Math.max(1, pollIntervalMillis);
+            poller.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+
+        this.succeededCounter = outcomeCounter("success", meterRegistry);
+        this.failedCounter = outcomeCounter("failed", meterRegistry);
+        this.expiredCounter = outcomeCounter("expired", meterRegistry);
+        this.lookupErrorCounter = Counter.builder("reconciliation.lookup.errors")
+                .description("Status lookups to the Transaction Service that failed and were rescheduled")
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.pending", this, PendingTransactionReconciler::getPendingItems)
+                .description("Downstream transfers waiting for a final status")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts reconciling a downstream transfer reported as PENDING
+     *
+     * @param indexes       Batch items sharing the transfer's outcome; more than one for a netted transfer
+     * @param transactionId The id the transfer was sent downstream with
+     */
+    public void track(String batchId, int[] indexes, String transactionId) {
+        if (!enabled) {
+            // Nothing would ever look the transfer up, so it would stay PENDING and never be replayed
+            giveUp(new PendingItem(batchId, indexes, transactionId, 0, 0), DISABLED_REASON);
+            return;
+        }
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            queue.add(new PendingItem(batchId, indexes, transactionId, now, now + initialBackoffNanos));
+            pendingByBatch.merge(batchId, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Picks up the PENDING results of stored batches after a restart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPending() {
+        int recovered = 0;
+        for (BatchRecord batch : batchRepository.findAll()) {
+            if (ShardCoordinator.isShard(batch.getBatchId())) {
+                continue;
+            }
+            List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+            Map<String, List<Integer>> byTransfer = new LinkedHashMap<>();
+            for (int i = 0; i < transactions.size(); i++) {
+                TransactionResult result = batch.getResult(i);
+                if (result != null && "PENDING".equals(result.getStatus())) {
+                    String dispatchedId = batch.getDispatchedId(i);
+                    String transactionId = dispatchedId != null ? dispatchedId : transactions.get(i).getTransactionId();
+                    byTransfer.computeIfAbsent(transactionId, id -> new ArrayList<>()).add(i);
+                    recovered++;
+                }
+            }
+            byTransfer.forEach((transactionId, indexes) -> track(batch.getBatchId(),
+                    indexes.stream().mapToInt(Integer::intValue).toArray(), transactionId));
+        }
+        if (recovered > 0) {
+            log.info("RECONCILIATION: resuming {} pending item(s)", recovered);
+        }
+    }
+
+    /**
+     * Looks up every pending item that is due, batch-size items per status call
+     *
+     * @return The number of status calls made
+     */
+    public int pollDue() {
+        long now = System.nanoTime();
+        int calls = 0;
+        List<PendingItem> due;
+        while (!(due = takeDue(now)).isEmpty()) {
+            lookUp(due);
+            calls++;
+        }
+        return calls;
+    }
+
+    public int getPendingItems() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    private void pollQuietly() {
+        try {
+            pollDue();
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule
+            log.error("RECONCILIATION round failed - Error: {}", e.getMessage());
+        }
+    }
+
+    private List<PendingItem> takeDue(long now) {
+        lock.lock();
+        try {
+            List<PendingItem> due = new ArrayList<>(Math.min(batchSize, queue.size()));
+            while (due.size() < batchSize && !queue.isEmpty() && queue.peek().dueAt - now <= 0) {
+                due.add(queue.poll());
+            }
+            return due;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void lookUp(List<PendingItem> items) {
+        if (rateLimiter != null) {
+            rateLimiter.acquire().join();
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        for (PendingItem item : items) {
+            ids.add(item.transactionId);
+        }
+
+        Map<String, TransactionServiceResponse> statuses = new HashMap<>();
+        try {
+            List<TransactionServiceResponse> responses = transactionServiceClient.getTransactionStatuses(
+                    TransactionStatusRequest.builder().transactionIds(new ArrayList<>(ids)).build());
+            if (responses != null) {
+                for (TransactionServiceResponse response : responses) {
+                    statuses.put(response.getTransactionId(), response);
+                }
+            }
+        } catch (RuntimeException e) {
+            lookupErrorCounter.increment();
+            log.warn("RECONCILIATION status lookup of {} transaction(s) failed - Error: {}",
+                    ids.size(), e.getMessage());
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        Set<String> settled = new LinkedHashSet<>();
+        for (PendingItem item : items) {
+            TransactionServiceResponse response = statuses.get(item.transactionId);
+            // Unknown to the Transaction Service, or the lookup failed: still pending
+            TransactionResult result = response == null || response.getStatus() == null
+                    ? null
+                    : TransactionProcessorService.toResult(item.transactionId, response);
+
+            if (result == null || "PENDING".equals(result.getStatus())) {
+                result = reschedule(item);
+                if (result == null) {
+                    continue;
+                }
+            } else if ("SUCCESS".equals(result.getStatus())) {
+                succeededCounter.increment();
+            } else {
+                failedCounter.increment();
+            }
+            if (settle(item, result)) {
+                changed.add(item.batchId);
+            }
+            if (release(item.batchId)) {
+                settled.add(item.batchId);
+            }
+        }
+
+        for (String batchId : changed) {
+            batchRepository.findBatch(batchId)
+                    .filter(BatchRecord::isCompleted)
+                    .ifPresent(batch -> {
+                        eventPublisher.publishEvent(new BatchResultsChangedEvent(batchId));
+                        if (settled.contains(batchId)) {
+                            log.info("RECONCILED all pending items of batchId: {}", batchId);
+                            callbackService.batchCompleted(batch.getRequest(), batch.toResponse());
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Queues an item that is still pending for a later lookup
+     *
+     * @return An OUTCOME_UNKNOWN result if the item has been pending too long, otherwise null
+     */
+    private TransactionResult reschedule(PendingItem item) {
+        long now = System.nanoTime();
+        if (maxPendingNanos > 0 && now - item.trackedAt >= maxPendingNanos) {
+            expiredCounter.increment();
+            log.warn("RECONCILIATION gave up on transactionId: {} in batchId: {} after {} lookup(s)",
+                    item.transactionId, item.batchId, item.attempts + 1);
+            return outcomeUnknown(item, OUTCOME_UNKNOWN_REASON);
+        }
+        item.attempts++;
+        long backoff = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(item.attempts, 20));
+        item.dueAt = now + backoff;
+        lock.lock();
+        try {
+            queue.add(item);
+        } finally {
+            lock.unlock();
+        }
+        return null;
+    }
+
+    /**
+     * Settles an item that is not looked up as FAILED with OUTCOME_UNKNOWN, which is never replayed
+     */
+    private void giveUp(PendingItem item, String reason) {
+        expiredCounter.increment();
+        if (!settle(item, outcomeUnknown(item, reason))) {
+            return;
+        }
+        batchRepository.findBatch(item.batchId)
+                .filter(BatchRecord::isCompleted)
+                .ifPresent(batch -> {
+                    eventPublisher.publishEvent(new BatchResultsChangedEvent(item.batchId));
+                    callbackService.batchCompleted(batch.getRequest(), batch.toResponse());
+                });
+    }
+
+    private static TransactionResult outcomeUnknown(PendingItem item, String reason) {
+        return TransactionResult.builder()
+                .transactionId(item.transactionId)
+                .status("FAILED")
+                .reason(reason)
+                .failureCode(FailureCode.OUTCOME_UNKNOWN)
+                .build();
+    }
+
+    /**
+     * Replaces the stored PENDING result of each item sharing the transfer's outcome
+     *
+     * @return false if the batch is no longer stored on this node
+     */
+    private boolean settle(PendingItem item, TransactionResult result) {
+        BatchRecord batch = batchRepository.findBatch(item.batchId).orElse(null);
+        if (batch == null) {
+            log.warn("RECONCILIATION dropped transactionId: {}, batchId: {} is no longer stored",
+                    item.transactionId, item.batchId);
+            return false;
+        }
+        List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+        for (int index : item.indexes) {
+            batchRepository.appendResult(item.batchId, index, TransactionResult.builder()
+                    .transactionId(transactions.get(index).getTransactionId())
+                    .status(result.getStatus())
+                    .reason(result.getReason())
+                    .failureCode(result.getFailureCode())
+                    .build());
+        }
+        log.info("RECONCILED transactionId: {} in batchId: {} as {}", item.transactionId, item.batchId,
+                result.getStatus());
+        return true;
+    }
+
+    /**
+     * @return true if this was the batch's last pending transfer
+     */
+    private boolean release(String batchId) {
+        lock.lock();
+        try {
+            return pendingByBatch.computeIfPresent(batchId, (id, count) -> count > 1 ? count - 1 : null) == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter outcomeCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder("reconciliation.items")
+                .tag("outcome", outcome)
+                .description("Pending downstream transfers settled by reconciliation, by outcome")
+                .register(meterRegistry);
+    }
+
+    private static final class PendingItem {
+
+        private final String batchId;
+        private final int[] indexes;
+        private final String transactionId;
+        private final long trackedAt;
+        private long dueAt;
+        private int attempts;
+
+        private PendingItem(String batchId, int[] indexes, String transactionId, long trackedAt, long dueAt) {
+            this.batchId = batchId;
+            this.indexes = indexes;
+            this.transactionId = transactionId;
+            this.trackedAt = trackedAt;
+            this.dueAt = dueAt;
+        }
+    }
+}
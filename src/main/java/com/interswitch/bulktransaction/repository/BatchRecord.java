@@ -0,0 +1,111 @@
+package com.interswitch.bulktransaction.repository;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Stored state of one batch: the original request and the result of each item by position,
+ * plus the transactionId each item was last sent downstream with
+ */
+public class BatchRecord {
+
+    private final BulkTransactionRequest request;
+    private final AtomicReferenceArray<TransactionResult> results;
+    private final AtomicReferenceArray<String> dispatchedIds;
+    private final AtomicInteger completedItems = new AtomicInteger();
+    private volatile boolean completed;
+    private volatile long completedAtMillis;
+
+    public BatchRecord(BulkTransactionRequest request) {
+        this.request = request;
+        this.results = new AtomicReferenceArray<>(request.getTransactions().size());
+        this.dispatchedIds = new AtomicReferenceArray<>(request.getTransactions().size());
+    }
+
+    public String getBatchId() {
+        return request.getBatchId();
+    }
+
+    public BulkTransactionRequest getRequest() {
+        return request;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return When the batch was finalized, in epoch milliseconds, or 0 while it is running
+     */
+    public long getCompletedAtMillis() {
+        return completedAtMillis;
+    }
+
+    /**
+     * Whether any item is still PENDING downstream, i.e. waits on reconciliation
+     */
+    public boolean hasPendingItems() {
+        for (int i = 0; i < results.length(); i++) {
+            TransactionResult result = results.get(i);
+            if (result != null && "PENDING".equals(result.getStatus())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getCompletedItems() {
+        return completedItems.get();
+    }
+
+    public TransactionResult getResult(int index) {
+        return results.get(index);
+    }
+
+    /**
+     * @return The transactionId the item was sent downstream with, which differs from its own for a
+     * netted transfer, or null if it was never sent
+     */
+    public String getDispatchedId(int index) {
+        return dispatchedIds.get(index);
+    }
+
+    /**
+     * Whether the item was sent downstream but has no result, so its outcome is unknown
+     */
+    public boolean isInDoubt(int index) {
+        return results.get(index) == null && dispatchedIds.get(index) != null;
+    }
+
+    void setDispatched(int index, String transactionId) {
+        dispatchedIds.set(index, transactionId);
+    }
+
+    void setResult(int index, TransactionResult result) {
+        if (results.getAndSet(index, result) == null) {
+            completedItems.incrementAndGet();
+        }
+    }
+
+    void markCompleted(long atMillis) {
+        this.completedAtMillis = atMillis;
+        this.completed = true;
+    }
+
+    public BulkTransactionResponse toResponse() {
+        List<TransactionResult> list = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            list.add(results.get(i));
+        }
+        return BulkTransactionResponse.builder()
+                .batchId(request.getBatchId())
+                .results(list)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.interswitch.bulktransaction.repository;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persistence SPI for batch state
+ * Implementations are selected with batch.repository.type (memory or file)
+ */
+public interface BatchRepository {
+
+    /**
+     * Registers a new batch
+     *
+     * @return false if the batchId is already known (idempotency check)
+     */
+    boolean create(BulkTransactionRequest request);
+
+    /**
+     * Records that the items are about to be sent downstream under the given transactionId
+     * After a restart, items that were dispatched but have no result are in doubt: the transfer may
+     * have been made, so they are looked up rather than sent again.
+     *
+     * @return Completes once the marker is durable; the downstream call must wait for it
+     */
+    CompletableFuture<Void> markDispatched(String batchId, int[] indexes, String transactionId);
+
+    /**
+     * Records the outcome of the item at the given position in the batch
+     */
+    void appendResult(String batchId, int index, TransactionResult result);
+
+    /**
+     * Marks the batch as finished and returns its final response
+     */
+    BulkTransactionResponse finalizeBatch(String batchId);
+
+    /**
+     * Looks up a batch, finished or not
+     */
+    Optional<BatchRecord> findBatch(String batchId);
+
+    /**
+     * Looks up the response of a finished batch
+     */
+    default Optional<BulkTransactionResponse> findResponse(String batchId) {
+        return findBatch(batchId)
+                .filter(BatchRecord::isCompleted)
+                .map(BatchRecord::toResponse);
+    }
+
+    /**
+     * Returns true if the batchId has already been submitted
+     */
+    default boolean exists(String batchId) {
+        return findBatch(batchId).isPresent();
+    }
+
+    /**
+     * Returns the batches that were started but never finalized
+     */
+    List<BatchRecord> findUnfinished();
+
+    /**
+     * Returns every stored batch, finished or not
+     */
+    List<BatchRecord> findAll();
+
+    /**
+     * Whether changes are still being persisted; false once a durable store has failed
+     */
+    default boolean isWritable() {
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package com.interswitch.bulktransaction.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Selects the batch repository implementation
+ * batch.repository.type=file (default) keeps state across restarts, memory keeps it on the heap only.
+ * Either drops finished batches after batch.repository.retention-hours (0 keeps them forever).
+ */
+@Configuration
+public class BatchRepositoryConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "batch.repository.type", havingValue = "file", matchIfMissing = true)
+    public BatchRepository fileBatchRepository(
+            ObjectMapper objectMapper,
+            @Value("${batch.repository.file.directory:./data/batches}") String directory,
+            @Value("${batch.repository.file.max-batch-entries:512}") int maxBatchEntries,
+            @Value("${batch.repository.file.fsync:true}") boolean fsync,
+            @Value("${batch.repository.retention-hours:24}") long retentionHours) {
+        return new FileBatchRepository(objectMapper, Paths.get(directory), maxBatchEntries, fsync,
+                Duration.ofHours(retentionHours));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "batch.repository.type", havingValue = "memory")
+    public BatchRepository inMemoryBatchRepository(
+            @Value("${batch.repository.retention-hours:24}") long retentionHours) {
+        return new InMemoryBatchRepository(Duration.ofHours(retentionHours));
+    }
+}
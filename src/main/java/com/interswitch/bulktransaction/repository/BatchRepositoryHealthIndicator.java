@@ -0,0 +1,26 @@
+package com.interswitch.bulktransaction.repository;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the batch repository DOWN once it can no longer persist changes, e.g. after the
+ * journal writer failed; new batches are refused from then on
+ */
+@Component
+public class BatchRepositoryHealthIndicator implements HealthIndicator {
+
+    private final BatchRepository batchRepository;
+
+    public BatchRepositoryHealthIndicator(BatchRepository batchRepository) {
+        this.batchRepository = batchRepository;
+    }
+
+    @Override
+    public Health health() {
+        return batchRepository.isWritable()
+                ? Health.up().build()
+                : Health.down().withDetail("reason", "Batch journal is not writable").build();
+    }
+}
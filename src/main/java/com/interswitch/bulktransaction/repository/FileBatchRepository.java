@@ -0,0 +1,384 @@
+package com.interswitch.bulktransaction.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded batch repository backed by an append-only journal file
+ * State is served from memory; every change is also queued for a single writer thread
+ * that appends entries in groups of up to maxBatchEntries with one flush (and optional fsync)
+ * per group, so callers never wait on disk. The journal is replayed and compacted on startup.
+ *
+ * The one exception is the dispatch marker: its future completes only once the group holding
+ * it is written, so a transfer is never sent before the journal knows about it. Results still
+ * queued when the process dies are lost, but their items are then in doubt rather than unsent,
+ * and are looked up instead of being sent again.
+ *
+ * If a write fails the writer stops for good: the repository turns unwritable, dispatch markers
+ * fail, so no further transfers are sent, and other changes are kept in memory only.
+ *
+ * Finished batches past the retention are dropped from memory, and the writer then compacts the
+ * journal without them, so neither grows without limit while the service runs. Entries queued
+ * during a compaction are appended after it; replaying one twice has no effect.
+ */
+@Slf4j
+public class FileBatchRepository extends InMemoryBatchRepository implements AutoCloseable {
+
+    private static final String JOURNAL_FILE = "batches.journal";
+
+    private final ObjectReader entryReader;
+    private final ObjectWriter entryWriter;
+    private final Path journal;
+    private final int maxBatchEntries;
+    private final boolean fsync;
+    private final BlockingQueue<QueuedEntry> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private final Object flushMonitor = new Object();
+    private long enqueued;
+    private long written;
+    private volatile boolean running = true;
+    private volatile boolean compactionRequested;
+    private volatile IOException failure;
+
+    public FileBatchRepository(ObjectMapper objectMapper, Path directory, int maxBatchEntries, boolean fsync) {
+        this(objectMapper, directory, maxBatchEntries, fsync, Duration.ZERO);
+    }
+
+    public FileBatchRepository(ObjectMapper objectMapper, Path directory, int maxBatchEntries, boolean fsync,
+                               Duration retention) {
+        super(retention);
+        this.entryReader = objectMapper.readerFor(JournalEntry.class);
+        this.entryWriter = objectMapper.writerFor(JournalEntry.class);
+        this.journal = directory.resolve(JOURNAL_FILE);
+        this.maxBatchEntries = Math.max(1, maxBatchEntries);
+        this.fsync = fsync;
+
+        try {
+            Files.createDirectories(directory);
+            replay();
+            super.purgeExpired();
+            compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open batch journal " + journal, e);
+        }
+
+        this.writerThread = new Thread(this::writeLoop, "batch-journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public boolean create(BulkTransactionRequest request) {
+        if (!super.create(request)) {
+            return false;
+        }
+        enqueue(JournalEntry.batch(request), null);
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Void> markDispatched(String batchId, int[] indexes, String transactionId) {
+        super.markDispatched(batchId, indexes, transactionId);
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        enqueue(JournalEntry.dispatched(batchId, indexes, transactionId), durable);
+        return durable;
+    }
+
+    @Override
+    public void appendResult(String batchId, int index, TransactionResult result) {
+        super.appendResult(batchId, index, result);
+        enqueue(JournalEntry.result(batchId, index, result), null);
+    }
+
+    @Override
+    public BulkTransactionResponse finalizeBatch(String batchId) {
+        BulkTransactionResponse response = super.finalizeBatch(batchId);
+        enqueue(JournalEntry.completed(batchId, require(batchId).getCompletedAtMillis()), null);
+        return response;
+    }
+
+    @Override
+    public int purgeExpired() {
+        int purged = super.purgeExpired();
+        if (purged > 0) {
+            compactionRequested = true;
+        }
+        return purged;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return failure == null;
+    }
+
+    /**
+     * Blocks until every change made so far has been written to the journal, or the writer has failed
+     */
+    public void flush() {
+        synchronized (flushMonitor) {
+            long target = enqueued;
+            while (written < target && running && failure == null) {
+                try {
+                    flushMonitor.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        // No interrupt: it would close the FileChannel mid-write; the writer notices within one poll
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(JournalEntry entry, CompletableFuture<Void> durable) {
+        if (failure != null) {
+            // Nothing drains the queue any more
+            if (durable != null) {
+                durable.completeExceptionally(journalFailed());
+            }
+            return;
+        }
+        synchronized (flushMonitor) {
+            enqueued++;
+        }
+        queue.add(new QueuedEntry(entry, durable));
+        if (failure != null) {
+            // The writer failed while this entry was being added
+            failQueued();
+        }
+    }
+
+    private void writeLoop() {
+        List<QueuedEntry> group = new ArrayList<>(maxBatchEntries);
+        try {
+            while (running || !queue.isEmpty()) {
+                try (FileChannel channel = FileChannel.open(journal,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+                     OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024)) {
+                    if (!writeGroups(channel, out, group)) {
+                        break;
+                    }
+                }
+                if (compactionRequested) {
+                    compactionRequested = false;
+                    compact();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Batch journal writer stopped, batches are no longer persisted: {}", e.getMessage());
+            failure = e;
+            for (QueuedEntry queued : group) {
+                if (queued.durable() != null) {
+                    queued.durable().completeExceptionally(journalFailed());
+                }
+            }
+            failQueued();
+            synchronized (flushMonitor) {
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Appends queued entries until the repository closes or a compaction is requested
+     * Before a compaction, everything queued so far is written to the journal it replaces, so no
+     * entry of a dropped batch is appended after the compacted copy.
+     *
+     * @return false if the writer was interrupted
+     */
+    private boolean writeGroups(FileChannel channel, OutputStream out, List<QueuedEntry> group) throws IOException {
+        while (running || !queue.isEmpty()) {
+            if (compactionRequested) {
+                queue.drainTo(group);
+                writeGroup(channel, out, group);
+                return true;
+            }
+            QueuedEntry first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (first == null) {
+                continue;
+            }
+            group.add(first);
+            queue.drainTo(group, maxBatchEntries - 1);
+            writeGroup(channel, out, group);
+        }
+        return true;
+    }
+
+    private void writeGroup(FileChannel channel, OutputStream out, List<QueuedEntry> group) throws IOException {
+        for (QueuedEntry queued : group) {
+            write(out, queued.entry());
+        }
+        out.flush();
+        if (fsync) {
+            channel.force(false);
+        }
+
+        synchronized (flushMonitor) {
+            written += group.size();
+            flushMonitor.notifyAll();
+        }
+        for (QueuedEntry queued : group) {
+            if (queued.durable() != null) {
+                queued.durable().complete(null);
+            }
+        }
+        group.clear();
+    }
+
+    /**
+     * Drops entries the failed writer will never write, failing the dispatch markers among them
+     */
+    private void failQueued() {
+        List<QueuedEntry> dropped = new ArrayList<>();
+        queue.drainTo(dropped);
+        for (QueuedEntry queued : dropped) {
+            if (queued.durable() != null) {
+                queued.durable().completeExceptionally(journalFailed());
+            }
+        }
+    }
+
+    private UncheckedIOException journalFailed() {
+        return new UncheckedIOException("Batch journal " + journal + " is not writable", failure);
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JournalEntry entry;
+                try {
+                    entry = entryReader.readValue(line);
+                } catch (IOException e) {
+                    // A torn last line from a crash mid-write; everything before it is intact
+                    log.warn("Ignoring truncated batch journal entry");
+                    break;
+                }
+                apply(entry);
+            }
+        }
+        log.info("Batch journal replayed: {} batch(es), {} unfinished", batches.size(), findUnfinished().size());
+    }
+
+    private void apply(JournalEntry entry) {
+        switch (entry.getType()) {
+            case JournalEntry.BATCH -> super.create(entry.getRequest());
+            case JournalEntry.DISPATCHED -> {
+                BatchRecord record = batches.get(entry.getBatchId());
+                if (record != null) {
+                    for (int index : entry.getIndexes()) {
+                        record.setDispatched(index, entry.getTransactionId());
+                    }
+                }
+            }
+            case JournalEntry.RESULT -> {
+                BatchRecord record = batches.get(entry.getBatchId());
+                if (record != null) {
+                    record.setResult(entry.getIndex(), entry.getResult());
+                }
+            }
+            case JournalEntry.COMPLETED -> {
+                BatchRecord record = batches.get(entry.getBatchId());
+                if (record != null) {
+                    // Journals written before retention carry no time; they count from this start
+                    record.markCompleted(entry.getCompletedAt() != null
+                            ? entry.getCompletedAt() : System.currentTimeMillis());
+                }
+            }
+            default -> log.warn("Unknown batch journal entry type {}", entry.getType());
+        }
+    }
+
+    /**
+     * Rewrites the journal with one entry per stored fact, dropping overwritten results and
+     * batches past the retention. Dispatch markers are kept only for items that have no final result yet.
+     */
+    private void compact() throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        Path compacted = journal.resolveSibling(JOURNAL_FILE + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(compacted))) {
+            for (BatchRecord record : batches.values()) {
+                write(out, JournalEntry.batch(record.getRequest()));
+                for (int i = 0; i < record.getRequest().getTransactions().size(); i++) {
+                    TransactionResult result = record.getResult(i);
+                    String dispatchedId = record.getDispatchedId(i);
+                    if (dispatchedId != null && (result == null || "PENDING".equals(result.getStatus()))) {
+                        write(out, JournalEntry.dispatched(record.getBatchId(), new int[]{i}, dispatchedId));
+                    }
+                    if (result != null) {
+                        write(out, JournalEntry.result(record.getBatchId(), i, result));
+                    }
+                }
+                if (record.isCompleted()) {
+                    write(out, JournalEntry.completed(record.getBatchId(), record.getCompletedAtMillis()));
+                }
+            }
+        }
+        if (fsync) {
+            try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+                channel.force(false);
+            }
+        }
+        Files.move(compacted, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void write(OutputStream out, JournalEntry entry) throws IOException {
+        out.write(entryWriter.writeValueAsBytes(entry));
+        out.write('\n');
+    }
+
+    /**
+     * A journal entry waiting for the writer, with the future of a dispatch marker
+     */
+    private record QueuedEntry(JournalEntry entry, CompletableFuture<Void> durable) {
+    }
+}
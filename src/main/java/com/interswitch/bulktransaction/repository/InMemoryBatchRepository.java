@@ -0,0 +1,135 @@
+package com.interswitch.bulktransaction.repository;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch repository that keeps all state on the heap
+ * Nothing survives a restart; use the file repository for that
+ *
+ * Finished batches are dropped once they are older than the retention, checked at most once a
+ * minute as new batches come in. Batches with PENDING items are kept until those are settled.
+ * A dropped batchId is no longer recognised as a duplicate.
+ */
+@Slf4j
+public class InMemoryBatchRepository implements BatchRepository {
+
+    private static final long MAX_PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    protected final Map<String, BatchRecord> batches = new ConcurrentHashMap<>();
+    private final long retentionMillis;
+    private final AtomicLong nextPurgeMillis = new AtomicLong();
+
+    public InMemoryBatchRepository() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * @param retention How long finished batches are kept; zero keeps them forever
+     */
+    public InMemoryBatchRepository(Duration retention) {
+        this.retentionMillis = Math.max(0, retention.toMillis());
+    }
+
+    @Override
+    public boolean create(BulkTransactionRequest request) {
+        purgeIfDue();
+        return batches.putIfAbsent(request.getBatchId(), new BatchRecord(request)) == null;
+    }
+
+    @Override
+    public CompletableFuture<Void> markDispatched(String batchId, int[] indexes, String transactionId) {
+        BatchRecord record = require(batchId);
+        for (int index : indexes) {
+            record.setDispatched(index, transactionId);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void appendResult(String batchId, int index, TransactionResult result) {
+        require(batchId).setResult(index, result);
+    }
+
+    @Override
+    public BulkTransactionResponse finalizeBatch(String batchId) {
+        BatchRecord record = require(batchId);
+        record.markCompleted(System.currentTimeMillis());
+        return record.toResponse();
+    }
+
+    @Override
+    public Optional<BatchRecord> findBatch(String batchId) {
+        return Optional.ofNullable(batches.get(batchId));
+    }
+
+    @Override
+    public boolean exists(String batchId) {
+        return batches.containsKey(batchId);
+    }
+
+    @Override
+    public List<BatchRecord> findUnfinished() {
+        return batches.values().stream()
+                .filter(record -> !record.isCompleted())
+                .toList();
+    }
+
+    @Override
+    public List<BatchRecord> findAll() {
+        return List.copyOf(batches.values());
+    }
+
+    /**
+     * Drops finished batches older than the retention
+     *
+     * @return The number of batches dropped
+     */
+    public int purgeExpired() {
+        if (retentionMillis == 0) {
+            return 0;
+        }
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        int purged = 0;
+        for (BatchRecord record : batches.values()) {
+            if (record.isCompleted() && record.getCompletedAtMillis() <= cutoff && !record.hasPendingItems()
+                    && batches.remove(record.getBatchId(), record)) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private void purgeIfDue() {
+        if (retentionMillis == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long due = nextPurgeMillis.get();
+        if (now >= due && nextPurgeMillis.compareAndSet(due, now + Math.min(retentionMillis, MAX_PURGE_INTERVAL_MILLIS))) {
+            int purged = purgeExpired();
+            if (purged > 0) {
+                log.info("Dropped {} finished batch(es) past their retention", purged);
+            }
+        }
+    }
+
+    protected BatchRecord require(String batchId) {
+        BatchRecord record = batches.get(batchId);
+        if (record == null) {
+            throw new IllegalStateException("Unknown batch: " + batchId);
+        }
+        return record;
+    }
+}
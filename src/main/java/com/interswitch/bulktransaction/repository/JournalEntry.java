@@ -0,0 +1,48 @@
+package com.interswitch.bulktransaction.repository;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single line of the batch journal
+ * BATCH carries the original request, DISPATCHED the transactionId items are about to be sent
+ * downstream with, RESULT one item outcome, COMPLETED marks the end of a batch and when it happened
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+class JournalEntry {
+
+    static final String BATCH = "BATCH";
+    static final String DISPATCHED = "DISPATCHED";
+    static final String RESULT = "RESULT";
+    static final String COMPLETED = "COMPLETED";
+
+    private String type;
+    private String batchId;
+    private BulkTransactionRequest request;
+    private Integer index;
+    private TransactionResult result;
+    private int[] indexes;
+    private String transactionId;
+    private Long completedAt;
+
+    static JournalEntry batch(BulkTransactionRequest request) {
+        return new JournalEntry(BATCH, request.getBatchId(), request, null, null, null, null, null);
+    }
+
+    static JournalEntry result(String batchId, int index, TransactionResult result) {
+        return new JournalEntry(RESULT, batchId, null, index, result, null, null, null);
+    }
+
+    static JournalEntry dispatched(String batchId, int[] indexes, String transactionId) {
+        return new JournalEntry(DISPATCHED, batchId, null, null, null, indexes, transactionId, null);
+    }
+
+    static JournalEntry completed(String batchId, long completedAt) {
+        return new JournalEntry(COMPLETED, batchId, null, null, null, null, null, completedAt);
+    }
+}
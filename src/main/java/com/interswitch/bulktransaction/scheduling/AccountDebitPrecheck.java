@@ -0,0 +1,68 @@
+package com.interswitch.bulktransaction.scheduling;
+
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Optional pre-check that sums the amounts debited from each account in a batch
+ * Accounts whose total exceeds the configured limit can be failed up front instead of
+ * running into overdraft rejections part way through their transfers
+ */
+@Component
+public class AccountDebitPrecheck {
+
+    private final BigDecimal limit;
+
+    public AccountDebitPrecheck(@Value("${batch.processing.account-debit-limit:0}") BigDecimal limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * The check is disabled when no positive limit is configured
+     */
+    public boolean isEnabled() {
+        return limit.signum() > 0;
+    }
+
+    public BigDecimal getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sums the debit per fromAccount, skipping items for which the predicate returns true
+     */
+    public Map<String, BigDecimal> totalsByAccount(List<TransactionRequest> transactions, IntPredicate skip) {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionRequest transaction = transactions.get(i);
+            if (skip.test(i) || transaction == null || transaction.getAmount() == null) {
+                continue;
+            }
+            totals.merge(transaction.getFromAccount(), transaction.getAmount(), BigDecimal::add);
+        }
+        return totals;
+    }
+
+    /**
+     * Returns the accounts whose batch total is above the limit, with their totals
+     */
+    public Map<String, BigDecimal> accountsOverLimit(List<TransactionRequest> transactions, IntPredicate skip) {
+        Map<String, BigDecimal> overLimit = new HashMap<>();
+        if (!isEnabled()) {
+            return overLimit;
+        }
+        totalsByAccount(transactions, skip).forEach((account, total) -> {
+            if (total.compareTo(limit) > 0) {
+                overLimit.put(account, total);
+            }
+        });
+        return overLimit;
+    }
+}
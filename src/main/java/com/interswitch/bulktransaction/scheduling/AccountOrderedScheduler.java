@@ -0,0 +1,158 @@
+package com.interswitch.bulktransaction.scheduling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Schedules batch items so that transfers out of the same account run one after another
+ * in submission order, while transfers out of different accounts run in parallel on the executor
+ *
+ * No thread waits for its predecessor: each account keeps only the future of its last item
+ * and the next item is chained onto it. An optional permit source (such as a rate limiter)
+ * is consulted by the worker that picks an item up, so items waiting in the queue hold no
+ * permits. If the permit is not due yet the worker moves on, and the item goes back onto the
+ * queue once it is. With a FairWorkQueue each batch gets its own lane of the shared queue
+ * instead of a plain executor.
+ */
+public class AccountOrderedScheduler {
+
+    private static final Supplier<CompletableFuture<Void>> NO_PERMIT_NEEDED =
+            () -> CompletableFuture.completedFuture(null);
+
+    private final Supplier<Executor> executors;
+    private final Supplier<CompletableFuture<Void>> permits;
+
+    public AccountOrderedScheduler(Executor executor) {
+        this(executor, NO_PERMIT_NEEDED);
+    }
+
+    public AccountOrderedScheduler(Executor executor, Supplier<CompletableFuture<Void>> permits) {
+        this.executors = () -> executor;
+        this.permits = permits;
+    }
+
+    public AccountOrderedScheduler(FairWorkQueue workQueue, Supplier<CompletableFuture<Void>> permits) {
+        this.executors = workQueue::newLane;
+        this.permits = permits;
+    }
+
+    /**
+     * Starts scheduling a new batch
+     */
+    public BatchSchedule newSchedule() {
+        return new BatchSchedule(executors.get());
+    }
+
+    /**
+     * Per-batch ordering state
+     * Items must be submitted from a single thread, in batch order.
+     */
+    public class BatchSchedule {
+
+        private final Map<String, CompletableFuture<?>> tails = new HashMap<>();
+        private final Executor executor;
+
+        private BatchSchedule(Executor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Runs the task once every earlier task for the same account has finished
+         */
+        public <T> CompletableFuture<T> submit(String account, Supplier<T> task) {
+            return submitAsync(account, () -> CompletableFuture.completedFuture(task.get()));
+        }
+
+        /**
+         * Starts the task once every earlier task for the same account has finished
+         * The next task of the account waits for the stage the task returns, not just for the task.
+         */
+        public <T> CompletableFuture<T> submitAsync(String account, Supplier<? extends CompletionStage<T>> task) {
+            CompletableFuture<?> tail = tails.get(account);
+            CompletableFuture<T> next = tail == null
+                    ? run(task)
+                    // Run after the previous item whether it succeeded or not
+                    : tail.handle((result, error) -> null).thenCompose(ignored -> run(task));
+            tails.put(account, next);
+            return next;
+        }
+
+        private <T> CompletableFuture<T> run(Supplier<? extends CompletionStage<T>> task) {
+            ItemTask<T> item = new ItemTask<>(executor, task);
+            item.enqueue();
+            return item.result;
+        }
+
+        /**
+         * The executor items of this batch run on, e.g. for later attempts of an item
+         */
+        public Executor executor() {
+            return executor;
+        }
+
+        /**
+         * Number of distinct accounts seen so far
+         */
+        public int accounts() {
+            return tails.size();
+        }
+    }
+
+    /**
+     * One item on its way through the executor; its future also completes if the item is never run
+     */
+    private final class ItemTask<T> implements FairWorkQueue.RejectableTask {
+
+        private final Executor executor;
+        private final Supplier<? extends CompletionStage<T>> task;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private CompletableFuture<Void> permit;
+
+        private ItemTask(Executor executor, Supplier<? extends CompletionStage<T>> task) {
+            this.executor = executor;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (permit == null) {
+                    permit = permits.get();
+                    if (!permit.isDone()) {
+                        // Back onto the queue once the permit is due; this worker moves on
+                        permit.whenComplete((ignored, error) -> enqueue());
+                        return;
+                    }
+                }
+                permit.join();
+                task.get().whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+
+        private void enqueue() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                reject(e);
+            }
+        }
+
+        @Override
+        public void reject(RejectedExecutionException reason) {
+            result.completeExceptionally(reason);
+        }
+    }
+}
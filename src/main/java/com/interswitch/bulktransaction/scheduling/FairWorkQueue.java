@@ -0,0 +1,177 @@
+package com.interswitch.bulktransaction.scheduling;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process-wide work queue shared by every batch
+ *
+ * Each batch submits its items through its own lane. A fixed set of worker threads takes one
+ * task at a time from the lane at the head of the ready ring and moves that lane to the back,
+ * so batches with queued work are served round-robin: a small batch waits for at most one
+ * task per other active batch instead of behind the whole backlog of a large one. The worker
+ * count bounds downstream concurrency across all batches together.
+ *
+ * Once closed, new tasks are refused and tasks still queued are dropped; a RejectableTask among
+ * them is told so, so whoever waits on it does not wait forever.
+ */
+@Slf4j
+public class FairWorkQueue implements AutoCloseable {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+
+    // Lanes that have queued tasks, in service order
+    private final ArrayDeque<Lane> ready = new ArrayDeque<>();
+    private final Thread[] workers;
+
+    private int queuedTasks;
+    private boolean closed;
+
+    public FairWorkQueue(int workers, MeterRegistry meterRegistry) {
+        this.workers = new Thread[Math.max(1, workers)];
+        for (int i = 0; i < this.workers.length; i++) {
+            Thread worker = new Thread(this::work, "transaction-worker-" + (i + 1));
+            worker.setDaemon(true);
+            this.workers[i] = worker;
+            worker.start();
+        }
+
+        Gauge.builder("work.queue.tasks", this, FairWorkQueue::getQueuedTasks)
+                .description("Batch items waiting for a transaction worker")
+                .register(meterRegistry);
+        Gauge.builder("work.queue.batches", this, FairWorkQueue::getActiveLanes)
+                .description("Batches with items waiting for a transaction worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a lane for one batch; tasks of a lane run in no particular order relative to each other
+     */
+    public Executor newLane() {
+        return new Lane();
+    }
+
+    public int getQueuedTasks() {
+        lock.lock();
+        try {
+            return queuedTasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveLanes() {
+        lock.lock();
+        try {
+            return ready.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        List<Runnable> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            for (Lane lane : ready) {
+                dropped.addAll(lane.tasks);
+                lane.tasks.clear();
+                lane.inRing = false;
+            }
+            ready.clear();
+            queuedTasks = 0;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+
+        RejectedExecutionException reason = new RejectedExecutionException("Work queue closed");
+        for (Runnable task : dropped) {
+            if (task instanceof RejectableTask rejectable) {
+                rejectable.reject(reason);
+            }
+        }
+        if (!dropped.isEmpty()) {
+            log.warn("Work queue closed with {} task(s) still queued", dropped.size());
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Runnable task;
+            lock.lock();
+            try {
+                while (ready.isEmpty() && !closed) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                Lane lane = ready.pollFirst();
+                task = lane.tasks.pollFirst();
+                queuedTasks--;
+                if (lane.tasks.isEmpty()) {
+                    lane.inRing = false;
+                } else {
+                    ready.addLast(lane);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Work queue task failed", e);
+            }
+        }
+    }
+
+    /**
+     * A task that must learn when it will never run, e.g. to fail the future its submitter waits on
+     */
+    public interface RejectableTask extends Runnable {
+
+        void reject(RejectedExecutionException reason);
+    }
+
+    private final class Lane implements Executor {
+
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean inRing;
+
+        @Override
+        public void execute(Runnable task) {
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new RejectedExecutionException("Work queue closed");
+                }
+                tasks.addLast(task);
+                queuedTasks++;
+                if (!inRing) {
+                    inRing = true;
+                    ready.addLast(this);
+                }
+                workAvailable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
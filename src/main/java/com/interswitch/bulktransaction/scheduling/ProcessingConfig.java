@@ -0,0 +1,36 @@
+package com.interswitch.bulktransaction.scheduling;
+
+import com.interswitch.bulktransaction.client.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Shared work queue and scheduler for parallel batch item processing
+ * All batches share one pool of batch.processing.parallelism workers, served round-robin.
+ */
+@Configuration
+public class ProcessingConfig {
+
+    @Bean(destroyMethod = "close")
+    public FairWorkQueue transactionWorkQueue(@Value("${batch.processing.parallelism:16}") int parallelism,
+                                              MeterRegistry meterRegistry) {
+        return new FairWorkQueue(parallelism, meterRegistry);
+    }
+
+    @Bean
+    public AccountOrderedScheduler accountOrderedScheduler(FairWorkQueue transactionWorkQueue,
+                                                           ObjectProvider<TokenBucketRateLimiter> rateLimiter) {
+        TokenBucketRateLimiter limiter = rateLimiter.getIfAvailable();
+        // Called by the worker that dequeues an item, not when the item is submitted
+        Supplier<CompletableFuture<Void>> permits = limiter == null
+                ? () -> CompletableFuture.completedFuture(null)
+                : limiter::acquire;
+        return new AccountOrderedScheduler(transactionWorkQueue, permits);
+    }
+}
@@ -0,0 +1,64 @@
+package com.interswitch.bulktransaction.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates calls between replicas on the internal endpoints
+ * A peer proves it belongs to the cluster with the shared cluster.node-secret in the
+ * X-Cluster-Node-Secret header and is granted the NODE role. That role is never taken from a
+ * JWT, as anyone can mint one through /api/auth. Without a secret no request is a node.
+ */
+@Slf4j
+@Component
+public class ClusterNodeAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String NODE_SECRET_HEADER = "X-Cluster-Node-Secret";
+    public static final String NODE_ROLE = "NODE";
+    public static final String INTERNAL_PATH = "/internal/";
+
+    private final byte[] nodeSecret;
+
+    public ClusterNodeAuthenticationFilter(@Value("${cluster.node-secret:}") String nodeSecret) {
+        this.nodeSecret = nodeSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(INTERNAL_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String presented = request.getHeader(NODE_SECRET_HEADER);
+        if (presented != null) {
+            // Constant-time comparison, so the secret cannot be guessed from response times
+            if (nodeSecret.length > 0
+                    && MessageDigest.isEqual(nodeSecret, presented.getBytes(StandardCharsets.UTF_8))) {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        "cluster-node", null, List.of(new SimpleGrantedAuthority("ROLE_" + NODE_ROLE))));
+            } else {
+                log.warn("Rejected cluster node secret on {} from {}", request.getRequestURI(), request.getRemoteAddr());
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,11 +1,14 @@
 package com.interswitch.bulktransaction.security;
 
+import com.interswitch.bulktransaction.tracing.TraceSpans;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,13 +23,19 @@ import java.util.stream.Collectors;
 /**
  * JWT Authentication Filter
  * Intercepts incoming requests to validate JWT tokens and set authentication context
+ * Token validation is recorded as a child span of the request's span.
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final Tracer tracer;
+
+    public JwtAuthenticationFilter(JwtService jwtService, @Nullable Tracer tracer) {
+        this.jwtService = jwtService;
+        this.tracer = tracer == null ? Tracer.NOOP : tracer;
+    }
 
     /**
      * Filters each request to extract and validate JWT token
@@ -46,7 +55,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        try {
+        Span span = tracer.nextSpan().name(TraceSpans.JWT).start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
             // Extract token (remove "Bearer " prefix)
             String token = authHeader.substring(7);
 
@@ -59,7 +69,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                 // Convert roles to Spring Security authorities
                 // Prefix with "ROLE_" as Spring Security expects this format
+                // NODE is only granted by ClusterNodeAuthenticationFilter, never by a token
                 List<SimpleGrantedAuthority> authorities = roles.stream()
+                        .filter(role -> !ClusterNodeAuthenticationFilter.NODE_ROLE.equals(role))
                         .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                         .collect(Collectors.toList());
 
@@ -84,8 +96,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         } catch (Exception e) {
             log.error("JWT authentication failed: {}", e.getMessage());
+            span.error(e);
             // Clear security context on error
             SecurityContextHolder.clearContext();
+        } finally {
+            span.end();
         }
 
         // Continue filter chain
@@ -18,6 +18,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ClusterNodeAuthenticationFilter clusterNodeAuthenticationFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -28,7 +29,13 @@ public class SecurityConfig {
                         // Allow auth endpoints without authentication
                         .requestMatchers("/api/auth/**").permitAll()
                         // Allow health check endpoints
-                        .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/liveness", "/actuator/health/readiness",
+                                "/actuator/info").permitAll()
+                        // Recordings expose internals of the running service
+                        .requestMatchers("/actuator/flightrecorder/**", "/actuator/flightrecorder").hasRole("ADMIN")
+                        .requestMatchers("/actuator/drain").hasRole("ADMIN")
+                        // Peer replicas only, authenticated with the cluster node secret
+                        .requestMatchers("/internal/**").hasRole(ClusterNodeAuthenticationFilter.NODE_ROLE)
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
                 )
@@ -36,7 +43,8 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .addFilterBefore(jwtAuthenticationFilter,
-                        UsernamePasswordAuthenticationFilter.class);
+                        UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(clusterNodeAuthenticationFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,47 @@
+package com.interswitch.bulktransaction.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget for one batch, shared by every item call and retry of that batch
+ * NONE never expires and leaves the configured Feign timeouts as they are.
+ */
+public final class BatchDeadline {
+
+    public static final BatchDeadline NONE = new BatchDeadline(0, false);
+
+    public static final String EXCEEDED_REASON = "Batch deadline exceeded";
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private BatchDeadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * Starts a deadline now, or returns NONE when seconds is not positive
+     */
+    public static BatchDeadline after(long seconds) {
+        return seconds <= 0 ? NONE : new BatchDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds), true);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Milliseconds left, Long.MAX_VALUE for NONE and 0 once expired
+     */
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+}
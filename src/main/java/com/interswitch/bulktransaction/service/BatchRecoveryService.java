@@ -0,0 +1,52 @@
+package com.interswitch.bulktransaction.service;
+
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import com.interswitch.bulktransaction.repository.BatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Resumes batches left unfinished by a crash or redeploy when the application starts
+ * Work runs on a background thread so startup is not held up by a large payroll run
+ *
+ * Shards received from a coordinator are not resumed: the coordinator reassigns a shard when its
+ * peer goes away, so resuming it here would send its items a second time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchRecoveryService {
+
+    private final BatchRepository batchRepository;
+    private final BulkTransactionService bulkTransactionService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverBatches() {
+        List<BatchRecord> unfinished = batchRepository.findUnfinished().stream()
+                .filter(batch -> !ShardCoordinator.isShard(batch.getBatchId()))
+                .toList();
+        if (unfinished.isEmpty()) {
+            return;
+        }
+
+        log.info("RECOVERY: resuming {} unfinished batch(es)", unfinished.size());
+        Thread recoveryThread = new Thread(() -> {
+            for (BatchRecord batch : unfinished) {
+                try {
+                    bulkTransactionService.resumeBatch(batch);
+                } catch (Exception e) {
+                    log.error("RECOVERY: failed to resume batchId: {} - Error: {}",
+                            batch.getBatchId(), e.getMessage());
+                }
+            }
+        }, "batch-recovery");
+        recoveryThread.setDaemon(true);
+        recoveryThread.start();
+    }
+}
@@ -1,33 +1,131 @@
 package com.interswitch.bulktransaction.service;
 
+import com.interswitch.bulktransaction.admission.AdmissionControlService;
+import com.interswitch.bulktransaction.cache.BatchResultsChangedEvent;
+import com.interswitch.bulktransaction.callback.BatchCallbackService;
+import com.interswitch.bulktransaction.cluster.BatchRouter;
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.drain.BatchDrainCoordinator;
 import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
 import com.interswitch.bulktransaction.dto.request.TransactionRequest;
 import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.FailureCode;
 import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.exceptions.AdmissionRejectedException;
+import com.interswitch.bulktransaction.exceptions.BatchReplayRejectedException;
+import com.interswitch.bulktransaction.exceptions.BatchValidationException;
+import com.interswitch.bulktransaction.exceptions.TransactionFailedException;
+import com.interswitch.bulktransaction.netting.NettedTransfer;
+import com.interswitch.bulktransaction.netting.NettingPlan;
+import com.interswitch.bulktransaction.netting.TransferNettingService;
+import com.interswitch.bulktransaction.profiling.BatchEvent;
+import com.interswitch.bulktransaction.profiling.IdempotencyHitEvent;
+import com.interswitch.bulktransaction.profiling.ItemEvent;
+import com.interswitch.bulktransaction.reactive.ReactiveTransactionPipeline;
+import com.interswitch.bulktransaction.reconciliation.PendingTransactionReconciler;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import com.interswitch.bulktransaction.repository.BatchRepository;
+import com.interswitch.bulktransaction.scheduling.AccountDebitPrecheck;
+import com.interswitch.bulktransaction.scheduling.AccountOrderedScheduler;
+import com.interswitch.bulktransaction.tracing.TraceSpans;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import com.interswitch.bulktransaction.validation.ItemViolation;
+import com.interswitch.bulktransaction.validation.PreflightReport;
+import com.interswitch.bulktransaction.validation.ValidationMode;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @Service
 public class BulkTransactionService {
 
+    // Reasons of items rejected before any downstream call; replaying them would skip those checks
+    static final String VALIDATION_FAILED_REASON = "Validation failed: ";
+    static final String DEBIT_LIMIT_REASON = "Batch debit total ";
+    private static final String UNEXPECTED_FAILURE_REASON = "Unexpected error: " + TransactionFailedException.MESSAGE;
+    static final String IN_DOUBT_REASON = "Sent before a restart, awaiting final status from Transaction Service";
+    private static final String JOURNAL_UNAVAILABLE_REASON = "Batch journal is not writable, submit to another replica";
+    private static final long JOURNAL_RETRY_AFTER_SECONDS = 30;
+
     private final TransactionProcessorService transactionProcessorService;
+    private final BatchRepository batchRepository;
+    private final BatchPreflightValidator preflightValidator;
+    private final AccountOrderedScheduler scheduler;
+    private final AccountDebitPrecheck debitPrecheck;
+    private final TransferNettingService nettingService;
+    private final AdmissionControlService admissionControlService;
+    private final ShardCoordinator shardCoordinator;
+    private final BatchRouter batchRouter;
+    private final ReactiveTransactionPipeline reactivePipeline;
+    private final BatchCallbackService callbackService;
+    private final PendingTransactionReconciler reconciler;
+    private final BatchDrainCoordinator drainCoordinator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Tracer tracer;
+    private final long deadlineSeconds;
     private final Counter successCounter;
     private final Counter failureCounter;
-    private final Map<String, BulkTransactionResponse> batchResults = new ConcurrentHashMap<>();
-    private final Set<String> processedBatchIds = ConcurrentHashMap.newKeySet();
+    private final Counter pendingCounter;
+    private final Counter replayCounter;
+    private final Timer processingTimer;
+    private final Set<String> replaying = ConcurrentHashMap.newKeySet();
 
     public BulkTransactionService(TransactionProcessorService transactionProcessorService,
+                                  BatchRepository batchRepository,
+                                  BatchPreflightValidator preflightValidator,
+                                  AccountOrderedScheduler scheduler,
+                                  AccountDebitPrecheck debitPrecheck,
+                                  TransferNettingService nettingService,
+                                  AdmissionControlService admissionControlService,
+                                  ShardCoordinator shardCoordinator,
+                                  BatchRouter batchRouter,
+                                  @Nullable ReactiveTransactionPipeline reactivePipeline,
+                                  BatchCallbackService callbackService,
+                                  PendingTransactionReconciler reconciler,
+                                  BatchDrainCoordinator drainCoordinator,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Nullable Tracer tracer,
+                                  @Value("${batch.processing.deadline-seconds:0}") long deadlineSeconds,
                                   MeterRegistry meterRegistry) {
         this.transactionProcessorService = transactionProcessorService;
+        this.batchRepository = batchRepository;
+        this.preflightValidator = preflightValidator;
+        this.scheduler = scheduler;
+        this.debitPrecheck = debitPrecheck;
+        this.nettingService = nettingService;
+        this.admissionControlService = admissionControlService;
+        this.shardCoordinator = shardCoordinator;
+        this.batchRouter = batchRouter;
+        this.reactivePipeline = reactivePipeline;
+        this.callbackService = callbackService;
+        this.reconciler = reconciler;
+        this.drainCoordinator = drainCoordinator;
+        this.eventPublisher = eventPublisher;
+        this.tracer = tracer == null ? Tracer.NOOP : tracer;
+        this.deadlineSeconds = deadlineSeconds;
 
         // Initialize metrics counters
         this.successCounter = Counter.builder("transactions.success")
@@ -36,66 +134,631 @@ public class BulkTransactionService {
         this.failureCounter = Counter.builder("transactions.failure")
                 .description("Number of failed transactions")
                 .register(meterRegistry);
+        this.pendingCounter = Counter.builder("transactions.pending")
+                .description("Transactions accepted by the Transaction Service without a final status")
+                .register(meterRegistry);
+        this.replayCounter = Counter.builder("batch.replay.items")
+                .description("Failed batch items sent downstream again by a replay")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("batch.processing")
+                .description("Time spent processing batch items, excluding pre-flight validation")
+                .register(meterRegistry);
     }
 
     public BulkTransactionResponse processBulkTransactions(BulkTransactionRequest request) {
+        // In a cluster, only the replica owning the batchId processes it
+        String owner = batchRouter.remoteOwnerOf(request.getBatchId());
+        if (owner != null) {
+            return batchRouter.forward(owner, request);
+        }
+        return processLocally(request);
+    }
+
+    /**
+     * Processes a batch on this node, without routing it to its owner
+     * Used for batches this node owns, whose request was already validated when it was bound.
+     */
+    public BulkTransactionResponse processLocally(BulkTransactionRequest request) {
+        return processLocally(request, false);
+    }
+
+    /**
+     * Processes a batch forwarded by a peer or a shard handed over by a coordinator
+     * These skip request binding, so they are validated here in every mode.
+     */
+    public BulkTransactionResponse processForwarded(BulkTransactionRequest request) {
+        return processLocally(request, true);
+    }
+
+    private BulkTransactionResponse processLocally(BulkTransactionRequest request, boolean forwarded) {
         log.info("STARTING bulk transaction processing for batchId: {}", request.getBatchId());
 
-        // Check for duplicate batch ID
-        if (!processedBatchIds.add(request.getBatchId())) {
-            log.warn("IDEMPOTENCY: BatchId {} already processed. Returning previous results.", request.getBatchId());
-            return batchResults.get(request.getBatchId());
+        // Check for duplicate batch ID; replays never count against admission
+        if (batchRepository.exists(request.getBatchId())) {
+            return previousResponse(request);
         }
 
-        List<TransactionResult> results = new ArrayList<>();
+        PreflightReport report = null;
+        if (forwarded) {
+            report = preflightValidator.validate(request);
+            checkPreflight(request, report);
+        }
 
-        for (TransactionRequest transaction : request.getTransactions()) {
-            log.info("PROCESSING transactionId: {} for batchId: {}",
-                    transaction.getTransactionId(), request.getBatchId());
+        drainCoordinator.checkAccepting();
+        if (!batchRepository.isWritable()) {
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, JOURNAL_UNAVAILABLE_REASON,
+                    JOURNAL_RETRY_AFTER_SECONDS);
+        }
+        int items = request.getTransactions().size();
+        admissionControlService.admit(items);
+        try {
+            if (!batchRepository.create(request)) {
+                return previousResponse(request);
+            }
 
-            try {
-                // Call the external service - Spring AOP can intercept this!
-                TransactionResult result = transactionProcessorService.processTransaction(transaction);
-                results.add(result);
+            BatchRecord batch = batchRepository.findBatch(request.getBatchId()).orElseThrow();
+            if (preflightValidator.getMode() == ValidationMode.REJECT_ITEMS) {
+                // Binding only checks batch-level problems in this mode
+                rejectInvalidItems(batch, report != null ? report : preflightValidator.validate(request));
+            }
+            if (debitPrecheck.isEnabled()) {
+                rejectAccountsOverLimit(batch);
+            }
+            return execute(batch);
+        } finally {
+            admissionControlService.release(items);
+        }
+    }
 
-                if ("SUCCESS".equals(result.getStatus())) {
-                    successCounter.increment();
-                    log.info("SUCCESS transactionId: {}", transaction.getTransactionId());
-                } else {
-                    failureCounter.increment();
-                    log.info("FAILED transactionId: {} - Reason: {}",
-                            transaction.getTransactionId(), result.getReason());
-                }
-            } catch (Exception e) {
-                log.error("UNEXPECTED ERROR processing transactionId: {} in batchId: {} - Error: {}",
-                        transaction.getTransactionId(), request.getBatchId(), e.getMessage());
+    private BulkTransactionResponse previousResponse(BulkTransactionRequest request) {
+        log.warn("IDEMPOTENCY: BatchId {} already processed. Returning previous results.", request.getBatchId());
+        BulkTransactionResponse response = batchRepository.findResponse(request.getBatchId()).orElse(null);
+        IdempotencyHitEvent.emit(request.getBatchId(), response != null);
+        return response;
+    }
+
+    /**
+     * Continues a batch that was interrupted by a crash or redeploy
+     * Items that already have a stored result are not sent downstream again, and neither are items
+     * in doubt, i.e. sent before the restart without a recorded result: the transfer may have been
+     * made, so they are held as PENDING and settled through the status lookup.
+     */
+    public BulkTransactionResponse resumeBatch(BatchRecord batch) {
+        log.info("RESUMING bulk transaction processing for batchId: {} ({} of {} items already completed)",
+                batch.getBatchId(), batch.getCompletedItems(), batch.getRequest().getTransactions().size());
+        holdInDoubtItems(batch);
+        return execute(batch);
+    }
+
+    private void holdInDoubtItems(BatchRecord batch) {
+        List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+        // Members of a netted transfer share its transactionId and are looked up once
+        Map<String, List<Integer>> inDoubt = new LinkedHashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            if (batch.isInDoubt(i)) {
+                inDoubt.computeIfAbsent(batch.getDispatchedId(i), id -> new ArrayList<>()).add(i);
+            }
+        }
+        if (inDoubt.isEmpty()) {
+            return;
+        }
+
+        inDoubt.forEach((transactionId, indexes) -> {
+            for (int index : indexes) {
+                batchRepository.appendResult(batch.getBatchId(), index, TransactionResult.builder()
+                        .transactionId(transactions.get(index).getTransactionId())
+                        .status("PENDING")
+                        .reason(IN_DOUBT_REASON)
+                        .build());
+                pendingCounter.increment();
+            }
+            reconciler.track(batch.getBatchId(), indexes.stream().mapToInt(Integer::intValue).toArray(),
+                    transactionId);
+        });
+        log.warn("RESUMING batchId: {} with {} transfer(s) in doubt; looking them up instead of re-sending",
+                batch.getBatchId(), inDoubt.size());
+    }
+
+    /**
+     * Sends the failed items of a finished batch downstream again and merges their new outcomes
+     * into the stored results. In a cluster the replay runs on the replica owning the batchId.
+     *
+     * @param reason Optional prefix of the failure reason an item must have to be replayed
+     * @return The batch results after the replay
+     */
+    public BulkTransactionResponse replayFailures(String batchId, @Nullable String reason) {
+        String owner = batchRouter.remoteOwnerOf(batchId);
+        if (owner != null) {
+            return batchRouter.forwardReplay(owner, batchId, reason);
+        }
+        return replayLocally(batchId, reason);
+    }
 
-                TransactionResult failedResult = TransactionResult.builder()
+    /**
+     * Replays failed items of a batch stored on this node
+     * Items rejected by pre-flight validation or the debit precheck are never replayed;
+     * they were not sent downstream and would only bypass those checks.
+     */
+    public BulkTransactionResponse replayLocally(String batchId, @Nullable String reason) {
+        BatchRecord batch = batchRepository.findBatch(batchId)
+                .orElseThrow(() -> new RuntimeException("Batch not found: " + batchId));
+        if (!batch.isCompleted()) {
+            throw new BatchReplayRejectedException("Batch " + batchId + " is still being processed");
+        }
+        drainCoordinator.checkAccepting();
+        if (!replaying.add(batchId)) {
+            throw new BatchReplayRejectedException("Batch " + batchId + " is already being replayed");
+        }
+        try {
+            int[] indexes = replayableIndexes(batch, reason == null || reason.isBlank() ? null : reason);
+            log.info("REPLAYING {} failed item(s) of batchId: {}", indexes.length, batchId);
+            if (indexes.length == 0) {
+                return batch.toResponse();
+            }
+
+            admissionControlService.admit(indexes.length);
+            Span span = startBatchSpan(TraceSpans.REPLAY, batchId, indexes.length);
+            BatchEvent event = BatchEvent.start(batchId, "replay", indexes.length);
+            drainCoordinator.started(batch);
+            try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+                replayCounter.increment(indexes.length);
+                BatchDeadline deadline = BatchDeadline.after(deadlineSeconds);
+                processingTimer.record(() -> runLocally(batch, scheduler.newSchedule(), indexes, deadline));
+            } catch (RuntimeException e) {
+                span.error(e);
+                throw e;
+            } finally {
+                drainCoordinator.finished(batchId);
+                span.end();
+                admissionControlService.release(indexes.length);
+                // Stored results changed on the owner, also when the replay was forwarded here
+                eventPublisher.publishEvent(new BatchResultsChangedEvent(batchId));
+            }
+
+            BulkTransactionResponse response = batch.toResponse();
+            event.finish(response);
+            callbackService.batchCompleted(batch.getRequest(), response);
+            log.info("COMPLETED replay of batchId: {}", batchId);
+            return response;
+        } finally {
+            replaying.remove(batchId);
+        }
+    }
+
+    private static int[] replayableIndexes(BatchRecord batch, String reason) {
+        int size = batch.getRequest().getTransactions().size();
+        int[] indexes = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            TransactionResult result = batch.getResult(i);
+            // PENDING items are still being reconciled and may yet succeed
+            if (result == null || !"FAILED".equals(result.getStatus())) {
+                continue;
+            }
+            String failure = result.getReason() == null ? "" : result.getReason();
+            if (isPrecheckRejection(result, failure) || isOutcomeUnknown(result, failure)) {
+                continue;
+            }
+            if (reason == null || failure.startsWith(reason)) {
+                indexes[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    private static boolean isPrecheckRejection(TransactionResult result, String reason) {
+        if (result.getFailureCode() != null) {
+            return result.getFailureCode() == FailureCode.VALIDATION_FAILED
+                    || result.getFailureCode() == FailureCode.DEBIT_LIMIT_EXCEEDED;
+        }
+        // Results journaled before failure codes existed
+        return reason.startsWith(VALIDATION_FAILED_REASON) || reason.startsWith(DEBIT_LIMIT_REASON);
+    }
+
+    /**
+     * The transfer may have been made downstream, so sending it again could pay twice
+     */
+    private static boolean isOutcomeUnknown(TransactionResult result, String reason) {
+        return result.getFailureCode() == FailureCode.OUTCOME_UNKNOWN
+                || reason.startsWith(PendingTransactionReconciler.OUTCOME_UNKNOWN_REASON);
+    }
+
+    /**
+     * Rejects the whole batch for a batch-level violation, or for any violation in REJECT_BATCH mode
+     *
+     * @throws BatchValidationException with every violation found
+     */
+    private void checkPreflight(BulkTransactionRequest request, PreflightReport report) {
+        boolean batchLevel = report.violations().stream().anyMatch(ItemViolation::isBatchLevel);
+        if (batchLevel || (report.hasViolations() && preflightValidator.getMode() == ValidationMode.REJECT_BATCH)) {
+            throw new BatchValidationException("Batch " + request.getBatchId() + " failed pre-flight validation",
+                    report.violations());
+        }
+    }
+
+    /**
+     * Records a FAILED result for every item that did not pass pre-flight validation,
+     * so the processing loop skips them like already completed items
+     */
+    private void rejectInvalidItems(BatchRecord batch, PreflightReport report) {
+        List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+        for (ItemViolation violation : report.violations()) {
+            if (violation.isBatchLevel()) {
+                continue;
+            }
+            TransactionRequest transaction = transactions.get(violation.index());
+            batchRepository.appendResult(batch.getBatchId(), violation.index(), TransactionResult.builder()
+                    .transactionId(transaction == null ? null : transaction.getTransactionId())
+                    .status("FAILED")
+                    .reason(VALIDATION_FAILED_REASON + violation.message())
+                    .failureCode(FailureCode.VALIDATION_FAILED)
+                    .build());
+            failureCounter.increment();
+        }
+        if (report.hasViolations()) {
+            log.warn("PREFLIGHT rejected {} of {} item(s) in batchId: {}",
+                    report.rejectedItems(), report.itemCount(), batch.getBatchId());
+        }
+    }
+
+    /**
+     * Fails every item of an account whose total debit in this batch exceeds the configured limit
+     */
+    private void rejectAccountsOverLimit(BatchRecord batch) {
+        List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+        Map<String, BigDecimal> overLimit =
+                debitPrecheck.accountsOverLimit(transactions, i -> batch.getResult(i) != null);
+
+        for (int i = 0; i < transactions.size() && !overLimit.isEmpty(); i++) {
+            TransactionRequest transaction = transactions.get(i);
+            if (batch.getResult(i) != null) {
+                continue;
+            }
+            BigDecimal total = overLimit.get(transaction.getFromAccount());
+            if (total != null) {
+                batchRepository.appendResult(batch.getBatchId(), i, TransactionResult.builder()
                         .transactionId(transaction.getTransactionId())
                         .status("FAILED")
-                        .reason("Unexpected error: " + e.getMessage())
-                        .build();
-                results.add(failedResult);
+                        .reason(DEBIT_LIMIT_REASON + total.toPlainString() + " exceeds limit "
+                                + debitPrecheck.getLimit().toPlainString() + " for account")
+                        .failureCode(FailureCode.DEBIT_LIMIT_EXCEEDED)
+                        .build());
                 failureCounter.increment();
             }
         }
+        if (!overLimit.isEmpty()) {
+            log.warn("PRECHECK rejected {} account(s) over the debit limit in batchId: {}",
+                    overLimit.size(), batch.getBatchId());
+        }
+    }
 
-        BulkTransactionResponse response = BulkTransactionResponse.builder()
-                .batchId(request.getBatchId())
-                .results(results)
-                .build();
-        batchResults.put(request.getBatchId(), response);
+    /**
+     * Processes the batch under its batch span and a JFR batch event, as an in-flight batch for the drain
+     * The span is a child of the request's span, or a new trace for a resumed batch.
+     */
+    private BulkTransactionResponse execute(BatchRecord batch) {
+        int items = batch.getRequest().getTransactions().size() - batch.getCompletedItems();
+        Span span = startBatchSpan(TraceSpans.BATCH, batch.getBatchId(), items);
+        BatchEvent event = BatchEvent.start(batch.getBatchId(), "process", items);
+        drainCoordinator.started(batch);
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            BulkTransactionResponse response = processingTimer.record(() -> processItems(batch));
+            event.finish(response);
+            return response;
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            drainCoordinator.finished(batch.getBatchId());
+            span.end();
+        }
+    }
+
+    private Span startBatchSpan(String name, String batchId, int items) {
+        return tracer.nextSpan().name(name)
+                .tag(TraceSpans.BATCH_ID, batchId)
+                .tag(TraceSpans.BATCH_ITEMS, String.valueOf(items))
+                .start();
+    }
+
+    /**
+     * Dispatches pending items through the account-ordered scheduler and waits for all of them
+     * Large batches in coordinator mode are split into shards across replicas instead.
+     * With netting enabled, netted transfers always run on this node's worker pool: the batch is
+     * neither sharded nor sent through the reactive pipeline, as both work on original items.
+     * The batch deadline starts here, so a resumed batch gets a fresh budget.
+     */
+    private BulkTransactionResponse processItems(BatchRecord batch) {
+        String batchId = batch.getBatchId();
+        BatchDeadline deadline = BatchDeadline.after(deadlineSeconds);
+        List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+        AccountOrderedScheduler.BatchSchedule schedule = scheduler.newSchedule();
+        List<CompletableFuture<Void>> pending = new ArrayList<>(transactions.size());
+        callbackService.batchStarted(batch.getRequest(), batch.getCompletedItems());
 
-        log.info("COMPLETED bulk transaction processing for batchId: {}", request.getBatchId());
+        // Items run on worker threads; their spans are created under the batch span explicitly
+        Span batchSpan = tracer.currentSpan();
+
+        if (nettingService.isEnabled()) {
+            if (reactivePipeline != null
+                    || shardCoordinator.shouldDistribute(batch, transactions.size() - batch.getCompletedItems())) {
+                log.info("NETTING batchId: {} on the worker pool, bypassing sharding and the reactive pipeline",
+                        batchId);
+            }
+            NettingPlan plan = nettingService.plan(transactions, i -> batch.getResult(i) != null);
+            for (int index : plan.offsetIndexes()) {
+                record(batchId, index, TransactionResult.builder()
+                        .transactionId(transactions.get(index).getTransactionId())
+                        .status("SUCCESS")
+                        .build());
+            }
+            for (NettedTransfer transfer : plan.transfers()) {
+                pending.add(schedule.submitAsync(transfer.request().getFromAccount(),
+                        () -> processNettedTransfer(batch, transfer, deadline, batchSpan, schedule.executor())));
+            }
+        } else if (shardCoordinator.shouldDistribute(batch, transactions.size() - batch.getCompletedItems())) {
+            shardCoordinator.distribute(batch,
+                    indexes -> {
+                        try (Tracer.SpanInScope ignored = tracer.withSpan(batchSpan)) {
+                            runLocally(batch, schedule, indexes, deadline);
+                        }
+                    },
+                    (index, result) -> record(batchId, index, result),
+                    index -> batchRepository.markDispatched(batchId, new int[]{index},
+                            transactions.get(index).getTransactionId()));
+        } else if (reactivePipeline != null) {
+            runLocally(batch, schedule, pendingIndexes(batch), deadline);
+        } else {
+            for (int i = 0; i < transactions.size(); i++) {
+                if (batch.getResult(i) != null) {
+                    log.debug("SKIPPING already completed item {} in batchId: {}", i, batchId);
+                    continue;
+                }
+                pending.add(submitItem(batch, schedule, i, deadline));
+            }
+        }
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        if (batch.getCompletedItems() < transactions.size() && drainCoordinator.shouldStopDispatch(batchId)) {
+            // Left unfinalized, so the remaining items are resumed after the restart
+            throw drainCoordinator.handedOff(batch);
+        }
+        BulkTransactionResponse response = batchRepository.finalizeBatch(batchId);
+        callbackService.batchCompleted(batch.getRequest(), response);
+
+        log.info("COMPLETED bulk transaction processing for batchId: {} ({} call(s) across {} account(s))",
+                batchId, pending.size(), schedule.accounts());
         return response;
     }
 
+    /**
+     * Runs the given items on this node and waits for all of them
+     */
+    private void runLocally(BatchRecord batch, AccountOrderedScheduler.BatchSchedule schedule, int[] indexes,
+                            BatchDeadline deadline) {
+        if (reactivePipeline != null) {
+            List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+            reactivePipeline.process(batch.getBatchId(), transactions, indexes, deadline,
+                    index -> batchRepository.markDispatched(batch.getBatchId(), new int[]{index},
+                            transactions.get(index).getTransactionId()),
+                    (result, index) -> record(batch.getBatchId(), index, result));
+            return;
+        }
+        List<CompletableFuture<Void>> items = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            items.add(submitItem(batch, schedule, index, deadline));
+        }
+        CompletableFuture.allOf(items.toArray(new CompletableFuture[0])).join();
+    }
+
+    private static int[] pendingIndexes(BatchRecord batch) {
+        int size = batch.getRequest().getTransactions().size();
+        int[] indexes = new int[size - batch.getCompletedItems()];
+        int count = 0;
+        for (int i = 0; i < size && count < indexes.length; i++) {
+            if (batch.getResult(i) == null) {
+                indexes[count++] = i;
+            }
+        }
+        return count == indexes.length ? indexes : Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Queues one item; it is skipped, without a result, if the shutdown drain cuts the batch off first
+     */
+    private CompletableFuture<Void> submitItem(BatchRecord batch, AccountOrderedScheduler.BatchSchedule schedule,
+                                               int index, BatchDeadline deadline) {
+        TransactionRequest transaction = batch.getRequest().getTransactions().get(index);
+        Span batchSpan = tracer.currentSpan();
+        return schedule.submitAsync(transaction.getFromAccount(),
+                () -> drainCoordinator.shouldStopDispatch(batch.getBatchId())
+                        ? CompletableFuture.completedFuture(null)
+                        : dispatch(batch.getBatchId(), new int[]{index}, transaction, deadline, batchSpan,
+                                schedule.executor())
+                                .thenApply(result -> record(batch.getBatchId(), index, result)));
+    }
+
+    /**
+     * Sends one netted transfer and gives each original item its own copy of the outcome
+     */
+    private CompletableFuture<Void> processNettedTransfer(BatchRecord batch, NettedTransfer transfer,
+                                                          BatchDeadline deadline, @Nullable Span batchSpan,
+                                                          Executor executor) {
+        if (drainCoordinator.shouldStopDispatch(batch.getBatchId())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return dispatch(batch.getBatchId(), transfer.memberIndexes(), transfer.request(), deadline, batchSpan,
+                executor)
+                .thenApply(result -> recordNetted(batch, transfer, result));
+    }
+
+    private Void recordNetted(BatchRecord batch, NettedTransfer transfer, TransactionResult result) {
+        if (!transfer.isMerged()) {
+            return record(batch.getBatchId(), transfer.memberIndexes()[0], result);
+        }
+
+        List<TransactionRequest> transactions = batch.getRequest().getTransactions();
+        for (int index : transfer.memberIndexes()) {
+            store(batch.getBatchId(), index, TransactionResult.builder()
+                    .transactionId(transactions.get(index).getTransactionId())
+                    .status(result.getStatus())
+                    .reason(result.getReason())
+                    .failureCode(result.getFailureCode())
+                    .build());
+        }
+        if ("PENDING".equals(result.getStatus())) {
+            // Reconciled once under the netted id; the outcome is copied to every member
+            reconciler.track(batch.getBatchId(), transfer.memberIndexes(), result.getTransactionId());
+        }
+        return null;
+    }
+
+    /**
+     * Sends one item downstream under an item span, a child of the batch span, and a JFR item event
+     *
+     * @param indexes  Batch items the transfer settles; more than one for a netted transfer
+     * @param executor Runs retries of the item, once their backoff and rate limit permit allow
+     */
+    private CompletableFuture<TransactionResult> dispatch(String batchId, int[] indexes,
+                                                          TransactionRequest transaction, BatchDeadline deadline,
+                                                          @Nullable Span batchSpan, Executor executor) {
+        Span span = tracer.nextSpan(batchSpan).name(TraceSpans.ITEM)
+                .tag(TraceSpans.BATCH_ID, batchId)
+                .tag(TraceSpans.TRANSACTION_ID, transaction.getTransactionId())
+                .start();
+        ItemEvent event = ItemEvent.start(batchId, transaction.getTransactionId());
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return call(batchId, indexes, transaction, deadline, executor).whenComplete((result, error) -> {
+                if (result != null) {
+                    event.finish(result);
+                    span.tag(TraceSpans.OUTCOME, result.getStatus());
+                    if (result.getFailureCode() != null) {
+                        span.tag(TraceSpans.FAILURE_CODE, result.getFailureCode().name());
+                    }
+                }
+                span.end();
+            });
+        } catch (RuntimeException e) {
+            span.end();
+            throw e;
+        }
+    }
+
+    private CompletableFuture<TransactionResult> call(String batchId, int[] indexes, TransactionRequest transaction,
+                                                      BatchDeadline deadline, Executor executor) {
+        if (deadline.isExpired()) {
+            // Queued behind other items until the budget ran out; not worth a downstream call
+            log.warn("DEADLINE passed before transactionId: {} in batchId: {} was sent",
+                    transaction.getTransactionId(), batchId);
+            return CompletableFuture.completedFuture(TransactionResult.builder()
+                    .transactionId(transaction.getTransactionId())
+                    .status("FAILED")
+                    .reason(BatchDeadline.EXCEEDED_REASON)
+                    .failureCode(FailureCode.DEADLINE_EXCEEDED)
+                    .build());
+        }
+        log.info("PROCESSING transactionId: {} for batchId: {}",
+                transaction.getTransactionId(), batchId);
+
+        // Durable before the call; fails, leaving the item unsent, if the journal is not writable
+        batchRepository.markDispatched(batchId, indexes, transaction.getTransactionId()).join();
+
+        long start = System.nanoTime();
+        CompletableFuture<TransactionResult> attempts;
+        try {
+            attempts = transactionProcessorService.processTransactionAsync(transaction, deadline, executor);
+        } catch (RuntimeException e) {
+            attempts = CompletableFuture.failedFuture(e);
+        }
+        return attempts.handle((result, error) -> {
+            if (error == null) {
+                admissionControlService.recordItemLatency(System.nanoTime() - start);
+                logOutcome(transaction, result);
+                return result;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause()
+                    : error;
+            if (cause instanceof RejectedExecutionException) {
+                // Shut down before a retry could run; the item stays in doubt and is looked up later
+                throw new CompletionException(cause);
+            }
+            return failed(batchId, transaction, cause);
+        });
+    }
+
+    private static void logOutcome(TransactionRequest transaction, TransactionResult result) {
+        if ("SUCCESS".equals(result.getStatus())) {
+            log.info("SUCCESS transactionId: {}", transaction.getTransactionId());
+        } else if ("PENDING".equals(result.getStatus())) {
+            log.info("PENDING transactionId: {} - awaiting final status", transaction.getTransactionId());
+        } else {
+            log.info("FAILED transactionId: {} - Reason: {}",
+                    transaction.getTransactionId(), result.getReason());
+        }
+    }
+
+    private TransactionResult failed(String batchId, TransactionRequest transaction, Throwable error) {
+        if (error instanceof TransactionFailedException e) {
+            // Classified failure that escaped the retry fallback; no message to build
+            log.error("UNEXPECTED ERROR processing transactionId: {} in batchId: {} - Error: {}",
+                    transaction.getTransactionId(), batchId, e.getCode());
+
+            return TransactionResult.builder()
+                    .transactionId(transaction.getTransactionId())
+                    .status("FAILED")
+                    .reason(UNEXPECTED_FAILURE_REASON)
+                    .failureCode(e.getCode())
+                    .build();
+        }
+        log.error("UNEXPECTED ERROR processing transactionId: {} in batchId: {} - Error: {}",
+                transaction.getTransactionId(), batchId, error.getMessage());
+
+        return TransactionResult.builder()
+                .transactionId(transaction.getTransactionId())
+                .status("FAILED")
+                .reason("Unexpected error: " + error.getMessage())
+                .failureCode(FailureCode.UNEXPECTED_ERROR)
+                .build();
+    }
+
+    /**
+     * Stores an item result and hands PENDING items to the reconciler
+     * Shards processed for a coordinator are reconciled by the coordinator, which records their results too.
+     */
+    private Void record(String batchId, int index, TransactionResult result) {
+        store(batchId, index, result);
+        if ("PENDING".equals(result.getStatus()) && !ShardCoordinator.isShard(batchId)) {
+            reconciler.track(batchId, new int[]{index}, result.getTransactionId());
+        }
+        return null;
+    }
+
+    private void store(String batchId, int index, TransactionResult result) {
+        if ("SUCCESS".equals(result.getStatus())) {
+            successCounter.increment();
+        } else if ("PENDING".equals(result.getStatus())) {
+            pendingCounter.increment();
+        } else {
+            failureCounter.increment();
+        }
+        batchRepository.appendResult(batchId, index, result);
+        callbackService.itemCompleted(batchId);
+    }
+
     public BulkTransactionResponse getBatchResults(String batchId) {
         log.info("Retrieving results for batchId: {}", batchId);
-        BulkTransactionResponse response = batchResults.get(batchId);
-        if (response == null) {
-            throw new RuntimeException("Batch not found: " + batchId);
-        }
-        return response;
+        String owner = batchRouter.remoteOwnerOf(batchId);
+        Optional<BulkTransactionResponse> response = owner != null
+                ? batchRouter.fetch(owner, batchId)
+                : findLocalResults(batchId);
+        return response.orElseThrow(() -> new RuntimeException("Batch not found: " + batchId));
+    }
+
+    /**
+     * Looks up the results of a finished batch stored on this node
+     */
+    public Optional<BulkTransactionResponse> findLocalResults(String batchId) {
+        return batchRepository.findResponse(batchId);
     }
-}
\ No newline at end of file
+}
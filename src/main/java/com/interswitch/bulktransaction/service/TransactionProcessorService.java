@@ -1,24 +1,185 @@
 package com.interswitch.bulktransaction.service;
 
+import com.interswitch.bulktransaction.client.HedgedRequestExecutor;
+import com.interswitch.bulktransaction.client.TokenBucketRateLimiter;
 import com.interswitch.bulktransaction.client.TransactionServiceClient;
 import com.interswitch.bulktransaction.dto.request.TransactionRequest;
 import com.interswitch.bulktransaction.dto.request.TransactionServiceRequest;
+import com.interswitch.bulktransaction.dto.response.FailureCode;
 import com.interswitch.bulktransaction.dto.response.TransactionResult;
 import com.interswitch.bulktransaction.dto.response.TransactionServiceResponse;
+import com.interswitch.bulktransaction.exceptions.DeadlineExceededException;
+import com.interswitch.bulktransaction.exceptions.TransactionFailedException;
+import com.interswitch.bulktransaction.profiling.AttemptEvent;
+import com.interswitch.bulktransaction.profiling.FallbackEvent;
+import com.interswitch.bulktransaction.scheduling.FairWorkQueue;
+import com.interswitch.bulktransaction.tracing.TraceSpans;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.retry.annotation.Retry;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TransactionProcessorService {
 
+    /**
+     * Reason of an item whose downstream calls all failed, built once instead of per failure
+     */
+    public static final String RETRIES_EXHAUSTED_REASON =
+            "All retry attempts failed: " + TransactionFailedException.MESSAGE;
+
+    /**
+     * Reason of an item the Transaction Service accepted but has not settled yet
+     */
+    public static final String PENDING_REASON = "Awaiting final status from Transaction Service";
+
+    /**
+     * Reason prefix of an item the Transaction Service answered with FAILED, followed by its message
+     */
+    public static final String DECLINED_REASON = "Declined by Transaction Service: ";
+
+    private static final String RETRY_NAME = "transactionService";
+
     private final TransactionServiceClient transactionServiceClient;
+    private final HedgedRequestExecutor hedgedRequestExecutor;
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final Tracer tracer;
+    private final TokenBucketRateLimiter rateLimiter;
+    // Named in full: Retry is the annotation here
+    private final io.github.resilience4j.retry.Retry retry;
 
-    @Retry(name = "transactionService", fallbackMethod = "retryFallback")
+    public TransactionProcessorService(TransactionServiceClient transactionServiceClient) {
+        this(transactionServiceClient, null, 2000, 10000, null);
+    }
+
+    /**
+     * Without a retry registry, processTransactionAsync makes a single attempt
+     */
+    public TransactionProcessorService(TransactionServiceClient transactionServiceClient,
+                                       @Nullable HedgedRequestExecutor hedgedRequestExecutor,
+                                       long connectTimeoutMillis, long readTimeoutMillis, @Nullable Tracer tracer) {
+        this(transactionServiceClient, hedgedRequestExecutor, connectTimeoutMillis, readTimeoutMillis, tracer, null,
+                RetryRegistry.of(RetryConfig.custom().maxAttempts(1).build()));
+    }
+
+    /**
+     * @param hedgedRequestExecutor Present only when hedging is enabled for this deployment
+     * @param connectTimeoutMillis  Feign connect timeout of the Transaction Service client
+     * @param readTimeoutMillis     Feign read timeout, shortened per call to what is left of the batch deadline
+     * @param tracer                Records a span per attempt; absent when tracing is disabled
+     * @param rateLimiter           Permit every retry of processTransactionAsync waits for; absent when disabled
+     * @param retryRegistry         Holds the transactionService retry settings
+     */
+    @Autowired
+    public TransactionProcessorService(
+            TransactionServiceClient transactionServiceClient,
+            @Nullable HedgedRequestExecutor hedgedRequestExecutor,
+            @Value("${spring.cloud.openfeign.client.config.transaction-service.connect-timeout:2000}") long connectTimeoutMillis,
+            @Value("${spring.cloud.openfeign.client.config.transaction-service.read-timeout:10000}") long readTimeoutMillis,
+            @Nullable Tracer tracer,
+            @Nullable TokenBucketRateLimiter rateLimiter,
+            RetryRegistry retryRegistry) {
+        this.transactionServiceClient = transactionServiceClient;
+        this.hedgedRequestExecutor = hedgedRequestExecutor;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.tracer = tracer == null ? Tracer.NOOP : tracer;
+        this.rateLimiter = rateLimiter;
+        this.retry = retryRegistry.retry(RETRY_NAME);
+    }
+
+    /**
+     * Blocking variants: the calling thread is held through retries and their backoff, and retries
+     * take no rate limit permits. Batch items go through processTransactionAsync instead.
+     */
+    @Retry(name = RETRY_NAME, fallbackMethod = "retryFallback")
     public TransactionResult processTransaction(TransactionRequest transaction) {
+        return callTransactionService(transaction, BatchDeadline.NONE);
+    }
+
+    /**
+     * Processes a transaction within the batch deadline
+     * No attempt, first or retry, is started once the deadline has passed.
+     */
+    @Retry(name = RETRY_NAME, fallbackMethod = "retryFallback")
+    public TransactionResult processTransaction(TransactionRequest transaction, BatchDeadline deadline) {
+        return callTransactionService(transaction, deadline);
+    }
+
+    /**
+     * Processes a transaction within the batch deadline without holding a thread between attempts
+     *
+     * The first attempt runs on the calling thread, which must already hold its rate limit permit.
+     * A retry becomes due on a timer once the transactionService backoff has passed; it then takes
+     * its own permit and, when that is due, runs on the executor. Retry settings, deadline handling
+     * and fallback results are the same as for processTransaction.
+     *
+     * @return Fails only if the executor refuses a retry, e.g. because the work queue closed
+     */
+    public CompletableFuture<TransactionResult> processTransactionAsync(TransactionRequest transaction,
+                                                                      BatchDeadline deadline, Executor executor) {
+        Attempts attempts = new Attempts(transaction, deadline, executor, tracer.currentSpan());
+        attempts.run();
+        return attempts.outcome;
+    }
+
+    public TransactionResult retryFallback(TransactionRequest transaction, Exception e) {
+        if (e instanceof TransactionFailedException failure) {
+            log.warn("RETRY FALLBACK - All retry attempts failed for transactionId: {} - Final Error: {}",
+                    transaction.getTransactionId(), failure.getCode());
+            FallbackEvent.emit(transaction.getTransactionId(), failure.getCode());
+            return TransactionResult.builder()
+                    .transactionId(transaction.getTransactionId())
+                    .status("FAILED")
+                    .reason(RETRIES_EXHAUSTED_REASON)
+                    .failureCode(failure.getCode())
+                    .build();
+        }
+        log.warn("RETRY FALLBACK - All retry attempts failed for transactionId: {} - Final Error: {}",
+                transaction.getTransactionId(), e.getMessage());
+        FallbackEvent.emit(transaction.getTransactionId(), FailureCode.UNEXPECTED_ERROR);
+        return TransactionResult.builder()
+                .transactionId(transaction.getTransactionId())
+                .status("FAILED")
+                .reason("All retry attempts failed: " + e.getMessage())
+                .failureCode(FailureCode.UNEXPECTED_ERROR)
+                .build();
+    }
+
+    public TransactionResult retryFallback(TransactionRequest transaction, BatchDeadline deadline, Exception e) {
+        if (!(e instanceof DeadlineExceededException)) {
+            return retryFallback(transaction, e);
+        }
+        log.warn("DEADLINE - Batch deadline passed before transactionId: {} could be completed",
+                transaction.getTransactionId());
+        FallbackEvent.emit(transaction.getTransactionId(), FailureCode.DEADLINE_EXCEEDED);
+        return TransactionResult.builder()
+                .transactionId(transaction.getTransactionId())
+                .status("FAILED")
+                .reason(BatchDeadline.EXCEEDED_REASON)
+                .failureCode(FailureCode.DEADLINE_EXCEEDED)
+                .build();
+    }
+
+    private TransactionResult callTransactionService(TransactionRequest transaction, BatchDeadline deadline) {
+        if (deadline.isExpired()) {
+            throw DeadlineExceededException.INSTANCE;
+        }
         log.info("ATTEMPTING processTransaction for: {}", transaction.getTransactionId());
 
         TransactionServiceRequest serviceRequest = TransactionServiceRequest.builder()
@@ -28,30 +189,171 @@ public class TransactionProcessorService {
                 .amount(transaction.getAmount())
                 .build();
 
+        // Child of the item span; every retry attempt passes through here and gets its own span
+        Span item = tracer.currentSpan();
+        if (item != null) {
+            item.event(TraceSpans.ATTEMPT_EVENT);
+        }
+        Span attempt = tracer.nextSpan().name(TraceSpans.ATTEMPT)
+                .tag(TraceSpans.TRANSACTION_ID, transaction.getTransactionId())
+                .start();
+        AttemptEvent event = AttemptEvent.start(transaction.getTransactionId());
         try {
-            TransactionServiceResponse serviceResponse =
-                    transactionServiceClient.processTransaction(serviceRequest);
+            TransactionServiceResponse serviceResponse = hedgedRequestExecutor == null
+                    ? send(serviceRequest, deadline, attempt)
+                    : hedgedRequestExecutor.execute(() -> send(serviceRequest, deadline, attempt));
 
-            log.info("SUCCESS processTransaction for: {}", transaction.getTransactionId());
-
-            return TransactionResult.builder()
-                    .transactionId(transaction.getTransactionId())
-                    .status("SUCCESS")
-                    .build();
+            TransactionResult result = toResult(transaction.getTransactionId(), serviceResponse);
+            attempt.tag(TraceSpans.OUTCOME, result.getStatus());
+            event.succeeded(result.getStatus());
+            log.info("{} processTransaction for: {}", result.getStatus(), transaction.getTransactionId());
+            return result;
         } catch (Exception e) {
             log.info("FAILED processTransaction for: {} - Error: {}",
                     transaction.getTransactionId(), e.getMessage());
-            throw new RuntimeException("Transaction processing failed", e);
+            attempt.error(e);
+            if (deadline.isExpired()) {
+                // Skips the retry wait; no further attempt would be allowed anyway
+                attempt.tag(TraceSpans.FAILURE_CODE, FailureCode.DEADLINE_EXCEEDED.name());
+                event.failed(FailureCode.DEADLINE_EXCEEDED);
+                throw DeadlineExceededException.INSTANCE;
+            }
+            FailureCode code = classify(e);
+            attempt.tag(TraceSpans.FAILURE_CODE, code.name());
+            event.failed(code);
+            throw TransactionFailedException.of(code);
+        } finally {
+            attempt.end();
         }
     }
 
-    public TransactionResult retryFallback(TransactionRequest transaction, Exception e) {
-        log.warn("RETRY FALLBACK - All retry attempts failed for transactionId: {} - Final Error: {}",
-                transaction.getTransactionId(), e.getMessage());
+    /**
+     * Maps the status reported by the Transaction Service onto an item result
+     * A response without a status counts as SUCCESS, as the call itself succeeded. FAILED, or
+     * any other status, is a terminal rejection; it is returned, not thrown, so it is not retried.
+     */
+    public static TransactionResult toResult(String transactionId, @Nullable TransactionServiceResponse response) {
+        String status = response == null ? null : response.getStatus();
+        if (status == null || "SUCCESS".equalsIgnoreCase(status)) {
+            return TransactionResult.builder()
+                    .transactionId(transactionId)
+                    .status("SUCCESS")
+                    .build();
+        }
+        if ("PENDING".equalsIgnoreCase(status)) {
+            return TransactionResult.builder()
+                    .transactionId(transactionId)
+                    .status("PENDING")
+                    .reason(PENDING_REASON)
+                    .build();
+        }
         return TransactionResult.builder()
-                .transactionId(transaction.getTransactionId())
+                .transactionId(transactionId)
                 .status("FAILED")
-                .reason("All retry attempts failed: " + e.getMessage())
+                .reason(DECLINED_REASON + (response.getMessage() != null ? response.getMessage() : status))
+                .failureCode(FailureCode.DOWNSTREAM_REJECTED)
                 .build();
     }
-}
\ No newline at end of file
+
+    private static FailureCode classify(Exception e) {
+        if (e instanceof TransactionFailedException failure) {
+            return failure.getCode();
+        }
+        // Feign reports I/O errors and timeouts with status -1
+        return e instanceof FeignException feignException
+                ? FailureCode.ofHttpStatus(feignException.status())
+                : FailureCode.DOWNSTREAM_UNAVAILABLE;
+    }
+
+    /**
+     * Attempts of one processTransactionAsync call
+     * Each attempt runs on the thread that starts it; retries start on the executor, so a worker
+     * is only held while a request is actually in flight.
+     */
+    private final class Attempts implements FairWorkQueue.RejectableTask {
+
+        private final TransactionRequest transaction;
+        private final BatchDeadline deadline;
+        private final Executor executor;
+        private final Span item;
+        private final io.github.resilience4j.retry.Retry.AsyncContext<TransactionResult> context = retry.asyncContext();
+        private final CompletableFuture<TransactionResult> outcome = new CompletableFuture<>();
+
+        private Attempts(TransactionRequest transaction, BatchDeadline deadline, Executor executor,
+                         @Nullable Span item) {
+            this.transaction = transaction;
+            this.deadline = deadline;
+            this.executor = executor;
+            this.item = item;
+        }
+
+        @Override
+        public void run() {
+            TransactionResult result;
+            try (Tracer.SpanInScope ignored = tracer.withSpan(item)) {
+                result = callTransactionService(transaction, deadline);
+            } catch (Exception e) {
+                long delayMillis = context.onError(e);
+                if (delayMillis < 1) {
+                    outcome.complete(retryFallback(transaction, deadline, e));
+                } else {
+                    retryAfter(delayMillis);
+                }
+                return;
+            }
+            long delayMillis = context.onResult(result);
+            if (delayMillis < 1) {
+                context.onComplete();
+                outcome.complete(result);
+            } else {
+                retryAfter(delayMillis);
+            }
+        }
+
+        @Override
+        public void reject(RejectedExecutionException reason) {
+            outcome.completeExceptionally(reason);
+        }
+
+        /**
+         * Takes the retry's permit once the backoff has passed, and queues the retry once the permit is due
+         */
+        private void retryAfter(long delayMillis) {
+            CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+                if (deadline.isExpired()) {
+                    // Fails at once with the deadline fallback; not worth a permit
+                    run();
+                    return;
+                }
+                CompletableFuture<Void> permit = rateLimiter == null
+                        ? CompletableFuture.completedFuture(null)
+                        : rateLimiter.acquire();
+                permit.whenComplete((ignored, error) -> {
+                    try {
+                        executor.execute(this);
+                    } catch (RejectedExecutionException e) {
+                        reject(e);
+                    }
+                });
+            });
+        }
+    }
+
+    /**
+     * Sends one request with the attempt span in scope, so its trace context goes downstream
+     * Hedged requests run on other threads, which is why the span is passed in.
+     */
+    private TransactionServiceResponse send(TransactionServiceRequest serviceRequest, BatchDeadline deadline,
+                                            Span attempt) {
+        try (Tracer.SpanInScope ignored = tracer.withSpan(attempt)) {
+            if (!deadline.isBounded()) {
+                return transactionServiceClient.processTransaction(serviceRequest);
+            }
+            // The read timeout never runs past the batch deadline
+            long readTimeout = Math.max(1, Math.min(readTimeoutMillis, deadline.remainingMillis()));
+            Request.Options options = new Request.Options(connectTimeoutMillis, TimeUnit.MILLISECONDS,
+                    readTimeout, TimeUnit.MILLISECONDS, true);
+            return transactionServiceClient.processTransaction(serviceRequest, options);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.interswitch.bulktransaction.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interswitch.bulktransaction.compression.ContentEncoding;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.security.JwtService;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Warms the request path before the pod reports ready (startup.warmup.*)
+ *
+ * Runs as an ApplicationRunner, which Spring Boot completes before it publishes readiness,
+ * so a new replica only takes traffic once the JWT verifier, Jackson (JSON and CBOR),
+ * pre-flight validation and zstd/gzip have run on a synthetic batch often enough to be
+ * JIT-compiled, and a few keep-alive connections to the Transaction Service are open.
+ * Nothing is sent to the transaction endpoint itself; the connections are opened with a GET
+ * on warmup-path, and any HTTP status counts. An unreachable downstream only logs a warning.
+ *
+ * When the application is ready, startup time is logged with its split into JVM start,
+ * context refresh and warmup, and whether AOT and a CDS archive were in use.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "startup.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final int VALIDATION_ROUNDS = 3;
+
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final BatchPreflightValidator preflightValidator;
+    private final WebClient reactiveClient;
+    private final String transactionServiceUrl;
+    private final String warmupPath;
+    private final int rounds;
+    private final int batchItems;
+    private final int connections;
+    private final int timeoutMillis;
+    private final int zstdLevel;
+    private volatile long warmupNanos;
+
+    public StartupWarmup(JwtService jwtService,
+                         ObjectMapper objectMapper,
+                         MappingJackson2CborHttpMessageConverter cborHttpMessageConverter,
+                         BatchPreflightValidator preflightValidator,
+                         @Nullable @Qualifier("transactionServiceWebClient") WebClient reactiveClient,
+                         @Value("${transaction-service.url}") String transactionServiceUrl,
+                         @Value("${startup.warmup.path:/}") String warmupPath,
+                         @Value("${startup.warmup.rounds:20}") int rounds,
+                         @Value("${startup.warmup.batch-items:1000}") int batchItems,
+                         @Value("${startup.warmup.connections:4}") int connections,
+                         @Value("${startup.warmup.timeout-ms:2000}") int timeoutMillis,
+                         @Value("${compression.response.zstd-level:3}") int zstdLevel,
+                         MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborHttpMessageConverter.getObjectMapper();
+        this.preflightValidator = preflightValidator;
+        this.reactiveClient = reactiveClient;
+        this.transactionServiceUrl = transactionServiceUrl;
+        this.warmupPath = warmupPath;
+        this.rounds = Math.max(0, rounds);
+        this.batchItems = Math.max(1, batchItems);
+        this.connections = Math.max(0, connections);
+        this.timeoutMillis = timeoutMillis;
+        this.zstdLevel = zstdLevel;
+
+        TimeGauge.builder("startup.warmup", this, TimeUnit.NANOSECONDS, warmup -> warmup.warmupNanos)
+                .description("Time spent warming up before readiness")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long jwt = timed(this::warmJwt);
+        long hotPaths = timed(this::warmHotPaths);
+        long http = timed(this::warmConnections);
+        warmupNanos = System.nanoTime() - start;
+
+        log.info("WARMUP done in {} ms (jwt {} ms, serialization and validation {} ms, {} connection(s) {} ms)",
+                millis(warmupNanos), millis(jwt), millis(hotPaths), connections, millis(http));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportStartup(ApplicationReadyEvent event) {
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        long readyMillis = event.getTimeTaken() == null ? uptimeMillis : event.getTimeTaken().toMillis();
+        boolean cds = ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile"));
+
+        log.info("STARTUP ready {} ms after JVM start (JVM to main {} ms, context {} ms, warmup {} ms, "
+                        + "AOT {}, CDS archive {})",
+                uptimeMillis, uptimeMillis - readyMillis, readyMillis - millis(warmupNanos), millis(warmupNanos),
+                AotDetector.useGeneratedArtifacts() ? "on" : "off", cds ? "on" : "off");
+    }
+
+    /**
+     * Signs and verifies tokens, priming the HMAC and the verifier used on every request
+     */
+    private void warmJwt() {
+        for (int i = 0; i < rounds * 10; i++) {
+            String token = jwtService.generateToken("warmup", List.of("USER"));
+            if (!jwtService.isTokenValid(token)) {
+                throw new IllegalStateException("Warmup token failed verification");
+            }
+        }
+    }
+
+    /**
+     * Runs a synthetic batch through validation, JSON and CBOR mapping and response compression
+     */
+    private void warmHotPaths() {
+        BulkTransactionRequest request = syntheticBatch();
+        List<TransactionResult> results = new ArrayList<>(batchItems);
+        for (TransactionRequest transaction : request.getTransactions()) {
+            results.add(TransactionResult.builder().transactionId(transaction.getTransactionId()).status("SUCCESS")
+                    .build());
+        }
+        BulkTransactionResponse response = BulkTransactionResponse.builder()
+                .batchId(request.getBatchId())
+                .results(results)
+                .build();
+
+        try {
+            for (int i = 0; i < rounds; i++) {
+                BulkTransactionRequest parsed = objectMapper.readValue(
+                        objectMapper.writeValueAsBytes(request), BulkTransactionRequest.class);
+                if (i < VALIDATION_ROUNDS) {
+                    // Loops over 1000 items compile quickly; a few rounds keep batch.validation metrics clean
+                    preflightValidator.validate(parsed);
+                }
+                cborMapper.readValue(cborMapper.writeValueAsBytes(request), BulkTransactionRequest.class);
+                cborMapper.writeValueAsBytes(response);
+            }
+            // Loads the zstd native library and the gzip and zstd encoders
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            for (ContentEncoding encoding : ContentEncoding.values()) {
+                try (OutputStream out = encoding.encode(OutputStream.nullOutputStream(), zstdLevel)) {
+                    out.write(json);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Warmup serialization failed", e);
+        }
+    }
+
+    /**
+     * Opens keep-alive connections to the Transaction Service
+     * The Feign client uses HttpURLConnection, whose JVM-wide keep-alive cache reuses these
+     * connections; the reactive profile fills its own connection pool instead.
+     */
+    private void warmConnections() {
+        if (connections == 0) {
+            return;
+        }
+        try {
+            if (reactiveClient != null) {
+                Flux.range(0, connections)
+                        .flatMap(i -> reactiveClient.get().uri(warmupPath).retrieve().toBodilessEntity()
+                                .onErrorResume(WebClientResponseException.class, e -> Mono.empty()), connections)
+                        .then()
+                        .block(Duration.ofMillis(timeoutMillis * 2L));
+                return;
+            }
+            // Sequential requests would all reuse one cached connection, so they run side by side
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            List<Thread> threads = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                Thread thread = new Thread(() -> probeTransactionService(failure), "startup-warmup-" + (i + 1));
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            if (failure.get() != null) {
+                throw new IllegalStateException(failure.get().getMessage(), failure.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("WARMUP could not reach the Transaction Service at {} - Error: {}",
+                    transactionServiceUrl, e.getMessage());
+        }
+    }
+
+    private void probeTransactionService(AtomicReference<Exception> failure) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) URI.create(transactionServiceUrl + warmupPath)
+                    .toURL().openConnection();
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            int status = connection.getResponseCode();
+            // Reading the body to the end returns the connection to the keep-alive cache
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    body.readAllBytes();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.set(e);
+        }
+    }
+
+    private BulkTransactionRequest syntheticBatch() {
+        List<TransactionRequest> transactions = new ArrayList<>(batchItems);
+        for (int i = 0; i < batchItems; i++) {
+            transactions.add(TransactionRequest.builder()
+                    .transactionId("WARMUP-" + i)
+                    .fromAccount("10" + (i % 50))
+                    .toAccount("20" + i)
+                    .amount(new BigDecimal("10.00"))
+                    .build());
+        }
+        return BulkTransactionRequest.builder()
+                .batchId("WARMUP")
+                .transactions(transactions)
+                .build();
+    }
+
+    private static long timed(Runnable step) {
+        long start = System.nanoTime();
+        step.run();
+        return System.nanoTime() - start;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
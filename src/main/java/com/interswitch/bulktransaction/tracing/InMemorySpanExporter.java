@@ -0,0 +1,54 @@
+package com.interswitch.bulktransaction.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Keeps the most recent finished spans on the heap (tracing.exporter.in-memory.*)
+ * Meant for tests and local debugging; spans only arrive here after tail sampling.
+ */
+public class InMemorySpanExporter extends SpanHandler {
+
+    private final int maxSpans;
+    private final ArrayDeque<MutableSpan> spans = new ArrayDeque<>();
+
+    public InMemorySpanExporter(int maxSpans) {
+        this.maxSpans = Math.max(1, maxSpans);
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.FINISHED) {
+            synchronized (spans) {
+                if (spans.size() == maxSpans) {
+                    spans.pollFirst();
+                }
+                spans.addLast(span);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the exported spans, oldest first
+     */
+    public List<MutableSpan> getSpans() {
+        synchronized (spans) {
+            return List.copyOf(spans);
+        }
+    }
+
+    public List<MutableSpan> getSpans(String name) {
+        return getSpans().stream().filter(span -> name.equals(span.name())).toList();
+    }
+
+    public void clear() {
+        synchronized (spans) {
+            spans.clear();
+        }
+    }
+}
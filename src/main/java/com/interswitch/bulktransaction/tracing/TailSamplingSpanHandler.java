@@ -0,0 +1,70 @@
+package com.interswitch.bulktransaction.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tail sampling of item and attempt spans within a head-sampled trace (tracing.tail.*)
+ *
+ * Head sampling (management.tracing.sampling.probability) decides per request whether a
+ * batch is traced at all. Within a traced batch, most item spans are alike, so when an item
+ * ends its span is only kept if the item did not succeed, was retried, took at least
+ * slow-item-ms, or falls in the item-keep-ratio share picked by span id. Attempt spans are kept
+ * when they failed, were slow, or their item is in that share. Dropped spans never reach the
+ * exporters, so a traced 100k-item batch exports a few hundred spans instead of 200k.
+ */
+public class TailSamplingSpanHandler extends SpanHandler {
+
+    private static final long RATIO_SCALE = 10_000;
+
+    private final long keepThreshold;
+    private final long slowMicros;
+    private final Counter droppedCounter;
+
+    public TailSamplingSpanHandler(double itemKeepRatio, long slowItemMillis, MeterRegistry meterRegistry) {
+        this.keepThreshold = Math.round(Math.max(0, Math.min(1, itemKeepRatio)) * RATIO_SCALE);
+        this.slowMicros = slowItemMillis > 0 ? TimeUnit.MILLISECONDS.toMicros(slowItemMillis) : Long.MAX_VALUE;
+        this.droppedCounter = Counter.builder("tracing.spans.dropped")
+                .description("Item and attempt spans dropped by tail sampling")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED) {
+            return true;
+        }
+        boolean keep;
+        if (TraceSpans.ITEM.equals(span.name())) {
+            keep = span.error() != null
+                    || !"SUCCESS".equals(span.tag(TraceSpans.OUTCOME))
+                    || span.annotationCount() > 1
+                    || isSlow(span)
+                    || inKeptShare(context.spanId());
+        } else if (TraceSpans.ATTEMPT.equals(span.name())) {
+            keep = span.error() != null
+                    || isSlow(span)
+                    || inKeptShare(context.parentIdAsLong());
+        } else {
+            return true;
+        }
+        if (!keep) {
+            droppedCounter.increment();
+        }
+        return keep;
+    }
+
+    private boolean isSlow(MutableSpan span) {
+        return span.finishTimestamp() - span.startTimestamp() >= slowMicros;
+    }
+
+    // Span ids are random, so the same id always gets the same answer for an item and its attempts
+    private boolean inKeptShare(long itemSpanId) {
+        return Math.floorMod(itemSpanId, RATIO_SCALE) < keepThreshold;
+    }
+}
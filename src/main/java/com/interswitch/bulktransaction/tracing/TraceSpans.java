@@ -0,0 +1,28 @@
+package com.interswitch.bulktransaction.tracing;
+
+/**
+ * Names and tag keys of the spans recorded for batch processing
+ * A trace holds one batch span, a child span per item and, below it, one per downstream attempt.
+ */
+public final class TraceSpans {
+
+    public static final String JWT = "jwt.authenticate";
+    public static final String BATCH = "batch.process";
+    public static final String REPLAY = "batch.replay";
+    public static final String ITEM = "transaction.item";
+    public static final String ATTEMPT = "transaction.attempt";
+
+    /**
+     * Event added to the item span for every attempt; more than one means the item was retried
+     */
+    public static final String ATTEMPT_EVENT = "attempt";
+
+    public static final String BATCH_ID = "batch.id";
+    public static final String BATCH_ITEMS = "batch.items";
+    public static final String TRANSACTION_ID = "transaction.id";
+    public static final String OUTCOME = "outcome";
+    public static final String FAILURE_CODE = "failure.code";
+
+    private TraceSpans() {
+    }
+}
@@ -0,0 +1,61 @@
+package com.interswitch.bulktransaction.tracing;
+
+import feign.RequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Tracing of batches, items and downstream attempts (tracing.*, management.tracing.*)
+ * Spring Boot sets up the Brave tracer and head sampling; this adds tail sampling, the
+ * optional in-memory exporter and trace context propagation on Feign calls to the
+ * Transaction Service and to peer replicas.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Runs before any exporter, so dropped spans are never exported
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty(name = "tracing.tail.enabled", havingValue = "true", matchIfMissing = true)
+    public TailSamplingSpanHandler tailSamplingSpanHandler(
+            @Value("${tracing.tail.item-keep-ratio:0.01}") double itemKeepRatio,
+            @Value("${tracing.tail.slow-item-ms:2000}") long slowItemMillis,
+            MeterRegistry meterRegistry) {
+        return new TailSamplingSpanHandler(itemKeepRatio, slowItemMillis, meterRegistry);
+    }
+
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @ConditionalOnProperty(name = "tracing.exporter.in-memory.enabled", havingValue = "true")
+    public InMemorySpanExporter inMemorySpanExporter(
+            @Value("${tracing.exporter.in-memory.max-spans:10000}") int maxSpans) {
+        return new InMemorySpanExporter(maxSpans);
+    }
+
+    /**
+     * Adds the current span's trace context (W3C traceparent by default) to every Feign request
+     */
+    @Bean
+    public RequestInterceptor traceContextRequestInterceptor(ObjectProvider<Tracer> tracer,
+                                                             ObjectProvider<Propagator> propagator) {
+        return template -> {
+            Tracer currentTracer = tracer.getIfAvailable();
+            Propagator currentPropagator = propagator.getIfAvailable();
+            Span span = currentTracer == null ? null : currentTracer.currentSpan();
+            if (span != null && currentPropagator != null) {
+                currentPropagator.inject(span.context(), template, (carrier, key, value) -> carrier.header(key, value));
+            }
+        };
+    }
+}
@@ -0,0 +1,279 @@
+package com.interswitch.bulktransaction.validation;
+
+import com.interswitch.bulktransaction.callback.CallbackAddressResolverGroup;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.util.NetUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-flight validation stage for bulk transaction requests
+ * Replaces reflection-based Bean Validation for BulkTransactionRequest with plain checks:
+ * required fields, account format, amount range and scale, duplicate transactionIds within
+ * the batch and transfers to the same account. Nothing is allocated for a valid item.
+ * A callbackUrl must be an absolute http(s) URL, on an allowed host when callbacks.allowed-hosts is set.
+ * Without an allow-list, local host names and IP literals in loopback, link-local, private or other
+ * local ranges are refused here; host names are checked against the addresses they resolve to when
+ * the callback is delivered, so callbacks cannot be pointed at the service's own network.
+ *
+ * In REJECT_BATCH mode it is bound to the request body, so violations surface as the usual
+ * 400 response. In REJECT_ITEMS mode only batch-level problems are raised there and
+ * BulkTransactionService marks invalid items as FAILED while processing the rest.
+ */
+@Slf4j
+@Component
+public class BatchPreflightValidator implements Validator {
+
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("0.01");
+
+    @Getter
+    private final ValidationMode mode;
+    private final int accountMinLength;
+    private final int accountMaxLength;
+    private final int amountMaxScale;
+    private final Set<String> callbackHosts;
+    private final Timer validationTimer;
+
+    public BatchPreflightValidator(ValidationMode mode, int accountMinLength, int accountMaxLength,
+                                   int amountMaxScale, MeterRegistry meterRegistry) {
+        this(mode, accountMinLength, accountMaxLength, amountMaxScale, List.of(), meterRegistry);
+    }
+
+    @Autowired
+    public BatchPreflightValidator(@Value("${batch.validation.mode:reject-batch}") ValidationMode mode,
+                                   @Value("${batch.validation.account.min-length:1}") int accountMinLength,
+                                   @Value("${batch.validation.account.max-length:34}") int accountMaxLength,
+                                   @Value("${batch.validation.amount.max-scale:2}") int amountMaxScale,
+                                   @Value("${callbacks.allowed-hosts:}") List<String> callbackHosts,
+                                   MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.accountMinLength = accountMinLength;
+        this.accountMaxLength = accountMaxLength;
+        this.amountMaxScale = amountMaxScale;
+        this.callbackHosts = new HashSet<>();
+        for (String host : callbackHosts) {
+            if (!host.isBlank()) {
+                this.callbackHosts.add(host.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        this.validationTimer = Timer.builder("batch.validation")
+                .description("Time spent in pre-flight validation per batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validates the whole batch
+     */
+    public PreflightReport validate(BulkTransactionRequest request) {
+        long start = System.nanoTime();
+        List<ItemViolation> violations = null;
+
+        ItemViolation batchViolation = checkBatch(request);
+        if (batchViolation != null) {
+            violations = new ArrayList<>(1);
+            violations.add(batchViolation);
+        } else {
+            List<TransactionRequest> transactions = request.getTransactions();
+            Set<String> transactionIds = new HashSet<>((int) (transactions.size() / 0.75f) + 1);
+
+            for (int i = 0; i < transactions.size(); i++) {
+                ItemViolation violation = checkItem(i, transactions.get(i), transactionIds);
+                if (violation != null) {
+                    if (violations == null) {
+                        violations = new ArrayList<>();
+                    }
+                    violations.add(violation);
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        validationTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        int itemCount = request.getTransactions() == null ? 0 : request.getTransactions().size();
+        PreflightReport report = new PreflightReport(itemCount,
+                violations == null ? Collections.emptyList() : violations, elapsed);
+        log.info("PREFLIGHT batchId: {} - {} item(s) validated in {} us, {} violation(s)",
+                request.getBatchId(), itemCount, TimeUnit.NANOSECONDS.toMicros(elapsed), report.violations().size());
+        return report;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return BulkTransactionRequest.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * Spring binding hook used for @Valid request bodies
+     */
+    @Override
+    public void validate(Object target, Errors errors) {
+        BulkTransactionRequest request = (BulkTransactionRequest) target;
+
+        if (mode == ValidationMode.REJECT_ITEMS) {
+            // Item problems are handled per item during processing
+            ItemViolation batchViolation = checkBatch(request);
+            if (batchViolation != null) {
+                errors.rejectValue(batchViolation.field(), "Invalid", batchViolation.message());
+            }
+            return;
+        }
+
+        for (ItemViolation violation : validate(request).violations()) {
+            errors.rejectValue(violation.field(), "Invalid", violation.message());
+        }
+    }
+
+    private ItemViolation checkBatch(BulkTransactionRequest request) {
+        if (isBlank(request.getBatchId())) {
+            return new ItemViolation(-1, "batchId", "Batch ID is required");
+        }
+        if (request.getTransactions() == null) {
+            return new ItemViolation(-1, "transactions", "Transactions list cannot be null");
+        }
+        if (request.getTransactions().isEmpty()) {
+            return new ItemViolation(-1, "transactions", "At least one transaction is required");
+        }
+        if (request.getCallbackUrl() != null) {
+            return checkCallbackUrl(request.getCallbackUrl());
+        }
+        return null;
+    }
+
+    private ItemViolation checkCallbackUrl(String callbackUrl) {
+        URI uri;
+        try {
+            uri = new URI(callbackUrl);
+        } catch (URISyntaxException e) {
+            uri = null;
+        }
+        if (uri == null || uri.getHost() == null
+                || !("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))) {
+            return new ItemViolation(-1, "callbackUrl", "Callback URL must be an absolute http or https URL");
+        }
+        if (!callbackHosts.isEmpty()) {
+            if (!callbackHosts.contains(uri.getHost().toLowerCase(Locale.ROOT))) {
+                return new ItemViolation(-1, "callbackUrl", "Callback host is not allowed: " + uri.getHost());
+            }
+            return null;
+        }
+        return checkCallbackAddress(uri.getHost());
+    }
+
+    /**
+     * Refuses local host names and IP literals inside this network, without a DNS lookup
+     * Names are checked again against the addresses they resolve to when the callback connects.
+     */
+    private ItemViolation checkCallbackAddress(String host) {
+        String name = host.toLowerCase(Locale.ROOT);
+        if (name.startsWith("[") && name.endsWith("]")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        if (name.equals("localhost") || name.endsWith(".localhost")) {
+            return new ItemViolation(-1, "callbackUrl", "Callback host is not allowed: " + host);
+        }
+        byte[] literal = NetUtil.createByteArrayFromIpAddressString(name);
+        if (literal == null) {
+            return null;
+        }
+        try {
+            if (CallbackAddressResolverGroup.isInternal(InetAddress.getByAddress(literal))) {
+                return new ItemViolation(-1, "callbackUrl", "Callback host is not allowed: " + host);
+            }
+        } catch (UnknownHostException e) {
+            return new ItemViolation(-1, "callbackUrl", "Callback host is not a valid address: " + host);
+        }
+        return null;
+    }
+
+    private ItemViolation checkItem(int index, TransactionRequest transaction, Set<String> transactionIds) {
+        if (transaction == null) {
+            return new ItemViolation(index, "transactions[" + index + "]", "Transaction cannot be null");
+        }
+
+        String transactionId = transaction.getTransactionId();
+        if (isBlank(transactionId)) {
+            return violation(index, "transactionId", "Transaction ID is required");
+        }
+        if (!transactionIds.add(transactionId)) {
+            return violation(index, "transactionId", "Duplicate transaction ID in batch: " + transactionId);
+        }
+
+        String fromAccount = transaction.getFromAccount();
+        if (isBlank(fromAccount)) {
+            return violation(index, "fromAccount", "From account is required");
+        }
+        if (!isValidAccount(fromAccount)) {
+            return violation(index, "fromAccount", "From account has an invalid format");
+        }
+
+        String toAccount = transaction.getToAccount();
+        if (isBlank(toAccount)) {
+            return violation(index, "toAccount", "To account is required");
+        }
+        if (!isValidAccount(toAccount)) {
+            return violation(index, "toAccount", "To account has an invalid format");
+        }
+        if (fromAccount.equals(toAccount)) {
+            return violation(index, "toAccount", "From and to account must be different");
+        }
+
+        BigDecimal amount = transaction.getAmount();
+        if (amount == null) {
+            return violation(index, "amount", "Amount is required");
+        }
+        if (amount.compareTo(MIN_AMOUNT) < 0) {
+            return violation(index, "amount", "Amount must be greater than 0");
+        }
+        if (amount.scale() > amountMaxScale && amount.stripTrailingZeros().scale() > amountMaxScale) {
+            return violation(index, "amount", "Amount must have at most " + amountMaxScale + " decimal places");
+        }
+        return null;
+    }
+
+    private ItemViolation violation(int index, String field, String message) {
+        return new ItemViolation(index, "transactions[" + index + "]." + field, message);
+    }
+
+    /**
+     * Letters and digits only, within the configured length
+     */
+    private boolean isValidAccount(String account) {
+        int length = account.length();
+        if (length < accountMinLength || length > accountMaxLength) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = account.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
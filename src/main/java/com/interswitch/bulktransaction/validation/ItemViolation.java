@@ -0,0 +1,15 @@
+package com.interswitch.bulktransaction.validation;
+
+/**
+ * A single pre-flight validation failure
+ *
+ * @param index   Position of the item in the batch, or -1 for batch-level failures
+ * @param field   Property path of the offending value, e.g. transactions[3].amount
+ * @param message Human readable reason
+ */
+public record ItemViolation(int index, String field, String message) {
+
+    public boolean isBatchLevel() {
+        return index < 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.interswitch.bulktransaction.validation;
+
+import java.util.List;
+
+/**
+ * Outcome of pre-flight validation for one batch
+ * Holds at most one violation per item, in item order
+ */
+public record PreflightReport(int itemCount, List<ItemViolation> violations, long elapsedNanos) {
+
+    public boolean hasViolations() {
+        return !violations.isEmpty();
+    }
+
+    public int rejectedItems() {
+        return (int) violations.stream().filter(v -> !v.isBatchLevel()).count();
+    }
+}
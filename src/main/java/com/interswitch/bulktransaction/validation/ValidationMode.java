@@ -0,0 +1,17 @@
+package com.interswitch.bulktransaction.validation;
+
+/**
+ * How pre-flight validation failures are handled
+ */
+public enum ValidationMode {
+
+    /**
+     * Any invalid item rejects the whole batch with 400 Bad Request
+     */
+    REJECT_BATCH,
+
+    /**
+     * Invalid items are reported as FAILED results and the valid ones are still processed
+     */
+    REJECT_ITEMS
+}
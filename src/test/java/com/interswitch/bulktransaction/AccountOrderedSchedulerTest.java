@@ -0,0 +1,162 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.scheduling.AccountOrderedScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AccountOrderedScheduler
+ * Tests per-account ordering, cross-account parallelism and when permits are taken and waited for
+ */
+class AccountOrderedSchedulerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final AccountOrderedScheduler scheduler = new AccountOrderedScheduler(executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sameAccount_RunsInSubmissionOrder() {
+        // Arrange
+        AccountOrderedScheduler.BatchSchedule schedule = scheduler.newSchedule();
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            int item = i;
+            futures.add(schedule.submit("ACC-1", () -> {
+                executed.add(item);
+                return item;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        // Assert
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, executed.get(i));
+        }
+        assertEquals(1, schedule.accounts());
+    }
+
+    @Test
+    void failedItem_DoesNotBlockNextItemOfSameAccount() {
+        // Arrange
+        AccountOrderedScheduler.BatchSchedule schedule = scheduler.newSchedule();
+
+        // Act
+        CompletableFuture<String> first = schedule.submit("ACC-1", () -> {
+            throw new IllegalStateException("Downstream rejected");
+        });
+        CompletableFuture<String> second = schedule.submit("ACC-1", () -> "done");
+
+        // Assert
+        assertEquals("done", second.join());
+        assertTrue(first.isCompletedExceptionally());
+    }
+
+    @Test
+    void differentAccounts_RunInParallel() throws InterruptedException {
+        // Arrange: each task waits until all three are running at once
+        AccountOrderedScheduler.BatchSchedule schedule = scheduler.newSchedule();
+        CountDownLatch allRunning = new CountDownLatch(3);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+
+        // Act
+        for (String account : List.of("ACC-1", "ACC-2", "ACC-3")) {
+            futures.add(schedule.submit(account, () -> {
+                allRunning.countDown();
+                try {
+                    return allRunning.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }));
+        }
+
+        // Assert
+        for (CompletableFuture<Boolean> future : futures) {
+            assertTrue(future.join());
+        }
+        assertEquals(3, schedule.accounts());
+    }
+
+    @Test
+    void queuedItems_TakeTheirPermitOnlyWhenAWorkerPicksThemUp() throws InterruptedException {
+        // Arrange: a single worker, held by the first item
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        AtomicInteger permitsTaken = new AtomicInteger();
+        AccountOrderedScheduler limited = new AccountOrderedScheduler(single, () -> {
+            permitsTaken.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        });
+        AccountOrderedScheduler.BatchSchedule schedule = limited.newSchedule();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        CompletableFuture<Boolean> first = schedule.submit("ACC-1", () -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = schedule.submit("ACC-2", () -> "second");
+        CompletableFuture<String> third = schedule.submit("ACC-3", () -> "third");
+        int takenWhileQueued = permitsTaken.get();
+        release.countDown();
+
+        // Assert
+        assertTrue(first.join());
+        assertEquals("second", second.join());
+        assertEquals("third", third.join());
+        assertEquals(1, takenWhileQueued);
+        assertEquals(3, permitsTaken.get());
+        single.shutdownNow();
+    }
+
+    @Test
+    void itemWhosePermitIsNotDue_DoesNotHoldTheWorker() {
+        // Arrange: a single worker; the first permit is not due until completed below
+        List<Runnable> queued = new ArrayList<>();
+        CompletableFuture<Void> latePermit = new CompletableFuture<>();
+        AtomicInteger permitsTaken = new AtomicInteger();
+        AccountOrderedScheduler limited = new AccountOrderedScheduler(queued::add,
+                () -> permitsTaken.getAndIncrement() == 0 ? latePermit : CompletableFuture.completedFuture(null));
+        AccountOrderedScheduler.BatchSchedule schedule = limited.newSchedule();
+
+        // Act
+        CompletableFuture<String> first = schedule.submit("ACC-1", () -> "first");
+        CompletableFuture<String> second = schedule.submit("ACC-2", () -> "second");
+        queued.remove(0).run();
+        queued.remove(0).run();
+        boolean firstQueuedAgainEarly = !queued.isEmpty();
+        latePermit.complete(null);
+        queued.remove(0).run();
+
+        // Assert: the worker ran the second item while the first waited for its permit off the queue
+        assertFalse(firstQueuedAgainEarly);
+        assertEquals("second", second.join());
+        assertEquals("first", first.join());
+        assertEquals(2, permitsTaken.get());
+        assertTrue(queued.isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.admission.AdmissionControlService;
+import com.interswitch.bulktransaction.admission.AdmissionDecision;
+import com.interswitch.bulktransaction.exceptions.AdmissionRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdmissionControlService
+ */
+class AdmissionControlServiceTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void admit_QueueFull_RejectsWith429UntilReleased() {
+        // Arrange
+        AdmissionControlService service = new AdmissionControlService(true, 100, 1.0, 0, 7, meterRegistry);
+        service.admit(80);
+
+        // Act
+        AdmissionRejectedException ex = assertThrows(AdmissionRejectedException.class, () -> service.admit(30));
+        service.release(80);
+        service.admit(30);
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatus());
+        assertEquals(7, ex.getRetryAfterSeconds());
+        assertEquals(30, service.getQueuedItems());
+        assertEquals(1.0, meterRegistry.get("admission.rejected").tag("reason", "queue-full").counter().count());
+    }
+
+    @Test
+    void admit_OversizedBatchOnIdleNode_IsAdmitted() {
+        // Arrange
+        AdmissionControlService service = new AdmissionControlService(true, 100, 1.0, 0, 5, meterRegistry);
+
+        // Act
+        service.admit(500);
+
+        // Assert
+        assertEquals(500, service.getQueuedItems());
+        assertFalse(service.check(1).admitted());
+    }
+
+    @Test
+    void check_HighItemLatency_RejectsWith503() {
+        // Arrange
+        AdmissionControlService service = new AdmissionControlService(true, 100, 1.0, 50, 5, meterRegistry);
+        service.recordItemLatency(TimeUnit.MILLISECONDS.toNanos(200));
+
+        // Act
+        AdmissionDecision decision = service.check(10);
+
+        // Assert
+        assertFalse(decision.admitted());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, decision.status());
+        assertThrows(AdmissionRejectedException.class, () -> service.admit(10));
+    }
+
+    @Test
+    void release_NothingInFlight_ClearsLatencyAverage() {
+        // Arrange
+        AdmissionControlService service = new AdmissionControlService(true, 100, 1.0, 50, 5, meterRegistry);
+        service.admit(10);
+        service.recordItemLatency(TimeUnit.MILLISECONDS.toNanos(200));
+        assertFalse(service.check(10).admitted());
+
+        // Act
+        service.release(10);
+
+        // Assert
+        assertTrue(service.check(10).admitted());
+    }
+}
@@ -0,0 +1,180 @@
+package com.interswitch.bulktransaction;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interswitch.bulktransaction.callback.BatchCallbackService;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BatchCallbackService against a local stub receiver
+ * Tests completion and progress callbacks, retries and non-retryable rejections
+ */
+class BatchCallbackServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private HttpServer receiver;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // /flaky answers 503 to its first attempt, /rejecting always answers 400
+        receiver = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        receiver.createContext("/", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            int attempt = attempts.incrementAndGet();
+            String path = exchange.getRequestURI().getPath();
+            int status = path.equals("/rejecting") ? 400 : path.equals("/flaky") && attempt == 1 ? 503 : 204;
+            if (status == 204) {
+                received.add(objectMapper.readTree(body));
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        receiver.start();
+        baseUrl = "http://localhost:" + receiver.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        receiver.stop(0);
+    }
+
+    @Test
+    void batchCompleted_ReceiverFailsOnce_DeliveredAfterRetryWithCounts() throws InterruptedException {
+        // Arrange
+        BatchCallbackService service = createService(0);
+        BulkTransactionRequest request = createRequest("BATCH-CB1", baseUrl + "/flaky", 3);
+
+        // Act
+        service.batchCompleted(request, createResponse("BATCH-CB1", "SUCCESS", "FAILED", "SUCCESS"));
+        JsonNode callback = received.poll(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(callback);
+        assertEquals("BATCH-CB1", callback.get("batchId").asText());
+        assertEquals("COMPLETED", callback.get("event").asText());
+        assertEquals(3, callback.get("totalItems").asInt());
+        assertEquals(2, callback.get("succeeded").asInt());
+        assertEquals(1, callback.get("failed").asInt());
+        assertEquals(2, attempts.get());
+        awaitCount("delivered", 1.0);
+    }
+
+    @Test
+    void itemCompleted_ProgressStep_SendsMilestonesBeforeCompletion() throws InterruptedException {
+        // Arrange: 50% steps over 4 items give one PROGRESS callback, at 2 items
+        BatchCallbackService service = createService(50);
+        BulkTransactionRequest request = createRequest("BATCH-CB2", baseUrl + "/hooks", 4);
+        service.batchStarted(request, 0);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            service.itemCompleted("BATCH-CB2");
+        }
+        JsonNode progress = received.poll(5, TimeUnit.SECONDS);
+        service.batchCompleted(request, createResponse("BATCH-CB2", "SUCCESS", "SUCCESS", "SUCCESS", "SUCCESS"));
+        JsonNode completed = received.poll(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(progress);
+        assertEquals("PROGRESS", progress.get("event").asText());
+        assertEquals(2, progress.get("completedItems").asInt());
+        assertFalse(progress.has("succeeded"));
+        assertNotNull(completed);
+        assertEquals("COMPLETED", completed.get("event").asText());
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void batchCompleted_ClientError_NotRetried() throws InterruptedException {
+        // Arrange
+        BatchCallbackService service = createService(0);
+        BulkTransactionRequest request = createRequest("BATCH-CB3", baseUrl + "/rejecting", 1);
+
+        // Act
+        service.batchCompleted(request, createResponse("BATCH-CB3", "SUCCESS"));
+
+        // Assert
+        awaitCount("failed", 1.0);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void batchCompleted_NoAllowListAndLocalReceiver_RefusedAtConnectWithoutRetries() throws InterruptedException {
+        // Arrange: localhost passed validation under another name, e.g. a rebound DNS entry
+        BatchCallbackService service = new BatchCallbackService(WebClient.builder(), true, 3, 20, 2000, 0,
+                meterRegistry);
+        BulkTransactionRequest request = createRequest("BATCH-CB4", baseUrl + "/callback", 1);
+
+        // Act
+        service.batchCompleted(request, createResponse("BATCH-CB4", "SUCCESS"));
+
+        // Assert
+        awaitCount("failed", 1.0);
+        assertEquals(0, attempts.get());
+    }
+
+    private BatchCallbackService createService(int progressStepPercent) {
+        // The stub receiver is local, so it has to be allowed explicitly
+        return new BatchCallbackService(WebClient.builder(), true, List.of("localhost"), 3, 20, 2000,
+                progressStepPercent, meterRegistry);
+    }
+
+    private void awaitCount(String outcome, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline
+                && meterRegistry.get("batch.callbacks").tag("outcome", outcome).counter().count() < expected) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, meterRegistry.get("batch.callbacks").tag("outcome", outcome).counter().count());
+    }
+
+    private static BulkTransactionRequest createRequest(String batchId, String callbackUrl, int items) {
+        List<TransactionRequest> transactions = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            transactions.add(TransactionRequest.builder()
+                    .transactionId("TXN-" + i)
+                    .fromAccount("123456")
+                    .toAccount("654321")
+                    .amount(new BigDecimal("10.00"))
+                    .build());
+        }
+        return BulkTransactionRequest.builder()
+                .batchId(batchId)
+                .transactions(transactions)
+                .callbackUrl(callbackUrl)
+                .build();
+    }
+
+    private static BulkTransactionResponse createResponse(String batchId, String... statuses) {
+        List<TransactionResult> results = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            results.add(TransactionResult.builder().transactionId("TXN-" + i).status(statuses[i]).build());
+        }
+        return BulkTransactionResponse.builder().batchId(batchId).results(results).build();
+    }
+}
@@ -0,0 +1,205 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.admission.AdmissionControlService;
+import com.interswitch.bulktransaction.callback.BatchCallbackService;
+import com.interswitch.bulktransaction.cluster.BatchRouter;
+import com.interswitch.bulktransaction.cluster.PeerClient;
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.drain.BatchDrainCoordinator;
+import com.interswitch.bulktransaction.drain.DrainStatus;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.exceptions.AdmissionRejectedException;
+import com.interswitch.bulktransaction.exceptions.BatchHandedOffException;
+import com.interswitch.bulktransaction.netting.TransferNettingService;
+import com.interswitch.bulktransaction.reconciliation.PendingTransactionReconciler;
+import com.interswitch.bulktransaction.repository.InMemoryBatchRepository;
+import com.interswitch.bulktransaction.scheduling.AccountDebitPrecheck;
+import com.interswitch.bulktransaction.scheduling.AccountOrderedScheduler;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import com.interswitch.bulktransaction.service.TransactionProcessorService;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import com.interswitch.bulktransaction.validation.ValidationMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchDrainCoordinator with BulkTransactionService
+ * Tests refusing new batches while draining, finishing batches within the grace period
+ * and checkpointing the unsent items of a batch once the grace period is over
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchDrainCoordinatorTest {
+
+    @Mock
+    private TransactionProcessorService transactionProcessorService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryBatchRepository batchRepository = new InMemoryBatchRepository();
+    private final List<Object> events = new ArrayList<>();
+
+    @Test
+    void processBulkTransactions_Draining_RejectedWith503AndReadinessWithdrawn() {
+        // Arrange
+        BatchDrainCoordinator drainCoordinator = createCoordinator(45);
+        BulkTransactionService service = createService(drainCoordinator);
+
+        // Act
+        drainCoordinator.drain();
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> service.processBulkTransactions(createRequest("BATCH-D1", 2)));
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(5, exception.getRetryAfterSeconds());
+        assertFalse(batchRepository.exists("BATCH-D1"));
+        assertEquals(BatchDrainCoordinator.State.DRAINING, drainCoordinator.getState());
+        assertTrue(events.stream().anyMatch(event -> event instanceof AvailabilityChangeEvent<?> change
+                && change.getState() == ReadinessState.REFUSING_TRAFFIC));
+        assertEquals(1.0, meterRegistry.get("drain.rejected").counter().count());
+        verifyNoInteractions(transactionProcessorService);
+    }
+
+    @Test
+    void stop_BatchFinishesWithinGracePeriod_WaitsForItAndNothingHandedOff() throws Exception {
+        // Arrange: the first item is held until the drain has started
+        BatchDrainCoordinator drainCoordinator = createCoordinator(30);
+        BulkTransactionService service = createService(drainCoordinator);
+        CountDownLatch itemStarted = new CountDownLatch(1);
+        CountDownLatch releaseItem = new CountDownLatch(1);
+        holdFirstItem(itemStarted, releaseItem);
+
+        // Act
+        CompletableFuture<BulkTransactionResponse> batch = CompletableFuture.supplyAsync(
+                () -> service.processBulkTransactions(createRequest("BATCH-D2", 3)));
+        assertTrue(itemStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> stop = CompletableFuture.runAsync(drainCoordinator::stop);
+        DrainStatus draining = awaitState(drainCoordinator, BatchDrainCoordinator.State.DRAINING);
+        releaseItem.countDown();
+        stop.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(1, draining.inFlight().size());
+        assertEquals("BATCH-D2", draining.inFlight().get(0).batchId());
+        assertEquals(3, batch.get(5, TimeUnit.SECONDS).getResults().size());
+        assertEquals(BatchDrainCoordinator.State.DRAINED, drainCoordinator.getState());
+        assertTrue(drainCoordinator.status().handedOff().isEmpty());
+        assertTrue(batchRepository.findUnfinished().isEmpty());
+    }
+
+    @Test
+    void stop_GracePeriodOver_UnsentItemsCheckpointedAndBatchLeftUnfinished() throws Exception {
+        // Arrange: no grace period, so the drain hands off as soon as it starts
+        BatchDrainCoordinator drainCoordinator = createCoordinator(0);
+        BulkTransactionService service = createService(drainCoordinator);
+        CountDownLatch itemStarted = new CountDownLatch(1);
+        CountDownLatch releaseItem = new CountDownLatch(1);
+        holdFirstItem(itemStarted, releaseItem);
+
+        // Act
+        CompletableFuture<BulkTransactionResponse> batch = CompletableFuture.supplyAsync(
+                () -> service.processBulkTransactions(createRequest("BATCH-D3", 3)));
+        assertTrue(itemStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> stop = CompletableFuture.runAsync(drainCoordinator::stop);
+        awaitState(drainCoordinator, BatchDrainCoordinator.State.HANDING_OFF);
+        releaseItem.countDown();
+        stop.get(5, TimeUnit.SECONDS);
+
+        // Assert: the item already sent downstream kept its result, the other two were never sent
+        CompletionException exception = assertThrows(CompletionException.class, batch::join);
+        assertInstanceOf(BatchHandedOffException.class, exception.getCause());
+        assertTrue(exception.getCause().getMessage().contains("resume on this replica"));
+        assertEquals(List.of("BATCH-D3"), drainCoordinator.status().handedOff());
+        assertEquals(1, batchRepository.findUnfinished().size());
+        assertEquals(1, batchRepository.findUnfinished().get(0).getCompletedItems());
+        verify(transactionProcessorService, times(1)).processTransaction(any(TransactionRequest.class));
+        assertFalse(drainCoordinator.shouldStopDispatch("BATCH-D4" + ShardCoordinator.SHARD_SEPARATOR + "0"));
+    }
+
+    private void holdFirstItem(CountDownLatch itemStarted, CountDownLatch releaseItem) {
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class))).thenAnswer(invocation -> {
+            TransactionRequest transaction = invocation.getArgument(0);
+            itemStarted.countDown();
+            releaseItem.await(5, TimeUnit.SECONDS);
+            return TransactionResult.builder().transactionId(transaction.getTransactionId()).status("SUCCESS").build();
+        });
+    }
+
+    private static DrainStatus awaitState(BatchDrainCoordinator drainCoordinator, BatchDrainCoordinator.State state)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (drainCoordinator.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(state, drainCoordinator.getState());
+        return drainCoordinator.status();
+    }
+
+    private BatchDrainCoordinator createCoordinator(long gracePeriodSeconds) {
+        return new BatchDrainCoordinator(events::add, true, gracePeriodSeconds, 5, 5, meterRegistry);
+    }
+
+    private BulkTransactionService createService(BatchDrainCoordinator drainCoordinator) {
+        answerAsyncWithBlockingStubs();
+        // Direct executor keeps the items of a batch on its request thread, in order
+        return new BulkTransactionService(transactionProcessorService, batchRepository,
+                new BatchPreflightValidator(ValidationMode.REJECT_BATCH, 1, 34, 2, meterRegistry),
+                new AccountOrderedScheduler(Runnable::run),
+                new AccountDebitPrecheck(BigDecimal.ZERO),
+                new TransferNettingService(false, meterRegistry),
+                new AdmissionControlService(true, 1000, 1.0, 0, 5, meterRegistry),
+                new ShardCoordinator(mock(PeerClient.class), false, List.of(), 5000, 1000, 30, meterRegistry),
+                new BatchRouter(mock(PeerClient.class), false, "", List.of(), 128, 5),
+                null, new BatchCallbackService(WebClient.builder(), true, 0, 10, 1000, 0, meterRegistry),
+                mock(PendingTransactionReconciler.class), drainCoordinator, event -> { }, null, 0, meterRegistry);
+    }
+
+    private static BulkTransactionRequest createRequest(String batchId, int items) {
+        List<TransactionRequest> transactions = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            transactions.add(TransactionRequest.builder()
+                    .transactionId(batchId + "-TXN-" + i)
+                    .fromAccount("111111")
+                    .toAccount("654321")
+                    .amount(new BigDecimal("10.00"))
+                    .build());
+        }
+        return BulkTransactionRequest.builder().batchId(batchId).transactions(transactions).build();
+    }
+
+    /**
+     * Answers the service's async call with whatever the test stubbed on the blocking one
+     */
+    private void answerAsyncWithBlockingStubs() {
+        lenient().when(transactionProcessorService.processTransactionAsync(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    try {
+                        return CompletableFuture.completedFuture(transactionProcessorService.processTransaction(
+                                invocation.<TransactionRequest>getArgument(0)));
+                    } catch (RuntimeException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,129 @@
+package com.interswitch.bulktransaction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interswitch.bulktransaction.cache.BatchResultCache;
+import com.interswitch.bulktransaction.cache.CachedBatchResults;
+import com.interswitch.bulktransaction.compression.ContentEncoding;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchResultCache
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchResultCacheTest {
+
+    @Mock
+    private BulkTransactionService bulkTransactionService;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(bulkTransactionService.getBatchResults(anyString())).thenAnswer(invocation -> response(invocation.getArgument(0)));
+    }
+
+    @Test
+    void get_RepeatedLookups_SerializeOnceAndCountHits() throws Exception {
+        // Arrange
+        BatchResultCache cache = createCache(1 << 20);
+
+        // Act
+        CachedBatchResults first = cache.get("BATCH-1");
+        CachedBatchResults second = cache.get("BATCH-1");
+
+        // Assert
+        assertSame(first, second);
+        verify(bulkTransactionService, times(1)).getBatchResults("BATCH-1");
+        assertEquals(1.0, meterRegistry.get("batch.results.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("batch.results.cache").tag("result", "miss").counter().count());
+        assertArrayEquals(first.json(),
+                ContentEncoding.GZIP.decode(new ByteArrayInputStream(first.body(ContentEncoding.GZIP, 3))).readAllBytes());
+    }
+
+    @Test
+    void get_OverByteLimit_EvictsLeastRecentlyUsed() {
+        // Arrange
+        long entrySize = createCache(1 << 20).get("BATCH-0").sizeInBytes();
+        BatchResultCache cache = createCache(entrySize * 2 + entrySize / 2);
+
+        // Act
+        cache.get("BATCH-1");
+        cache.get("BATCH-2");
+        cache.get("BATCH-1");
+        cache.get("BATCH-3");
+        cache.get("BATCH-1");
+        cache.get("BATCH-2");
+
+        // Assert
+        verify(bulkTransactionService, times(1)).getBatchResults("BATCH-1");
+        verify(bulkTransactionService, times(2)).getBatchResults("BATCH-2");
+        assertTrue(cache.getTotalBytes() <= entrySize * 2 + entrySize / 2);
+    }
+
+    @Test
+    void evict_ChangedBatch_IsReloaded() {
+        // Arrange
+        BatchResultCache cache = createCache(1 << 20);
+        cache.get("BATCH-1");
+
+        // Act
+        cache.evict("BATCH-1");
+        cache.get("BATCH-1");
+
+        // Assert
+        verify(bulkTransactionService, times(2)).getBatchResults("BATCH-1");
+        assertEquals(0.0, meterRegistry.get("batch.results.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void get_EvictedWhileLoading_StaleResultsNotCached() {
+        // Arrange
+        BatchResultCache cache = createCache(1 << 20);
+        when(bulkTransactionService.getBatchResults("BATCH-1"))
+                .thenAnswer(invocation -> {
+                    // The results change after they were read, before the load stores them
+                    BulkTransactionResponse stale = response("BATCH-1");
+                    cache.evict("BATCH-1");
+                    return stale;
+                })
+                .thenAnswer(invocation -> response("BATCH-1"));
+
+        // Act
+        cache.get("BATCH-1");
+        cache.get("BATCH-1");
+        cache.get("BATCH-1");
+
+        // Assert
+        verify(bulkTransactionService, times(2)).getBatchResults("BATCH-1");
+        assertEquals(1.0, meterRegistry.get("batch.results.cache").tag("result", "hit").counter().count());
+    }
+
+    private BatchResultCache createCache(long maxBytes) {
+        return new BatchResultCache(bulkTransactionService, new ObjectMapper(), true, maxBytes, 300, true, 3,
+                meterRegistry);
+    }
+
+    private static BulkTransactionResponse response(String batchId) {
+        return BulkTransactionResponse.builder()
+                .batchId(batchId)
+                .results(List.of(TransactionResult.builder().transactionId("TXN-001").status("SUCCESS").build()))
+                .build();
+    }
+}
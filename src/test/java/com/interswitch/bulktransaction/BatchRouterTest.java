@@ -0,0 +1,135 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.cluster.BatchRouter;
+import com.interswitch.bulktransaction.cluster.ConsistentHashRing;
+import com.interswitch.bulktransaction.cluster.PeerClient;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.exceptions.AdmissionRejectedException;
+import com.interswitch.bulktransaction.exceptions.BatchHandedOffException;
+import com.interswitch.bulktransaction.exceptions.OwnerUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BatchRouter and ConsistentHashRing
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchRouterTest {
+
+    private static final String NODE_A = "http://node-a:9087";
+    private static final String NODE_B = "http://node-b:9087";
+    private static final String NODE_C = "http://node-c:9087";
+
+    @Mock
+    private PeerClient peerClient;
+
+    @Test
+    void ownerOf_EveryNodeAgreesAndKeysSpreadEvenly() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(NODE_A, NODE_B, NODE_C), 128);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of(NODE_C, NODE_A, NODE_B), 128);
+        Map<String, Integer> counts = new HashMap<>();
+
+        // Act
+        for (int i = 0; i < 30_000; i++) {
+            String owner = ring.ownerOf("BATCH-" + i);
+            assertEquals(owner, reordered.ownerOf("BATCH-" + i));
+            counts.merge(owner, 1, Integer::sum);
+        }
+
+        // Assert
+        counts.values().forEach(count -> assertTrue(count > 7_000 && count < 13_000, "unbalanced: " + counts));
+    }
+
+    @Test
+    void ownerOf_MemberRemoved_OnlyItsKeysMove() {
+        // Arrange
+        ConsistentHashRing full = new ConsistentHashRing(List.of(NODE_A, NODE_B, NODE_C), 128);
+        ConsistentHashRing withoutC = new ConsistentHashRing(List.of(NODE_A, NODE_B), 128);
+
+        // Act & Assert
+        for (int i = 0; i < 10_000; i++) {
+            String owner = full.ownerOf("BATCH-" + i);
+            if (!owner.equals(NODE_C)) {
+                assertEquals(owner, withoutC.ownerOf("BATCH-" + i));
+            }
+        }
+    }
+
+    @Test
+    void forward_OwnerUnreachable_ThrowsOwnerUnavailable() {
+        // Arrange
+        BatchRouter router = new BatchRouter(peerClient, true, NODE_A, List.of(NODE_B), 128, 5);
+        String batchId = remoteBatchId(router);
+        when(peerClient.submitBatch(eq(NODE_B), any())).thenThrow(new ResourceAccessException("Connection refused"));
+
+        // Act & Assert
+        OwnerUnavailableException ex = assertThrows(OwnerUnavailableException.class,
+                () -> router.forward(NODE_B, BulkTransactionRequest.builder().batchId(batchId).build()));
+        assertEquals(5, ex.getRetryAfterSeconds());
+    }
+
+    @Test
+    void forward_OwnerSheddingLoad_PassesStatusAndRetryAfterOn() {
+        // Arrange
+        BatchRouter router = new BatchRouter(peerClient, true, NODE_A, List.of(NODE_B), 128, 5);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "9");
+        when(peerClient.submitBatch(eq(NODE_B), any())).thenThrow(HttpClientErrorException.create(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], StandardCharsets.UTF_8));
+
+        // Act & Assert
+        AdmissionRejectedException ex = assertThrows(AdmissionRejectedException.class,
+                () -> router.forward(NODE_B, BulkTransactionRequest.builder().batchId(remoteBatchId(router)).build()));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatus());
+        assertEquals(9, ex.getRetryAfterSeconds());
+    }
+
+    @Test
+    void forward_OwnerHandedBatchOff_NamesTheOwnerInsteadOfAskingForARetry() {
+        // Arrange
+        BatchRouter router = new BatchRouter(peerClient, true, NODE_A, List.of(NODE_B), 128, 5);
+        when(peerClient.submitBatch(eq(NODE_B), any())).thenThrow(HttpClientErrorException.create(
+                HttpStatus.CONFLICT, "Conflict", new HttpHeaders(), new byte[0], StandardCharsets.UTF_8));
+
+        // Act & Assert
+        BatchHandedOffException ex = assertThrows(BatchHandedOffException.class,
+                () -> router.forward(NODE_B, BulkTransactionRequest.builder().batchId(remoteBatchId(router)).build()));
+        assertTrue(ex.getMessage().contains("resume on replica " + NODE_B));
+    }
+
+    @Test
+    void remoteOwnerOf_Disabled_KeepsEveryBatchLocal() {
+        // Arrange
+        BatchRouter router = new BatchRouter(peerClient, false, NODE_A, List.of(NODE_B), 128, 5);
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            assertNull(router.remoteOwnerOf("BATCH-" + i));
+        }
+    }
+
+    private static String remoteBatchId(BatchRouter router) {
+        for (int i = 0; ; i++) {
+            if (router.remoteOwnerOf("BATCH-" + i) != null) {
+                return "BATCH-" + i;
+            }
+        }
+    }
+}
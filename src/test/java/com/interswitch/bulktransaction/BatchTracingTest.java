@@ -0,0 +1,213 @@
+package com.interswitch.bulktransaction;
+
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import com.interswitch.bulktransaction.admission.AdmissionControlService;
+import com.interswitch.bulktransaction.callback.BatchCallbackService;
+import com.interswitch.bulktransaction.client.TransactionServiceClient;
+import com.interswitch.bulktransaction.cluster.BatchRouter;
+import com.interswitch.bulktransaction.cluster.PeerClient;
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.drain.BatchDrainCoordinator;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionServiceRequest;
+import com.interswitch.bulktransaction.dto.response.TransactionServiceResponse;
+import com.interswitch.bulktransaction.netting.TransferNettingService;
+import com.interswitch.bulktransaction.reconciliation.PendingTransactionReconciler;
+import com.interswitch.bulktransaction.repository.InMemoryBatchRepository;
+import com.interswitch.bulktransaction.scheduling.AccountDebitPrecheck;
+import com.interswitch.bulktransaction.scheduling.AccountOrderedScheduler;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import com.interswitch.bulktransaction.service.TransactionProcessorService;
+import com.interswitch.bulktransaction.tracing.InMemorySpanExporter;
+import com.interswitch.bulktransaction.tracing.TailSamplingSpanHandler;
+import com.interswitch.bulktransaction.tracing.TraceSpans;
+import com.interswitch.bulktransaction.tracing.TracingConfig;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import com.interswitch.bulktransaction.validation.ValidationMode;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.brave.bridge.BraveBaggageManager;
+import io.micrometer.tracing.brave.bridge.BraveCurrentTraceContext;
+import io.micrometer.tracing.brave.bridge.BravePropagator;
+import io.micrometer.tracing.brave.bridge.BraveTracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for batch tracing with a Brave tracer and the in-memory exporter
+ * Tests the batch, item and attempt span tree, tail sampling and trace context propagation
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchTracingTest {
+
+    @Mock
+    private TransactionServiceClient transactionServiceClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter(1000);
+    private Tracing tracing;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        // Every trace is head-sampled; tail sampling keeps no share of successful items
+        tracing = Tracing.newBuilder()
+                .sampler(Sampler.ALWAYS_SAMPLE)
+                .addSpanHandler(new TailSamplingSpanHandler(0, 0, meterRegistry))
+                .addSpanHandler(exporter)
+                .build();
+        tracer = new BraveTracer(tracing.tracer(), new BraveCurrentTraceContext(tracing.currentTraceContext()),
+                new BraveBaggageManager());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracing.close();
+    }
+
+    @Test
+    void processBulkTransactions_OneItemFails_BatchSpanWithOnlyFailedItemAndAttemptKept() {
+        // Arrange
+        when(transactionServiceClient.processTransaction(any(TransactionServiceRequest.class)))
+                .thenReturn(TransactionServiceResponse.builder().transactionId("TXN-001").status("SUCCESS").build());
+        when(transactionServiceClient.processTransaction(argThat(request -> "TXN-002".equals(request.getTransactionId()))))
+                .thenThrow(new RuntimeException("Connection refused"));
+        BulkTransactionService service = createService();
+
+        // Act
+        service.processBulkTransactions(createRequest());
+
+        // Assert
+        List<MutableSpan> batches = exporter.getSpans(TraceSpans.BATCH);
+        assertEquals(1, batches.size());
+        MutableSpan batch = batches.get(0);
+        assertEquals("BATCH-T1", batch.tag(TraceSpans.BATCH_ID));
+        assertEquals("2", batch.tag(TraceSpans.BATCH_ITEMS));
+
+        List<MutableSpan> items = exporter.getSpans(TraceSpans.ITEM);
+        assertEquals(1, items.size());
+        MutableSpan item = items.get(0);
+        assertEquals("TXN-002", item.tag(TraceSpans.TRANSACTION_ID));
+        assertEquals("FAILED", item.tag(TraceSpans.OUTCOME));
+        assertEquals(batch.id(), item.parentId());
+        assertEquals(batch.traceId(), item.traceId());
+
+        List<MutableSpan> attempts = exporter.getSpans(TraceSpans.ATTEMPT);
+        assertEquals(1, attempts.size());
+        assertEquals(item.id(), attempts.get(0).parentId());
+        assertEquals("DOWNSTREAM_UNAVAILABLE", attempts.get(0).tag(TraceSpans.FAILURE_CODE));
+        assertNotNull(attempts.get(0).error());
+
+        // The successful item and its attempt
+        assertEquals(2.0, meterRegistry.get("tracing.spans.dropped").counter().count());
+    }
+
+    @Test
+    void end_RetriedOrSlowItem_KeptEvenWhenSuccessful() {
+        // Arrange: items of 5 ms or more count as slow
+        SpanHandler handler = new TailSamplingSpanHandler(0, 5, meterRegistry);
+        TraceContext context = TraceContext.newBuilder().traceId(1).spanId(2).build();
+
+        // Act & Assert
+        assertFalse(handler.end(context, itemSpan(1000, 0), SpanHandler.Cause.FINISHED));
+        assertTrue(handler.end(context, itemSpan(1000, 2), SpanHandler.Cause.FINISHED));
+        assertTrue(handler.end(context, itemSpan(5000, 1), SpanHandler.Cause.FINISHED));
+        assertTrue(new TailSamplingSpanHandler(1.0, 0, meterRegistry)
+                .end(context, itemSpan(1000, 1), SpanHandler.Cause.FINISHED));
+    }
+
+    @Test
+    void traceContextRequestInterceptor_SpanInScope_AddsTraceHeaders() {
+        // Arrange
+        Propagator propagator = new BravePropagator(tracing);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(
+                Map.of("tracer", tracer, "propagator", propagator));
+        RequestInterceptor interceptor = new TracingConfig().traceContextRequestInterceptor(
+                beans.getBeanProvider(Tracer.class), beans.getBeanProvider(Propagator.class));
+        RequestTemplate template = new RequestTemplate();
+        Span span = tracer.nextSpan().name(TraceSpans.ATTEMPT).start();
+
+        // Act
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            interceptor.apply(template);
+        } finally {
+            span.end();
+        }
+
+        // Assert
+        assertTrue(template.headers().values().stream()
+                .flatMap(Collection::stream)
+                .anyMatch(value -> value.contains(span.context().traceId())));
+    }
+
+    private static MutableSpan itemSpan(long durationMicros, int attempts) {
+        MutableSpan span = new MutableSpan();
+        span.name(TraceSpans.ITEM);
+        span.tag(TraceSpans.OUTCOME, "SUCCESS");
+        span.startTimestamp(1_000_000);
+        span.finishTimestamp(1_000_000 + durationMicros);
+        for (int i = 0; i < attempts; i++) {
+            span.annotate(1_000_000 + i, TraceSpans.ATTEMPT_EVENT);
+        }
+        return span;
+    }
+
+    private BulkTransactionService createService() {
+        TransactionProcessorService processor = new TransactionProcessorService(transactionServiceClient, null,
+                2000, 10000, tracer);
+        // Direct executor keeps item processing on the test thread
+        return new BulkTransactionService(processor, new InMemoryBatchRepository(),
+                new BatchPreflightValidator(ValidationMode.REJECT_BATCH, 1, 34, 2, meterRegistry),
+                new AccountOrderedScheduler(Runnable::run),
+                new AccountDebitPrecheck(BigDecimal.ZERO),
+                new TransferNettingService(false, meterRegistry),
+                new AdmissionControlService(true, 1000, 1.0, 0, 5, meterRegistry),
+                new ShardCoordinator(mock(PeerClient.class), false, List.of(), 5000, 1000, 30, meterRegistry),
+                new BatchRouter(mock(PeerClient.class), false, "", List.of(), 128, 5),
+                null, new BatchCallbackService(WebClient.builder(), true, 0, 10, 1000, 0, meterRegistry),
+                mock(PendingTransactionReconciler.class),
+                new BatchDrainCoordinator(event -> { }, true, 45, 10, 5, meterRegistry), event -> { }, tracer, 0,
+                meterRegistry);
+    }
+
+    private static BulkTransactionRequest createRequest() {
+        return BulkTransactionRequest.builder()
+                .batchId("BATCH-T1")
+                .transactions(List.of(transaction("TXN-001", "111111"), transaction("TXN-002", "222222")))
+                .build();
+    }
+
+    private static TransactionRequest transaction(String transactionId, String fromAccount) {
+        return TransactionRequest.builder()
+                .transactionId(transactionId)
+                .fromAccount(fromAccount)
+                .toAccount("654321")
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+}
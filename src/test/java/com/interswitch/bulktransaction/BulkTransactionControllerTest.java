@@ -1,17 +1,25 @@
 package com.interswitch.bulktransaction;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.interswitch.bulktransaction.cache.BatchResultCache;
+import com.interswitch.bulktransaction.cache.BatchResultsChangedEvent;
 import com.interswitch.bulktransaction.controller.BulkTransactionController;
 import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
 import com.interswitch.bulktransaction.dto.request.TransactionRequest;
 import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
 import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.format.BinaryFormatConfig;
 import com.interswitch.bulktransaction.security.JwtService;
 import com.interswitch.bulktransaction.service.BulkTransactionService;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -21,7 +29,11 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -32,6 +44,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Tests the REST API endpoints with security and validation
  */
 @WebMvcTest(BulkTransactionController.class)
+@Import({BatchPreflightValidator.class, BatchResultCache.class, BinaryFormatConfig.class, SimpleMeterRegistry.class})
 class BulkTransactionControllerTest {
 
     @Autowired
@@ -40,6 +53,9 @@ class BulkTransactionControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @MockBean
     private BulkTransactionService bulkTransactionService;
 
@@ -106,6 +122,64 @@ class BulkTransactionControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    /**
+     * Test validation failure for a callbackUrl that is not http(s)
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void testProcessBulkTransactions_InvalidCallbackUrl() throws Exception {
+        // Arrange
+        BulkTransactionRequest invalidRequest = BulkTransactionRequest.builder()
+                .batchId("BATCH-CB")
+                .transactions(Arrays.asList(
+                        TransactionRequest.builder()
+                                .transactionId("TX001")
+                                .fromAccount("123")
+                                .toAccount("456")
+                                .amount(BigDecimal.valueOf(100.00))
+                                .build()
+                ))
+                .callbackUrl("file:///etc/passwd")
+                .build();
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/bulk-transactions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalidRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("Callback URL must be an absolute http or https URL")));
+    }
+
+    /**
+     * Test validation failure for a callbackUrl on a link-local address when no allow-list is set
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void testProcessBulkTransactions_InternalCallbackHost() throws Exception {
+        // Arrange
+        BulkTransactionRequest invalidRequest = BulkTransactionRequest.builder()
+                .batchId("BATCH-CB-INTERNAL")
+                .transactions(Arrays.asList(
+                        TransactionRequest.builder()
+                                .transactionId("TX001")
+                                .fromAccount("123")
+                                .toAccount("456")
+                                .amount(BigDecimal.valueOf(100.00))
+                                .build()
+                ))
+                .callbackUrl("http://169.254.169.254/latest/meta-data")
+                .build();
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/bulk-transactions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalidRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("Callback host is not allowed")));
+    }
+
     /**
      * Test validation failure for negative amount
      */
@@ -167,11 +241,105 @@ class BulkTransactionControllerTest {
                 .andExpect(jsonPath("$.batchId").value("BATCH001"));
     }
 
+    /**
+     * Test repeated polls with a matching ETag get 304 and are served from the cache
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetBatchResults_MatchingETag_NotModified() throws Exception {
+        // Arrange
+        when(bulkTransactionService.getBatchResults("BATCH-ETAG"))
+                .thenReturn(createSuccessResponse());
+
+        String etag = mockMvc.perform(get("/api/v1/bulk-transactions/BATCH-ETAG"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/bulk-transactions/BATCH-ETAG").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(bulkTransactionService, times(1)).getBatchResults("BATCH-ETAG");
+    }
+
+
+    /**
+     * Test a replay returns the merged results and the service's change event drops the cached copy
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testReplayFailedTransactions_EvictsCachedResults() throws Exception {
+        // Arrange: the replay publishes the event on whichever replica stores the batch
+        when(bulkTransactionService.getBatchResults("BATCH001")).thenReturn(createSuccessResponse());
+        when(bulkTransactionService.replayFailures("BATCH001", "All retry attempts failed"))
+                .thenAnswer(invocation -> {
+                    eventPublisher.publishEvent(new BatchResultsChangedEvent("BATCH001"));
+                    return createSuccessResponse();
+                });
+        mockMvc.perform(get("/api/v1/bulk-transactions/BATCH001")).andExpect(status().isOk());
+
+        // Act
+        mockMvc.perform(post("/api/v1/bulk-transactions/BATCH001/replay")
+                        .with(csrf())
+                        .param("reason", "All retry attempts failed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("SUCCESS"));
+        mockMvc.perform(get("/api/v1/bulk-transactions/BATCH001")).andExpect(status().isOk());
+
+        // Assert: the second poll was a cache miss
+        verify(bulkTransactionService, times(2)).getBatchResults("BATCH001");
+    }
+
+    /**
+     * Test pre-flight validation rejects duplicate transaction IDs within a batch
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void testProcessBulkTransactions_DuplicateTransactionId() throws Exception {
+        // Arrange
+        BulkTransactionRequest request = createValidRequest();
+        request.getTransactions().get(1).setTransactionId("TX001");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/bulk-transactions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("Duplicate transaction ID")));
+    }
 
     // Helper methods
     /**
      * Creates a valid bulk transaction request
      */
+    /**
+     * Test CBOR submission and results negotiated by Content-Type and Accept
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void testProcessBulkTransactions_CborRoundTrip() throws Exception {
+        // Arrange
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        when(bulkTransactionService.processBulkTransactions(any()))
+                .thenReturn(createSuccessResponse());
+
+        // Act
+        byte[] body = mockMvc.perform(post("/api/v1/bulk-transactions")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(createValidRequest())))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        BulkTransactionResponse response = cborMapper.readValue(body, BulkTransactionResponse.class);
+        assertEquals("BATCH001", response.getBatchId());
+        assertEquals("SUCCESS", response.getResults().get(0).getStatus());
+    }
+
     private BulkTransactionRequest createValidRequest() {
         return BulkTransactionRequest.builder()
                 .batchId("BATCH001")
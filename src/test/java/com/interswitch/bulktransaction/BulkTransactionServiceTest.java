@@ -1,11 +1,30 @@
 package com.interswitch.bulktransaction;
 
+import com.interswitch.bulktransaction.admission.AdmissionControlService;
+import com.interswitch.bulktransaction.cache.BatchResultsChangedEvent;
+import com.interswitch.bulktransaction.callback.BatchCallbackService;
+import com.interswitch.bulktransaction.cluster.BatchRouter;
+import com.interswitch.bulktransaction.cluster.PeerClient;
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.drain.BatchDrainCoordinator;
 import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
 import com.interswitch.bulktransaction.dto.request.TransactionRequest;
 import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.FailureCode;
 import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.exceptions.BatchReplayRejectedException;
+import com.interswitch.bulktransaction.exceptions.BatchValidationException;
+import com.interswitch.bulktransaction.netting.TransferNettingService;
+import com.interswitch.bulktransaction.reconciliation.PendingTransactionReconciler;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import com.interswitch.bulktransaction.repository.InMemoryBatchRepository;
+import com.interswitch.bulktransaction.scheduling.AccountDebitPrecheck;
+import com.interswitch.bulktransaction.scheduling.AccountOrderedScheduler;
+import com.interswitch.bulktransaction.service.BatchDeadline;
 import com.interswitch.bulktransaction.service.BulkTransactionService;
 import com.interswitch.bulktransaction.service.TransactionProcessorService;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import com.interswitch.bulktransaction.validation.ValidationMode;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
@@ -14,12 +33,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,13 +51,22 @@ class BulkTransactionServiceTest {
     @Mock
     private TransactionProcessorService transactionProcessorService;
 
+    @Mock
+    private PendingTransactionReconciler reconciler;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MeterRegistry meterRegistry;
+    private InMemoryBatchRepository batchRepository;
     private BulkTransactionService bulkTransactionService;
 
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        bulkTransactionService = new BulkTransactionService(transactionProcessorService, meterRegistry);
+        batchRepository = new InMemoryBatchRepository();
+        bulkTransactionService = createService(ValidationMode.REJECT_BATCH, BigDecimal.ZERO);
+        answerAsyncWithBlockingStubs();
     }
 
     @Test
@@ -93,6 +125,26 @@ class BulkTransactionServiceTest {
         assertTrue(response.getResults().get(0).getReason().contains("Unexpected error"));
     }
 
+    @Test
+    void processBulkTransactions_PendingItem_StoredAndHandedToReconciler() {
+        // Arrange
+        BulkTransactionRequest request = createBulkTransactionRequest();
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class)))
+                .thenReturn(TransactionResult.builder().transactionId("TXN-001").status("PENDING").build())
+                .thenReturn(TransactionResult.builder().transactionId("TXN-002").status("SUCCESS").build());
+
+        // Act
+        BulkTransactionResponse response = bulkTransactionService.processBulkTransactions(request);
+
+        // Assert: a pending item completes the batch but is not replayable
+        assertEquals("PENDING", response.getResults().get(0).getStatus());
+        verify(reconciler).track("BATCH-001", new int[]{0}, "TXN-001");
+        verify(reconciler, times(1)).track(any(), any(), any());
+        assertEquals(1.0, meterRegistry.get("transactions.pending").counter().count());
+        bulkTransactionService.replayFailures("BATCH-001", null);
+        verify(transactionProcessorService, times(2)).processTransaction(any(TransactionRequest.class));
+    }
+
     @Test
     void processBulkTransactions_DuplicateBatchId_ReturnsCachedResults() {
         // Arrange
@@ -176,6 +228,296 @@ class BulkTransactionServiceTest {
         assertEquals("Batch not found: NON-EXISTENT", exception.getMessage());
     }
 
+    @Test
+    void resumeBatch_SkipsItemsAlreadyCompleted() {
+        // Arrange: simulate a crash after the first item was recorded
+        BulkTransactionRequest request = createBulkTransactionRequest();
+        batchRepository.create(request);
+        batchRepository.appendResult("BATCH-001", 0,
+                TransactionResult.builder().transactionId("TXN-001").status("SUCCESS").build());
+
+        BatchRecord unfinished = batchRepository.findUnfinished().get(0);
+
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class)))
+                .thenReturn(TransactionResult.builder().transactionId("TXN-002").status("SUCCESS").build());
+
+        // Act
+        BulkTransactionResponse response = bulkTransactionService.resumeBatch(unfinished);
+
+        // Assert
+        assertEquals(2, response.getResults().size());
+        assertEquals("TXN-001", response.getResults().get(0).getTransactionId());
+        assertEquals("TXN-002", response.getResults().get(1).getTransactionId());
+        verify(transactionProcessorService, times(1)).processTransaction(any(TransactionRequest.class));
+        assertTrue(batchRepository.findUnfinished().isEmpty());
+    }
+
+    @Test
+    void resumeBatch_ItemSentBeforeRestartWithoutResult_HeldPendingAndLookedUpInsteadOfResent() {
+        // Arrange: the second item was sent downstream, then the process died before its result was stored
+        BulkTransactionRequest request = createBulkTransactionRequest();
+        batchRepository.create(request);
+        batchRepository.appendResult("BATCH-001", 0,
+                TransactionResult.builder().transactionId("TXN-001").status("SUCCESS").build());
+        batchRepository.markDispatched("BATCH-001", new int[]{1}, "TXN-002").join();
+
+        // Act
+        BulkTransactionResponse response = bulkTransactionService.resumeBatch(batchRepository.findUnfinished().get(0));
+
+        // Assert
+        assertEquals("PENDING", response.getResults().get(1).getStatus());
+        assertTrue(response.getResults().get(1).getReason().startsWith("Sent before a restart"));
+        verify(reconciler).track("BATCH-001", new int[]{1}, "TXN-002");
+        verifyNoInteractions(transactionProcessorService);
+    }
+
+    @Test
+    void processBulkTransactions_RejectItemsMode_ProcessesOnlyValidItems() {
+        // Arrange
+        BulkTransactionService service = createService(ValidationMode.REJECT_ITEMS, BigDecimal.ZERO);
+
+        BulkTransactionRequest request = createBulkTransactionRequest();
+        request.getTransactions().get(1).setAmount(new BigDecimal("-5.00"));
+
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class)))
+                .thenReturn(TransactionResult.builder().transactionId("TXN-001").status("SUCCESS").build());
+
+        // Act
+        BulkTransactionResponse response = service.processBulkTransactions(request);
+
+        // Assert
+        assertEquals("SUCCESS", response.getResults().get(0).getStatus());
+        assertEquals("FAILED", response.getResults().get(1).getStatus());
+        assertEquals("TXN-002", response.getResults().get(1).getTransactionId());
+        assertTrue(response.getResults().get(1).getReason().startsWith("Validation failed"));
+        verify(transactionProcessorService, times(1)).processTransaction(any(TransactionRequest.class));
+    }
+
+    @Test
+    void processForwarded_RejectBatchModeWithInvalidItem_RejectedBeforeAnythingIsStored() {
+        // Arrange: forwarded batches and shards arrive without request binding
+        BulkTransactionRequest request = createBulkTransactionRequest();
+        request.getTransactions().get(1).setAmount(new BigDecimal("-5.00"));
+
+        // Act
+        BatchValidationException ex = assertThrows(BatchValidationException.class,
+                () -> bulkTransactionService.processForwarded(request));
+
+        // Assert
+        assertEquals("transactions[1].amount", ex.getViolations().get(0).field());
+        assertFalse(batchRepository.exists(request.getBatchId()));
+        verifyNoInteractions(transactionProcessorService);
+    }
+
+    @Test
+    void processBulkTransactions_RejectBatchMode_BoundRequestNotValidatedAgain() {
+        // Arrange: in this mode the request was validated when it was bound
+        BulkTransactionRequest request = createBulkTransactionRequest();
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class)))
+                .thenReturn(TransactionResult.builder().status("SUCCESS").build());
+
+        // Act
+        bulkTransactionService.processBulkTransactions(request);
+
+        // Assert
+        assertEquals(0, meterRegistry.get("batch.validation").timer().count());
+    }
+
+    @Test
+    void processBulkTransactions_AccountOverDebitLimit_FailsAccountItems() {
+        // Arrange: both items debit account 123456 for a total of 1500.00
+        BulkTransactionService service = createService(ValidationMode.REJECT_BATCH, new BigDecimal("1200.00"));
+        BulkTransactionRequest request = createBulkTransactionRequest();
+
+        // Act
+        BulkTransactionResponse response = service.processBulkTransactions(request);
+
+        // Assert
+        assertEquals("FAILED", response.getResults().get(0).getStatus());
+        assertEquals("FAILED", response.getResults().get(1).getStatus());
+        assertTrue(response.getResults().get(0).getReason().contains("exceeds limit"));
+        verify(transactionProcessorService, never()).processTransaction(any(TransactionRequest.class));
+    }
+
+    @Test
+    void replayFailures_ReplaysOnlyFailedItemsAndMergesResults() {
+        // Arrange
+        BulkTransactionRequest request = createBulkTransactionRequest();
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class)))
+                .thenReturn(TransactionResult.builder().transactionId("TXN-001").status("SUCCESS").build())
+                .thenReturn(TransactionResult.builder().transactionId("TXN-002").status("FAILED")
+                        .reason("All retry attempts failed: Connection refused").build())
+                .thenReturn(TransactionResult.builder().transactionId("TXN-002").status("SUCCESS").build());
+        bulkTransactionService.processBulkTransactions(request);
+
+        // Act
+        BulkTransactionResponse response = bulkTransactionService.replayFailures("BATCH-001", "All retry attempts");
+
+        // Assert
+        assertEquals("SUCCESS", response.getResults().get(0).getStatus());
+        assertEquals("SUCCESS", response.getResults().get(1).getStatus());
+        assertEquals("SUCCESS", bulkTransactionService.getBatchResults("BATCH-001").getResults().get(1).getStatus());
+        verify(transactionProcessorService, times(3)).processTransaction(any(TransactionRequest.class));
+        assertEquals(1.0, meterRegistry.get("batch.replay.items").counter().count());
+        verify(eventPublisher).publishEvent(new BatchResultsChangedEvent("BATCH-001"));
+    }
+
+    @Test
+    void replayFailures_ReasonNotMatchingOrRejectedByValidation_NothingSent() {
+        // Arrange: TXN-002 fails pre-flight validation and is never sent downstream
+        BulkTransactionService service = createService(ValidationMode.REJECT_ITEMS, BigDecimal.ZERO);
+        BulkTransactionRequest request = createBulkTransactionRequest();
+        request.getTransactions().get(1).setAmount(new BigDecimal("-5.00"));
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class)))
+                .thenReturn(TransactionResult.builder().transactionId("TXN-001").status("FAILED")
+                        .reason(BatchDeadline.EXCEEDED_REASON).build());
+        service.processBulkTransactions(request);
+
+        // Act
+        service.replayFailures("BATCH-001", "All retry attempts");
+        BulkTransactionResponse response = service.replayFailures("BATCH-001", null);
+
+        // Assert: only the deadline failure of TXN-001 was replayed, by the unfiltered call
+        assertEquals("FAILED", response.getResults().get(1).getStatus());
+        assertTrue(response.getResults().get(1).getReason().startsWith("Validation failed"));
+        verify(transactionProcessorService, times(2)).processTransaction(any(TransactionRequest.class));
+    }
+
+    @Test
+    void replayFailures_OutcomeUnknown_NotSentAgain() {
+        // Arrange: TXN-002 stayed PENDING until reconciliation gave up on it
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class)))
+                .thenReturn(TransactionResult.builder().transactionId("TXN-001").status("SUCCESS").build());
+        bulkTransactionService.processBulkTransactions(createBulkTransactionRequest());
+        batchRepository.appendResult("BATCH-001", 1, TransactionResult.builder()
+                .transactionId("TXN-002")
+                .status("FAILED")
+                .reason(PendingTransactionReconciler.OUTCOME_UNKNOWN_REASON)
+                .failureCode(FailureCode.OUTCOME_UNKNOWN)
+                .build());
+
+        // Act
+        BulkTransactionResponse response = bulkTransactionService.replayFailures("BATCH-001", null);
+
+        // Assert
+        assertEquals(FailureCode.OUTCOME_UNKNOWN, response.getResults().get(1).getFailureCode());
+        verify(transactionProcessorService, times(2)).processTransaction(any(TransactionRequest.class));
+    }
+
+    @Test
+    void replayFailures_UnfinishedBatch_Rejected() {
+        // Arrange
+        batchRepository.create(createBulkTransactionRequest());
+
+        // Act & Assert
+        assertThrows(BatchReplayRejectedException.class,
+                () -> bulkTransactionService.replayFailures("BATCH-001", null));
+        verify(transactionProcessorService, never()).processTransaction(any(TransactionRequest.class));
+    }
+
+    @Test
+    void processBulkTransactions_NettingMergedTransfer_EachMemberGetsOwnResult() {
+        // Arrange: two same-direction transfers between one pair, and one transfer on its own
+        BulkTransactionService service = createService(ValidationMode.REJECT_BATCH, BigDecimal.ZERO, true);
+        BulkTransactionRequest request = createNettingRequest(
+                transfer("TXN-N1", "111111", "222222", "100.00"),
+                transfer("TXN-N2", "111111", "222222", "50.00"),
+                transfer("TXN-N3", "333333", "444444", "10.00"));
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class))).thenAnswer(invocation ->
+                TransactionResult.builder()
+                        .transactionId(invocation.<TransactionRequest>getArgument(0).getTransactionId())
+                        .status("SUCCESS")
+                        .build());
+
+        // Act
+        BulkTransactionResponse response = service.processBulkTransactions(request);
+
+        // Assert: one call for the merged pair, under the netted id and the net amount
+        assertEquals(List.of("TXN-N1", "TXN-N2", "TXN-N3"),
+                response.getResults().stream().map(TransactionResult::getTransactionId).toList());
+        assertTrue(response.getResults().stream().allMatch(result -> "SUCCESS".equals(result.getStatus())));
+        verify(transactionProcessorService).processTransaction(argThat(transaction ->
+                transaction.getTransactionId().equals("NET-TXN-N1")
+                        && transaction.getAmount().compareTo(new BigDecimal("150.00")) == 0));
+        verify(transactionProcessorService, times(2)).processTransaction(any(TransactionRequest.class));
+    }
+
+    @Test
+    void processBulkTransactions_NettingOffsetPair_RecordedAsSuccessWithoutDownstreamCall() {
+        // Arrange: opposite transfers of the same amount cancel out
+        BulkTransactionService service = createService(ValidationMode.REJECT_BATCH, BigDecimal.ZERO, true);
+        BulkTransactionRequest request = createNettingRequest(
+                transfer("TXN-N1", "111111", "222222", "75.00"),
+                transfer("TXN-N2", "222222", "111111", "75.00"));
+
+        // Act
+        BulkTransactionResponse response = service.processBulkTransactions(request);
+
+        // Assert
+        assertEquals("TXN-N1", response.getResults().get(0).getTransactionId());
+        assertEquals("SUCCESS", response.getResults().get(0).getStatus());
+        assertEquals("TXN-N2", response.getResults().get(1).getTransactionId());
+        assertEquals("SUCCESS", response.getResults().get(1).getStatus());
+        verifyNoInteractions(transactionProcessorService);
+    }
+
+    @Test
+    void processBulkTransactions_NettingPendingTransfer_TrackedForAllMembers() {
+        // Arrange
+        BulkTransactionService service = createService(ValidationMode.REJECT_BATCH, BigDecimal.ZERO, true);
+        BulkTransactionRequest request = createNettingRequest(
+                transfer("TXN-N1", "111111", "222222", "100.00"),
+                transfer("TXN-N2", "222222", "111111", "40.00"));
+        when(transactionProcessorService.processTransaction(any(TransactionRequest.class)))
+                .thenReturn(TransactionResult.builder().transactionId("NET-TXN-N1").status("PENDING").build());
+
+        // Act
+        BulkTransactionResponse response = service.processBulkTransactions(request);
+
+        // Assert: both members are pending, reconciled once under the netted id
+        assertEquals("PENDING", response.getResults().get(0).getStatus());
+        assertEquals("TXN-N1", response.getResults().get(0).getTransactionId());
+        assertEquals("PENDING", response.getResults().get(1).getStatus());
+        assertEquals("TXN-N2", response.getResults().get(1).getTransactionId());
+        verify(reconciler).track("BATCH-N", new int[]{0, 1}, "NET-TXN-N1");
+    }
+
+    private BulkTransactionService createService(ValidationMode validationMode, BigDecimal debitLimit) {
+        return createService(validationMode, debitLimit, false);
+    }
+
+    private BulkTransactionService createService(ValidationMode validationMode, BigDecimal debitLimit,
+                                                 boolean netting) {
+        // Direct executor keeps item processing on the test thread, in batch order
+        return new BulkTransactionService(transactionProcessorService, batchRepository,
+                new BatchPreflightValidator(validationMode, 1, 34, 2, meterRegistry),
+                new AccountOrderedScheduler(Runnable::run),
+                new AccountDebitPrecheck(debitLimit),
+                new TransferNettingService(netting, meterRegistry),
+                new AdmissionControlService(true, 1000, 1.0, 0, 5, meterRegistry),
+                new ShardCoordinator(mock(PeerClient.class), false, List.of(), 5000, 1000, 30, meterRegistry),
+                new BatchRouter(mock(PeerClient.class), false, "", List.of(), 128, 5),
+                null, new BatchCallbackService(WebClient.builder(), true, 0, 10, 1000, 0, meterRegistry),
+                reconciler, new BatchDrainCoordinator(event -> { }, true, 45, 10, 5, meterRegistry), eventPublisher,
+                null, 0, meterRegistry);
+    }
+
+    private static BulkTransactionRequest createNettingRequest(TransactionRequest... transactions) {
+        return BulkTransactionRequest.builder()
+                .batchId("BATCH-N")
+                .transactions(List.of(transactions))
+                .build();
+    }
+
+    private static TransactionRequest transfer(String transactionId, String from, String to, String amount) {
+        return TransactionRequest.builder()
+                .transactionId(transactionId)
+                .fromAccount(from)
+                .toAccount(to)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+
     private BulkTransactionRequest createBulkTransactionRequest() {
         TransactionRequest tx1 = TransactionRequest.builder()
                 .transactionId("TXN-001")
@@ -196,4 +538,19 @@ class BulkTransactionServiceTest {
                 .transactions(List.of(tx1, tx2))
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Answers the service's async call with whatever the test stubbed on the blocking one
+     */
+    private void answerAsyncWithBlockingStubs() {
+        lenient().when(transactionProcessorService.processTransactionAsync(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    try {
+                        return CompletableFuture.completedFuture(transactionProcessorService.processTransaction(
+                                invocation.<TransactionRequest>getArgument(0)));
+                    } catch (RuntimeException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+    }
+}
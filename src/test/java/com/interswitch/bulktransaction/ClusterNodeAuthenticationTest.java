@@ -0,0 +1,89 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.security.ClusterNodeAuthenticationFilter;
+import com.interswitch.bulktransaction.security.JwtAuthenticationFilter;
+import com.interswitch.bulktransaction.security.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for authentication of internal calls between replicas
+ * Tests that the NODE role comes from the cluster node secret only, never from a JWT
+ */
+class ClusterNodeAuthenticationTest {
+
+    private static final String NODE_SECRET = "cluster-secret";
+    private static final String SHARD_PATH = "/internal/v1/shards";
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void nodeFilter_MatchingSecret_GrantsNodeRole() throws Exception {
+        // Arrange
+        ClusterNodeAuthenticationFilter filter = new ClusterNodeAuthenticationFilter(NODE_SECRET);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", SHARD_PATH);
+        request.setRequestURI(SHARD_PATH);
+        request.addHeader(ClusterNodeAuthenticationFilter.NODE_SECRET_HEADER, NODE_SECRET);
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        assertEquals(List.of("ROLE_NODE"), authorities());
+    }
+
+    @Test
+    void nodeFilter_WrongOrUnsetSecret_GrantsNothing() throws Exception {
+        // Arrange
+        ClusterNodeAuthenticationFilter filter = new ClusterNodeAuthenticationFilter(NODE_SECRET);
+        ClusterNodeAuthenticationFilter unset = new ClusterNodeAuthenticationFilter("");
+        MockHttpServletRequest wrong = new MockHttpServletRequest("POST", SHARD_PATH);
+        wrong.setRequestURI(SHARD_PATH);
+        wrong.addHeader(ClusterNodeAuthenticationFilter.NODE_SECRET_HEADER, "guess");
+        MockHttpServletRequest empty = new MockHttpServletRequest("POST", SHARD_PATH);
+        empty.setRequestURI(SHARD_PATH);
+        empty.addHeader(ClusterNodeAuthenticationFilter.NODE_SECRET_HEADER, "");
+
+        // Act
+        filter.doFilter(wrong, new MockHttpServletResponse(), new MockFilterChain());
+        unset.doFilter(empty, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void jwtFilter_TokenClaimingNodeRole_DoesNotGrantIt() throws Exception {
+        // Arrange
+        JwtService jwtService = new JwtService("testSecretKeyForJWTAuthenticationTesting12345678901234");
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, null);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", SHARD_PATH);
+        request.setRequestURI(SHARD_PATH);
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken("intruder", List.of("USER", "NODE")));
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // Assert
+        assertEquals(List.of("ROLE_USER"), authorities());
+    }
+
+    private static List<String> authorities() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+}
@@ -0,0 +1,130 @@
+package com.interswitch.bulktransaction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+import com.interswitch.bulktransaction.compression.ContentEncoding;
+import com.interswitch.bulktransaction.compression.RequestBodyTooLargeException;
+import com.interswitch.bulktransaction.compression.RequestDecompressionFilter;
+import com.interswitch.bulktransaction.compression.ResponseCompressionFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the request decompression and response compression filters
+ */
+class CompressionFilterTest {
+
+    private static final String BODY = "{\"batchId\":\"BATCH-001\",\"transactions\":[]}";
+
+    @Test
+    void requestDecompression_GzipBody_IsInflatedForTheHandler() throws Exception {
+        // Arrange
+        RequestDecompressionFilter filter = new RequestDecompressionFilter(new ObjectMapper().findAndRegisterModules(), 1024);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/bulk-transactions");
+        request.addHeader("Content-Encoding", "gzip");
+        request.setContent(gzip(BODY));
+        AtomicReference<String> seenBody = new AtomicReference<>();
+        AtomicReference<String> seenEncoding = new AtomicReference<>();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res)
+                    throws IOException {
+                seenBody.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+                seenEncoding.set(((HttpServletRequest) req).getHeader("Content-Encoding"));
+            }
+        });
+
+        // Assert
+        assertEquals(BODY, seenBody.get());
+        assertNull(seenEncoding.get());
+    }
+
+    @Test
+    void requestDecompression_InflatesPastLimit_FailsWhileReading() throws Exception {
+        // Arrange
+        RequestDecompressionFilter filter = new RequestDecompressionFilter(new ObjectMapper().findAndRegisterModules(), 16);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/bulk-transactions");
+        request.addHeader("Content-Encoding", "zstd");
+        request.setContent(Zstd.compress(BODY.getBytes(StandardCharsets.UTF_8)));
+
+        // Act & Assert
+        assertThrows(RequestBodyTooLargeException.class, () ->
+                filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+                    @Override
+                    public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res)
+                            throws IOException {
+                        req.getInputStream().readAllBytes();
+                    }
+                }));
+    }
+
+    @Test
+    void requestDecompression_UnknownEncoding_Returns415() throws Exception {
+        // Arrange
+        RequestDecompressionFilter filter = new RequestDecompressionFilter(new ObjectMapper().findAndRegisterModules(), 1024);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/bulk-transactions");
+        request.addHeader("Content-Encoding", "br");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertEquals(415, response.getStatus());
+    }
+
+    @Test
+    void responseCompression_AcceptsZstd_EncodesBodyWithZstd() throws Exception {
+        // Arrange
+        ResponseCompressionFilter filter = new ResponseCompressionFilter(3);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/bulk-transactions/BATCH-001");
+        request.addHeader("Accept-Encoding", "gzip, zstd");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res)
+                    throws IOException {
+                res.setContentLength(BODY.length());
+                res.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+
+        // Assert
+        byte[] compressed = response.getContentAsByteArray();
+        assertEquals("zstd", response.getHeader("Content-Encoding"));
+        assertNull(response.getHeader("Content-Length"));
+        assertEquals(BODY, new String(ContentEncoding.ZSTD.decode(
+                new ByteArrayInputStream(compressed)).readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void negotiate_RefusedCodings_AreSkipped() {
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("zstd;q=0, gzip"));
+        assertEquals(ContentEncoding.ZSTD, ContentEncoding.negotiate("br, zstd;q=0.5"));
+        assertNull(ContentEncoding.negotiate("identity"));
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
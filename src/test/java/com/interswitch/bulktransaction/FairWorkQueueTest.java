@@ -0,0 +1,143 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.scheduling.AccountOrderedScheduler;
+import com.interswitch.bulktransaction.scheduling.FairWorkQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FairWorkQueue
+ * Tests round-robin service across batches, the global concurrency bound and closing with queued work
+ */
+class FairWorkQueueTest {
+
+    private FairWorkQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+    }
+
+    @Test
+    void smallBatch_IsServedBetweenItemsOfLargeBatch() throws InterruptedException {
+        // Arrange: the only worker is held until both batches have queued their items
+        queue = new FairWorkQueue(1, new SimpleMeterRegistry());
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(104);
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        Executor large = queue.newLane();
+        Executor small = queue.newLane();
+
+        large.execute(() -> {
+            blocked.countDown();
+            awaitQuietly(release);
+            done.countDown();
+        });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            large.execute(() -> {
+                executed.add("large");
+                done.countDown();
+            });
+        }
+        for (int i = 0; i < 3; i++) {
+            small.execute(() -> {
+                executed.add("small");
+                done.countDown();
+            });
+        }
+        assertEquals(2, queue.getActiveLanes());
+
+        // Act
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        // Assert: lanes alternate, so the small batch is done after three tasks of the large one
+        assertEquals(List.of("large", "small", "large", "small", "large", "small"), executed.subList(0, 6));
+        assertEquals(0, queue.getQueuedTasks());
+    }
+
+    @Test
+    void manyBatches_ConcurrencyBoundedByWorkers() throws InterruptedException {
+        // Arrange
+        queue = new FairWorkQueue(4, new SimpleMeterRegistry());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(200);
+
+        // Act: 10 batches of 20 items
+        for (int batch = 0; batch < 10; batch++) {
+            Executor lane = queue.newLane();
+            for (int i = 0; i < 20; i++) {
+                lane.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleepQuietly();
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+        }
+
+        // Assert
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 4, "ran " + maxRunning.get() + " tasks at once");
+        assertEquals(4, maxRunning.get());
+    }
+
+    @Test
+    void close_QueuedItems_TheirFuturesFailInsteadOfHanging() throws InterruptedException {
+        // Arrange: the only worker is busy, so the second item stays queued
+        queue = new FairWorkQueue(1, new SimpleMeterRegistry());
+        AccountOrderedScheduler scheduler = new AccountOrderedScheduler(queue, () -> CompletableFuture.completedFuture(null));
+        AccountOrderedScheduler.BatchSchedule schedule = scheduler.newSchedule();
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        schedule.submit("ACC-1", () -> {
+            blocked.countDown();
+            awaitQuietly(release);
+            return "running";
+        });
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = schedule.submit("ACC-2", () -> "queued");
+
+        // Act
+        queue.close();
+
+        // Assert
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+        assertEquals(0, queue.getQueuedTasks());
+        assertTrue(schedule.submit("ACC-3", () -> "late").isCompletedExceptionally());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
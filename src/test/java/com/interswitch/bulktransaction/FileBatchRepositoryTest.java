@@ -0,0 +1,176 @@
+package com.interswitch.bulktransaction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import com.interswitch.bulktransaction.repository.FileBatchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FileBatchRepository
+ * Tests journal replay across restarts, idempotency checks, dispatch markers and retention
+ */
+class FileBatchRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void completedBatch_SurvivesRestart() {
+        // Arrange
+        FileBatchRepository repository = open();
+        repository.create(createRequest("BATCH-001"));
+        repository.appendResult("BATCH-001", 0, success("TXN-001"));
+        repository.appendResult("BATCH-001", 1, success("TXN-002"));
+        repository.finalizeBatch("BATCH-001");
+        repository.close();
+
+        // Act
+        FileBatchRepository reopened = open();
+
+        // Assert
+        BulkTransactionResponse response = reopened.findResponse("BATCH-001").orElseThrow();
+        assertEquals(2, response.getResults().size());
+        assertEquals("TXN-002", response.getResults().get(1).getTransactionId());
+        assertFalse(reopened.create(createRequest("BATCH-001")));
+        assertTrue(reopened.findUnfinished().isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void unfinishedBatch_IsReportedWithPartialResults() {
+        // Arrange
+        FileBatchRepository repository = open();
+        repository.create(createRequest("BATCH-002"));
+        repository.appendResult("BATCH-002", 0, success("TXN-001"));
+        repository.close();
+
+        // Act
+        FileBatchRepository reopened = open();
+        List<BatchRecord> unfinished = reopened.findUnfinished();
+
+        // Assert
+        assertEquals(1, unfinished.size());
+        assertEquals(1, unfinished.get(0).getCompletedItems());
+        assertNotNull(unfinished.get(0).getResult(0));
+        assertNull(unfinished.get(0).getResult(1));
+        assertTrue(reopened.findResponse("BATCH-002").isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void dispatchedItemWithoutResult_IsInDoubtAfterRestart() {
+        // Arrange: the marker is durable before its future completes, the result never arrives
+        FileBatchRepository repository = open();
+        repository.create(createRequest("BATCH-004"));
+        repository.appendResult("BATCH-004", 0, success("TXN-001"));
+        repository.markDispatched("BATCH-004", new int[]{0}, "TXN-001").join();
+        repository.markDispatched("BATCH-004", new int[]{1}, "TXN-002").join();
+        repository.close();
+
+        // Act
+        FileBatchRepository reopened = open();
+        BatchRecord batch = reopened.findBatch("BATCH-004").orElseThrow();
+
+        // Assert
+        assertFalse(batch.isInDoubt(0));
+        assertTrue(batch.isInDoubt(1));
+        assertEquals("TXN-002", batch.getDispatchedId(1));
+        assertTrue(reopened.isWritable());
+        reopened.close();
+    }
+
+    @Test
+    void truncatedJournalEntry_IsIgnoredOnReplay() throws IOException {
+        // Arrange: simulate a crash in the middle of a write
+        FileBatchRepository repository = open();
+        repository.create(createRequest("BATCH-003"));
+        repository.close();
+        Files.writeString(directory.resolve("batches.journal"), "{\"type\":\"RES",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // Act
+        FileBatchRepository reopened = open();
+        reopened.appendResult("BATCH-003", 0, success("TXN-001"));
+        reopened.close();
+
+        // Assert
+        FileBatchRepository again = open();
+        assertEquals(1, again.findBatch("BATCH-003").orElseThrow().getCompletedItems());
+        again.close();
+    }
+
+    @Test
+    void finishedBatchPastRetention_DroppedFromMemoryAndJournal() throws Exception {
+        // Arrange
+        FileBatchRepository repository = new FileBatchRepository(objectMapper, directory, 64, false, Duration.ofMillis(1));
+        repository.create(createRequest("BATCH-OLD"));
+        repository.appendResult("BATCH-OLD", 0, success("TXN-001"));
+        repository.appendResult("BATCH-OLD", 1, success("TXN-002"));
+        repository.finalizeBatch("BATCH-OLD");
+        repository.create(createRequest("BATCH-PENDING"));
+        repository.appendResult("BATCH-PENDING", 0, success("TXN-001"));
+        repository.appendResult("BATCH-PENDING", 1,
+                TransactionResult.builder().transactionId("TXN-002").status("PENDING").build());
+        repository.finalizeBatch("BATCH-PENDING");
+        repository.create(createRequest("BATCH-RUNNING"));
+        Thread.sleep(5);
+
+        // Act
+        repository.purgeExpired();
+        repository.close();
+
+        // Assert: the journal was compacted while running, so a restart without retention sees the same
+        assertFalse(repository.exists("BATCH-OLD"));
+        assertFalse(Files.readString(directory.resolve("batches.journal")).contains("BATCH-OLD"));
+        FileBatchRepository reopened = open();
+        assertFalse(reopened.exists("BATCH-OLD"));
+        assertTrue(reopened.findResponse("BATCH-PENDING").isPresent());
+        assertEquals(1, reopened.findUnfinished().size());
+        reopened.close();
+    }
+
+    private FileBatchRepository open() {
+        return new FileBatchRepository(objectMapper, directory, 64, false);
+    }
+
+    private TransactionResult success(String transactionId) {
+        return TransactionResult.builder().transactionId(transactionId).status("SUCCESS").build();
+    }
+
+    private BulkTransactionRequest createRequest(String batchId) {
+        return BulkTransactionRequest.builder()
+                .batchId(batchId)
+                .transactions(List.of(
+                        TransactionRequest.builder()
+                                .transactionId("TXN-001")
+                                .fromAccount("123456")
+                                .toAccount("654321")
+                                .amount(new BigDecimal("100.00"))
+                                .build(),
+                        TransactionRequest.builder()
+                                .transactionId("TXN-002")
+                                .fromAccount("123456")
+                                .toAccount("987654")
+                                .amount(new BigDecimal("50.00"))
+                                .build()))
+                .build();
+    }
+}
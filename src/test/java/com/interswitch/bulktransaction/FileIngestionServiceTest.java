@@ -0,0 +1,130 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.exceptions.BatchFileRejectedException;
+import com.interswitch.bulktransaction.ingestion.FileFormat;
+import com.interswitch.bulktransaction.ingestion.FileIngestionService;
+import com.interswitch.bulktransaction.ingestion.LineError;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import com.interswitch.bulktransaction.validation.ValidationMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FileIngestionService
+ */
+@ExtendWith(MockitoExtension.class)
+class FileIngestionServiceTest {
+
+    @Mock
+    private BulkTransactionService bulkTransactionService;
+
+    private FileIngestionService fileIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        BatchPreflightValidator validator =
+                new BatchPreflightValidator(ValidationMode.REJECT_BATCH, 1, 34, 2, new SimpleMeterRegistry());
+        fileIngestionService = new FileIngestionService(bulkTransactionService, validator,
+                new int[]{8, 10, 10, 10}, 2, 100);
+    }
+
+    @Test
+    void ingest_CsvWithHeaderAndQuotes_MapsRowsInOrder() throws Exception {
+        // Arrange
+        String csv = "transactionId,fromAccount,toAccount,amount\n"
+                + "TXN-001,123456,654321,1000.00\n"
+                + "\n"
+                + "\"TXN-002\",\"222222\",333333,25.5\n";
+        when(bulkTransactionService.processBulkTransactions(any()))
+                .thenReturn(BulkTransactionResponse.builder().batchId("FILE-1").build());
+
+        // Act
+        fileIngestionService.ingest("FILE-1", FileFormat.CSV, stream(csv), StandardCharsets.UTF_8);
+
+        // Assert
+        ArgumentCaptor<BulkTransactionRequest> captor = ArgumentCaptor.forClass(BulkTransactionRequest.class);
+        verify(bulkTransactionService).processBulkTransactions(captor.capture());
+        List<TransactionRequest> transactions = captor.getValue().getTransactions();
+        assertEquals(2, transactions.size());
+        assertEquals("TXN-002", transactions.get(1).getTransactionId());
+        assertEquals("222222", transactions.get(1).getFromAccount());
+        assertEquals(new BigDecimal("25.5"), transactions.get(1).getAmount());
+    }
+
+    @Test
+    void ingest_FixedWidthWithImpliedDecimals_ParsesMinorUnits() throws Exception {
+        // Arrange
+        String file = "TXN-001 0123456789987654321000000150\n";
+        when(bulkTransactionService.processBulkTransactions(any()))
+                .thenReturn(BulkTransactionResponse.builder().batchId("FILE-2").build());
+
+        // Act
+        fileIngestionService.ingest("FILE-2", FileFormat.FIXED_WIDTH, stream(file), StandardCharsets.UTF_8);
+
+        // Assert
+        ArgumentCaptor<BulkTransactionRequest> captor = ArgumentCaptor.forClass(BulkTransactionRequest.class);
+        verify(bulkTransactionService).processBulkTransactions(captor.capture());
+        TransactionRequest transaction = captor.getValue().getTransactions().get(0);
+        assertEquals("TXN-001", transaction.getTransactionId());
+        assertEquals("0123456789", transaction.getFromAccount());
+        assertEquals("9876543210", transaction.getToAccount());
+        assertEquals(new BigDecimal("1.50"), transaction.getAmount());
+    }
+
+    @Test
+    void ingest_BadRows_ReportsLineNumbers() {
+        // Arrange
+        String csv = "transactionId,fromAccount,toAccount,amount\n"
+                + "TXN-001,123456,654321,1000.00\n"
+                + "TXN-002,123456,654321,abc\n"
+                + "TXN-003,123456\n";
+
+        // Act
+        BatchFileRejectedException ex = assertThrows(BatchFileRejectedException.class, () ->
+                fileIngestionService.ingest("FILE-3", FileFormat.CSV, stream(csv), StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals(List.of(3L, 4L), ex.getErrors().stream().map(LineError::line).toList());
+        verify(bulkTransactionService, never()).processBulkTransactions(any());
+    }
+
+    @Test
+    void ingest_InvalidRowInRejectBatchMode_ReportsLineOfRow() {
+        // Arrange
+        String csv = "TXN-001,123456,654321,1000.00\n"
+                + "\n"
+                + "TXN-002,123456,123456,10.00\n";
+
+        // Act
+        BatchFileRejectedException ex = assertThrows(BatchFileRejectedException.class, () ->
+                fileIngestionService.ingest("FILE-4", FileFormat.CSV, stream(csv), StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals(1, ex.getErrors().size());
+        assertEquals(3L, ex.getErrors().get(0).line());
+        assertTrue(ex.getErrors().get(0).message().contains("must be different"));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,190 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.admission.AdmissionControlService;
+import com.interswitch.bulktransaction.callback.BatchCallbackService;
+import com.interswitch.bulktransaction.client.TransactionServiceClient;
+import com.interswitch.bulktransaction.cluster.BatchRouter;
+import com.interswitch.bulktransaction.cluster.PeerClient;
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.drain.BatchDrainCoordinator;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionServiceRequest;
+import com.interswitch.bulktransaction.dto.response.TransactionServiceResponse;
+import com.interswitch.bulktransaction.netting.TransferNettingService;
+import com.interswitch.bulktransaction.profiling.AttemptEvent;
+import com.interswitch.bulktransaction.profiling.BatchEvent;
+import com.interswitch.bulktransaction.profiling.FallbackEvent;
+import com.interswitch.bulktransaction.profiling.FlightRecorderEndpoint;
+import com.interswitch.bulktransaction.profiling.IdempotencyHitEvent;
+import com.interswitch.bulktransaction.profiling.ItemEvent;
+import com.interswitch.bulktransaction.reconciliation.PendingTransactionReconciler;
+import com.interswitch.bulktransaction.repository.InMemoryBatchRepository;
+import com.interswitch.bulktransaction.scheduling.AccountDebitPrecheck;
+import com.interswitch.bulktransaction.scheduling.AccountOrderedScheduler;
+import com.interswitch.bulktransaction.service.BulkTransactionService;
+import com.interswitch.bulktransaction.service.TransactionProcessorService;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import com.interswitch.bulktransaction.validation.ValidationMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the JFR events and the flight recorder endpoint
+ * Tests the events recorded for a batch, its items, attempts and a duplicate submission,
+ * and starting, dumping and stopping a recording through the endpoint
+ */
+@ExtendWith(MockitoExtension.class)
+class FlightRecorderEventsTest {
+
+    @Mock
+    private TransactionServiceClient transactionServiceClient;
+
+    @TempDir
+    private Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void processBulkTransactions_RecordingRunning_BatchItemAttemptAndIdempotencyEventsRecorded() throws Exception {
+        // Arrange
+        when(transactionServiceClient.processTransaction(any(TransactionServiceRequest.class)))
+                .thenReturn(TransactionServiceResponse.builder().transactionId("TXN-001").status("SUCCESS").build());
+        when(transactionServiceClient.processTransaction(argThat(request -> "TXN-002".equals(request.getTransactionId()))))
+                .thenReturn(TransactionServiceResponse.builder().transactionId("TXN-002").status("PENDING").build());
+        BulkTransactionService service = createService();
+        Path file = tempDir.resolve("events.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable(BatchEvent.class);
+            recording.enable(ItemEvent.class);
+            recording.enable(AttemptEvent.class);
+            recording.enable(IdempotencyHitEvent.class);
+            recording.start();
+            service.processBulkTransactions(createRequest());
+            service.processBulkTransactions(createRequest());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        List<RecordedEvent> batches = ofType(events, BatchEvent.NAME);
+        assertEquals(1, batches.size());
+        RecordedEvent batch = batches.get(0);
+        assertEquals("BATCH-J1", batch.getString("batchId"));
+        assertEquals("process", batch.getString("run"));
+        assertEquals(2, batch.getInt("items"));
+        assertEquals(1, batch.getInt("succeeded"));
+        assertEquals(1, batch.getInt("pending"));
+        assertEquals(0, batch.getInt("failed"));
+
+        List<RecordedEvent> items = ofType(events, ItemEvent.NAME);
+        assertEquals(2, items.size());
+        assertTrue(items.stream().allMatch(item -> "BATCH-J1".equals(item.getString("batchId"))));
+        assertEquals(2, ofType(events, AttemptEvent.NAME).size());
+
+        List<RecordedEvent> hits = ofType(events, IdempotencyHitEvent.NAME);
+        assertEquals(1, hits.size());
+        assertTrue(hits.get(0).getBoolean("completed"));
+    }
+
+    @Test
+    void retryFallback_RecordingRunning_FallbackEventWithFailureCodeRecorded() throws Exception {
+        // Arrange
+        TransactionProcessorService processor = new TransactionProcessorService(transactionServiceClient);
+        Path file = tempDir.resolve("fallback.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable(FallbackEvent.class);
+            recording.start();
+            processor.retryFallback(transaction("TXN-009", "111111"), new RuntimeException("Connection refused"));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Assert
+        List<RecordedEvent> fallbacks = ofType(RecordingFile.readAllEvents(file), FallbackEvent.NAME);
+        assertEquals(1, fallbacks.size());
+        assertEquals("TXN-009", fallbacks.get(0).getString("transactionId"));
+        assertEquals("UNEXPECTED_ERROR", fallbacks.get(0).getString("failureCode"));
+    }
+
+    @Test
+    void endpoint_StartDumpStop_RecordingDumpedToFileThenClosed() throws Exception {
+        // Arrange: no continuous recording, so only the one started here is involved
+        FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint(false, "default", 1, 1, tempDir.toString());
+
+        // Act
+        FlightRecorderEndpoint.RecordingInfo started = endpoint.start("test-recording", "default", null).getBody();
+        WebEndpointResponse<Resource> dump = endpoint.dump(started.id());
+        WebEndpointResponse<FlightRecorderEndpoint.RecordingInfo> stopped = endpoint.stop(started.id());
+
+        // Assert
+        assertEquals("RUNNING", started.state());
+        assertTrue(endpoint.recordings().stream().noneMatch(recording -> recording.id() == started.id()));
+        assertEquals(200, dump.getStatus());
+        assertTrue(dump.getBody().contentLength() > 0);
+        assertEquals("test-recording", stopped.getBody().name());
+        assertEquals(404, endpoint.dump(started.id()).getStatus());
+        assertEquals(400, endpoint.start(null, "no-such-settings", null).getStatus());
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> name.equals(event.getEventType().getName())).toList();
+    }
+
+    private BulkTransactionService createService() {
+        // Direct executor keeps item processing on the test thread
+        return new BulkTransactionService(new TransactionProcessorService(transactionServiceClient),
+                new InMemoryBatchRepository(),
+                new BatchPreflightValidator(ValidationMode.REJECT_BATCH, 1, 34, 2, meterRegistry),
+                new AccountOrderedScheduler(Runnable::run),
+                new AccountDebitPrecheck(BigDecimal.ZERO),
+                new TransferNettingService(false, meterRegistry),
+                new AdmissionControlService(true, 1000, 1.0, 0, 5, meterRegistry),
+                new ShardCoordinator(mock(PeerClient.class), false, List.of(), 5000, 1000, 30, meterRegistry),
+                new BatchRouter(mock(PeerClient.class), false, "", List.of(), 128, 5),
+                null, new BatchCallbackService(WebClient.builder(), true, 0, 10, 1000, 0, meterRegistry),
+                mock(PendingTransactionReconciler.class),
+                new BatchDrainCoordinator(event -> { }, true, 45, 10, 5, meterRegistry), event -> { }, null, 0,
+                meterRegistry);
+    }
+
+    private static BulkTransactionRequest createRequest() {
+        return BulkTransactionRequest.builder()
+                .batchId("BATCH-J1")
+                .transactions(List.of(transaction("TXN-001", "111111"), transaction("TXN-002", "222222")))
+                .build();
+    }
+
+    private static TransactionRequest transaction(String transactionId, String fromAccount) {
+        return TransactionRequest.builder()
+                .transactionId(transactionId)
+                .fromAccount(fromAccount)
+                .toAccount("654321")
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+}
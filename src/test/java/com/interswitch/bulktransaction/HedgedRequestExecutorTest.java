@@ -0,0 +1,143 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.client.HedgedRequestExecutor;
+import com.interswitch.bulktransaction.client.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HedgedRequestExecutor
+ * Tests warm-up, hedging a slow call, failure propagation, the hedge budget and hedge permits
+ */
+class HedgedRequestExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HedgedRequestExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void slowPrimary_IsHedged_AndFasterDuplicateWins() {
+        // Arrange
+        executor = new HedgedRequestExecutor(10, 20, 1.0, null, meterRegistry);
+        warmUp(10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act: first attempt hangs, the duplicate answers at once
+        long start = System.nanoTime();
+        String result = executor.execute(() -> attempts.incrementAndGet() == 1 ? sleep(5000) : "hedge");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertEquals("hedge", result);
+        assertTrue(elapsedMillis < 2000, "waited " + elapsedMillis + " ms for the slow attempt");
+        assertEquals(20, executor.getHedgeDelayMillis());
+        assertEquals(1.0, meterRegistry.get("downstream.hedge.sent").counter().count());
+        assertEquals(1.0, meterRegistry.get("downstream.hedge.wins").counter().count());
+    }
+
+    @Test
+    void warmingUp_CallsAreNotHedged() {
+        // Arrange
+        executor = new HedgedRequestExecutor(100, 1, 1.0, null, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = executor.execute(() -> {
+            attempts.incrementAndGet();
+            return sleep(50);
+        });
+
+        // Assert
+        assertEquals("slow", result);
+        assertEquals(1, attempts.get());
+        assertEquals(-1, executor.getHedgeDelayMillis());
+        assertEquals(0.0, meterRegistry.get("downstream.hedge.sent").counter().count());
+    }
+
+    @Test
+    void bothAttemptsFail_FirstFailureIsRethrown() {
+        // Arrange
+        executor = new HedgedRequestExecutor(10, 10, 1.0, null, meterRegistry);
+        warmUp(10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> executor.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(100);
+                throw new RuntimeException("Primary failed");
+            }
+            throw new RuntimeException("Hedge failed");
+        }));
+        assertEquals("Hedge failed", exception.getMessage());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void hedgeBudgetSpent_SlowCallIsNotDuplicated() {
+        // Arrange: hedges limited to 5% of calls, 11 calls so far allow none
+        executor = new HedgedRequestExecutor(10, 10, 0.05, null, meterRegistry);
+        warmUp(10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = executor.execute(() -> {
+            attempts.incrementAndGet();
+            return sleep(100);
+        });
+
+        // Assert
+        assertEquals("slow", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, meterRegistry.get("downstream.hedge.sent").counter().count());
+    }
+
+    @Test
+    void hedgeWithoutPermit_WaitsAndIsNotSentOncePrimaryAnswers() {
+        // Arrange: the limiter's next permit is about two seconds away
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1, 1, meterRegistry);
+        rateLimiter.reserve();
+        rateLimiter.reserve();
+        executor = new HedgedRequestExecutor(10, 20, 1.0, rateLimiter, meterRegistry);
+        warmUp(10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        String result = executor.execute(() -> {
+            attempts.incrementAndGet();
+            return sleep(300);
+        });
+
+        // Assert
+        assertEquals("slow", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, meterRegistry.get("downstream.hedge.sent").counter().count());
+        rateLimiter.close();
+    }
+
+    private void warmUp(int calls) {
+        for (int i = 0; i < calls; i++) {
+            executor.execute(() -> "fast");
+        }
+    }
+
+    private static String sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Cancelled");
+        }
+        return "slow";
+    }
+}
@@ -0,0 +1,207 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.cache.BatchResultsChangedEvent;
+import com.interswitch.bulktransaction.callback.BatchCallbackService;
+import com.interswitch.bulktransaction.client.TransactionServiceClient;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionStatusRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.FailureCode;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.dto.response.TransactionServiceResponse;
+import com.interswitch.bulktransaction.reconciliation.PendingTransactionReconciler;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import com.interswitch.bulktransaction.repository.InMemoryBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PendingTransactionReconciler with a mocked Transaction Service
+ * Tests settling of stored results, rescheduling of pending items, grouped status lookups and recovery
+ */
+@ExtendWith(MockitoExtension.class)
+class PendingTransactionReconcilerTest {
+
+    @Mock
+    private TransactionServiceClient transactionServiceClient;
+
+    @Mock
+    private BatchCallbackService callbackService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private InMemoryBatchRepository batchRepository;
+    private PendingTransactionReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        // No backoff, and a poll interval long enough that only the test polls
+        batchRepository = new InMemoryBatchRepository();
+        reconciler = new PendingTransactionReconciler(transactionServiceClient, batchRepository, callbackService,
+                eventPublisher, null, true, 60000, 2, 0, 0, 86400, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reconciler.close();
+    }
+
+    @Test
+    void pollDue_OutcomesSettled_StoredResultsReplacedAndCompletionResent() {
+        // Arrange: a finished batch with two pending items
+        BatchRecord batch = storeBatch("BATCH-P1", "PENDING", "PENDING", "SUCCESS");
+        reconciler.track("BATCH-P1", new int[]{0}, "TXN-0");
+        reconciler.track("BATCH-P1", new int[]{1}, "TXN-1");
+        when(transactionServiceClient.getTransactionStatuses(any(TransactionStatusRequest.class)))
+                .thenReturn(List.of(
+                        TransactionServiceResponse.builder().transactionId("TXN-0").status("SUCCESS").build(),
+                        TransactionServiceResponse.builder().transactionId("TXN-1").status("FAILED")
+                                .message("Account closed").build()));
+
+        // Act
+        int calls = reconciler.pollDue();
+
+        // Assert
+        assertEquals(1, calls);
+        assertEquals("SUCCESS", batch.getResult(0).getStatus());
+        assertEquals("FAILED", batch.getResult(1).getStatus());
+        assertEquals(FailureCode.DOWNSTREAM_REJECTED, batch.getResult(1).getFailureCode());
+        assertEquals("TXN-1", batch.getResult(1).getTransactionId());
+        assertEquals(0, reconciler.getPendingItems());
+        verify(eventPublisher).publishEvent(new BatchResultsChangedEvent("BATCH-P1"));
+        verify(callbackService).batchCompleted(any(BulkTransactionRequest.class), any(BulkTransactionResponse.class));
+        assertEquals(1.0, meterRegistry.get("reconciliation.items").tag("outcome", "success").counter().count());
+    }
+
+    @Test
+    void pollDue_LookupFailsThenStillPending_ItemKeptWithoutCompletion() {
+        // Arrange
+        BatchRecord batch = storeBatch("BATCH-P2", "PENDING");
+        reconciler.track("BATCH-P2", new int[]{0}, "TXN-0");
+        when(transactionServiceClient.getTransactionStatuses(any(TransactionStatusRequest.class)))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenReturn(List.of(
+                        TransactionServiceResponse.builder().transactionId("TXN-0").status("PENDING").build()));
+
+        // Act
+        reconciler.pollDue();
+        reconciler.pollDue();
+
+        // Assert
+        assertEquals("PENDING", batch.getResult(0).getStatus());
+        assertEquals(1, reconciler.getPendingItems());
+        assertEquals(1.0, meterRegistry.get("reconciliation.lookup.errors").counter().count());
+        verify(transactionServiceClient, times(2)).getTransactionStatuses(any(TransactionStatusRequest.class));
+        verifyNoInteractions(callbackService, eventPublisher);
+    }
+
+    @Test
+    void pollDue_ManyPendingItems_LookedUpInGroupsOfBatchSize() {
+        // Arrange: a netted transfer covering items 0 and 1, plus three single items
+        BatchRecord batch = storeBatch("BATCH-P3", "PENDING", "PENDING", "PENDING", "PENDING", "PENDING");
+        reconciler.track("BATCH-P3", new int[]{0, 1}, "NET-TXN-0");
+        for (int i = 2; i < 5; i++) {
+            reconciler.track("BATCH-P3", new int[]{i}, "TXN-" + i);
+        }
+        when(transactionServiceClient.getTransactionStatuses(any(TransactionStatusRequest.class)))
+                .thenAnswer(invocation -> {
+                    TransactionStatusRequest request = invocation.getArgument(0);
+                    return request.getTransactionIds().stream()
+                            .map(id -> TransactionServiceResponse.builder().transactionId(id).status("SUCCESS")
+                                    .build())
+                            .toList();
+                });
+
+        // Act
+        int calls = reconciler.pollDue();
+
+        // Assert
+        assertEquals(2, calls);
+        ArgumentCaptor<TransactionStatusRequest> requests = ArgumentCaptor.forClass(TransactionStatusRequest.class);
+        verify(transactionServiceClient, times(2)).getTransactionStatuses(requests.capture());
+        assertEquals(2, requests.getAllValues().get(0).getTransactionIds().size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("SUCCESS", batch.getResult(i).getStatus());
+            assertEquals("TXN-" + i, batch.getResult(i).getTransactionId());
+        }
+        verify(callbackService, times(1)).batchCompleted(any(), any());
+    }
+
+    @Test
+    void recoverPending_NettedTransfer_LookedUpOnceByNettedId() {
+        // Arrange: items 0 and 1 were sent as one netted transfer, item 2 on its own
+        storeBatch("BATCH-P4", "PENDING", "PENDING", "PENDING");
+        batchRepository.markDispatched("BATCH-P4", new int[]{0, 1}, "NET-TXN-0");
+        batchRepository.markDispatched("BATCH-P4", new int[]{2}, "TXN-2");
+        when(transactionServiceClient.getTransactionStatuses(any(TransactionStatusRequest.class)))
+                .thenReturn(List.of());
+
+        // Act
+        reconciler.recoverPending();
+        reconciler.pollDue();
+
+        // Assert
+        ArgumentCaptor<TransactionStatusRequest> request = ArgumentCaptor.forClass(TransactionStatusRequest.class);
+        verify(transactionServiceClient).getTransactionStatuses(request.capture());
+        assertEquals(Set.of("NET-TXN-0", "TXN-2"), Set.copyOf(request.getValue().getTransactionIds()));
+        assertEquals(2, reconciler.getPendingItems());
+    }
+
+    @Test
+    void track_ReconciliationDisabled_ItemFailsAtOnceWithOutcomeUnknown() {
+        // Arrange: item 0 was in doubt after a restart of a finished batch
+        reconciler.close();
+        reconciler = new PendingTransactionReconciler(transactionServiceClient, batchRepository, callbackService,
+                eventPublisher, null, false, 60000, 2, 0, 0, 86400, meterRegistry);
+        BatchRecord batch = storeBatch("BATCH-P5", "PENDING", "SUCCESS");
+
+        // Act
+        reconciler.track("BATCH-P5", new int[]{0}, "TXN-0");
+
+        // Assert
+        assertEquals("FAILED", batch.getResult(0).getStatus());
+        assertEquals(FailureCode.OUTCOME_UNKNOWN, batch.getResult(0).getFailureCode());
+        assertEquals(0, reconciler.getPendingItems());
+        verify(eventPublisher).publishEvent(new BatchResultsChangedEvent("BATCH-P5"));
+        verify(callbackService).batchCompleted(any(), any());
+        verifyNoInteractions(transactionServiceClient);
+    }
+
+    private BatchRecord storeBatch(String batchId, String... statuses) {
+        List<TransactionRequest> transactions = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            transactions.add(TransactionRequest.builder()
+                    .transactionId("TXN-" + i)
+                    .fromAccount("123456")
+                    .toAccount("654321")
+                    .amount(new BigDecimal("10.00"))
+                    .build());
+        }
+        batchRepository.create(BulkTransactionRequest.builder().batchId(batchId).transactions(transactions).build());
+        for (int i = 0; i < statuses.length; i++) {
+            batchRepository.appendResult(batchId, i,
+                    TransactionResult.builder().transactionId("TXN-" + i).status(statuses[i]).build());
+        }
+        batchRepository.finalizeBatch(batchId);
+        return batchRepository.findBatch(batchId).orElseThrow();
+    }
+}
@@ -0,0 +1,182 @@
+package com.interswitch.bulktransaction;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interswitch.bulktransaction.admission.AdmissionControlService;
+import com.interswitch.bulktransaction.client.TokenBucketRateLimiter;
+import com.interswitch.bulktransaction.drain.BatchDrainCoordinator;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.FailureCode;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.reactive.ReactiveTransactionPipeline;
+import com.interswitch.bulktransaction.service.BatchDeadline;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReactiveTransactionPipeline against a local stub Transaction Service
+ * Tests per-account ordering, retries, rate limiter permits and failure reasons
+ */
+class ReactiveTransactionPipelineTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, List<String>> arrivalsByAccount = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> attemptsById = new ConcurrentHashMap<>();
+    private HttpServer stub;
+    private WebClient webClient;
+    private RetryRegistry retryRegistry;
+    private ReactiveTransactionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Stub fails TXN-FAIL every time and TXN-FLAKY on its first attempt only
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newFixedThreadPool(8));
+        stub.createContext("/api/v1/transactions", exchange -> {
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            String id = body.get("transactionId").asText();
+            arrivalsByAccount.computeIfAbsent(body.get("fromAccount").asText(), a -> new CopyOnWriteArrayList<>())
+                    .add(id);
+            int attempt = attemptsById.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+
+            boolean fail = id.equals("TXN-FAIL") || (id.equals("TXN-FLAKY") && attempt == 1);
+            byte[] response = ("{\"transactionId\":\"" + id + "\",\"status\":\"SUCCESS\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 503 : 200, fail ? -1 : response.length);
+            if (!fail) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            }
+            exchange.close();
+        });
+        stub.start();
+
+        retryRegistry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(2)
+                .waitDuration(Duration.ofMillis(10))
+                .build());
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + stub.getAddress().getPort())
+                .build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        pipeline = new ReactiveTransactionPipeline(webClient, retryRegistry, null,
+                new AdmissionControlService(true, 1000, 1.0, 0, 5, meterRegistry),
+                new BatchDrainCoordinator(event -> { }, true, 45, 10, 5, meterRegistry), 4, 10000, null, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop(0);
+    }
+
+    @Test
+    void process_RateLimited_RetryWaitsForItsOwnPermit() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000, 0, meterRegistry);
+        ReactiveTransactionPipeline limited = new ReactiveTransactionPipeline(webClient, retryRegistry, rateLimiter,
+                new AdmissionControlService(true, 1000, 1.0, 0, 5, meterRegistry),
+                new BatchDrainCoordinator(event -> { }, true, 45, 10, 5, meterRegistry), 4, 10000, null, null);
+        TransactionResult[] results = new TransactionResult[1];
+
+        // Act
+        limited.process("BATCH-R3", List.of(transaction("TXN-FLAKY", "ACC1")), new int[]{0}, BatchDeadline.NONE,
+                index -> CompletableFuture.completedFuture(null), (result, index) -> results[index] = result);
+        rateLimiter.close();
+
+        // Assert: one permit for the first attempt and one for the retry
+        assertEquals("SUCCESS", results[0].getStatus());
+        assertEquals(2, attemptsById.get("TXN-FLAKY").get());
+        assertEquals(2, meterRegistry.get("downstream.ratelimiter.wait").timer().count());
+    }
+
+    @Test
+    void process_ManyAccounts_KeepsOrderWithinEachAccount() {
+        // Arrange: 60 items over 6 accounts, more lanes than the concurrency of 4
+        List<TransactionRequest> transactions = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            transactions.add(transaction("TXN-" + i, "ACC" + (i % 6)));
+        }
+        TransactionResult[] results = new TransactionResult[transactions.size()];
+        Set<Integer> dispatched = ConcurrentHashMap.newKeySet();
+
+        // Act
+        int lanes = pipeline.process("BATCH-R1", transactions, IntStream.range(0, 60).toArray(),
+                BatchDeadline.NONE, index -> {
+                    dispatched.add(index);
+                    return CompletableFuture.completedFuture(null);
+                }, (result, index) -> results[index] = result);
+
+        // Assert
+        assertEquals(6, lanes);
+        assertEquals(60, dispatched.size());
+        for (int i = 0; i < 60; i++) {
+            assertEquals("TXN-" + i, results[i].getTransactionId());
+            assertEquals("SUCCESS", results[i].getStatus());
+        }
+        for (int account = 0; account < 6; account++) {
+            List<String> expected = new ArrayList<>();
+            for (int i = account; i < 60; i += 6) {
+                expected.add("TXN-" + i);
+            }
+            assertEquals(expected, arrivalsByAccount.get("ACC" + account));
+        }
+    }
+
+    @Test
+    void process_DownstreamErrors_RetriedThenFailedWithSameReasonAsFeignPath() {
+        // Arrange
+        List<TransactionRequest> transactions = List.of(
+                transaction("TXN-FLAKY", "ACC1"),
+                transaction("TXN-FAIL", "ACC2"));
+        TransactionResult[] results = new TransactionResult[2];
+
+        // Act
+        pipeline.process("BATCH-R2", transactions, new int[]{0, 1}, BatchDeadline.NONE,
+                index -> CompletableFuture.completedFuture(null), (result, index) -> results[index] = result);
+
+        // Assert
+        assertEquals("SUCCESS", results[0].getStatus());
+        assertEquals(2, attemptsById.get("TXN-FLAKY").get());
+        assertEquals("FAILED", results[1].getStatus());
+        assertEquals("All retry attempts failed: Transaction processing failed", results[1].getReason());
+        assertEquals(FailureCode.DOWNSTREAM_UNAVAILABLE, results[1].getFailureCode());
+        assertEquals(2, attemptsById.get("TXN-FAIL").get());
+    }
+
+    private static TransactionRequest transaction(String transactionId, String fromAccount) {
+        return TransactionRequest.builder()
+                .transactionId(transactionId)
+                .fromAccount(fromAccount)
+                .toAccount("DEST1")
+                .amount(new BigDecimal("10.00"))
+                .build();
+    }
+}
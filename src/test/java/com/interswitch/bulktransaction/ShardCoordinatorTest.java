@@ -0,0 +1,234 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.cluster.PeerClient;
+import com.interswitch.bulktransaction.cluster.ShardCoordinator;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.repository.BatchRecord;
+import com.interswitch.bulktransaction.repository.InMemoryBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ShardCoordinator
+ */
+@ExtendWith(MockitoExtension.class)
+class ShardCoordinatorTest {
+
+    private static final String PEER_OK = "http://peer-ok";
+    private static final String PEER_DOWN = "http://peer-down";
+
+    @Mock
+    private PeerClient peerClient;
+
+    private ShardCoordinator coordinator;
+
+    @AfterEach
+    void tearDown() {
+        coordinator.close();
+    }
+
+    @Test
+    void distribute_PeerFails_ShardsAreReassignedAndEveryItemCompletes() {
+        // Arrange
+        coordinator = new ShardCoordinator(peerClient, true, List.of(PEER_OK, PEER_DOWN), 1, 2, 30,
+                new SimpleMeterRegistry());
+        BatchRecord batch = createBatch(10, 10);
+        lenient().when(peerClient.processShard(eq(PEER_DOWN), any())).thenThrow(new RuntimeException("Connection refused"));
+        lenient().when(peerClient.processShard(eq(PEER_OK), any())).thenAnswer(invocation -> {
+            BulkTransactionRequest shard = invocation.getArgument(1);
+            return BulkTransactionResponse.builder()
+                    .batchId(shard.getBatchId())
+                    .results(shard.getTransactions().stream()
+                            .map(tx -> TransactionResult.builder().transactionId(tx.getTransactionId()).status("SUCCESS").build())
+                            .toList())
+                    .build();
+        });
+        Map<Integer, String> outcomes = new ConcurrentHashMap<>();
+
+        // Act
+        coordinator.distribute(batch,
+                indexes -> {
+                    for (int index : indexes) {
+                        outcomes.put(index, "local");
+                    }
+                },
+                (index, result) -> outcomes.put(index, result.getTransactionId()),
+                index -> CompletableFuture.completedFuture(null));
+
+        // Assert
+        assertEquals(10, outcomes.size());
+        outcomes.forEach((index, outcome) ->
+                assertTrue(outcome.equals("local") || outcome.equals("TXN-" + index)));
+    }
+
+    @Test
+    void shouldDistribute_ShardBatchOrSmallBatch_ReturnsFalse() {
+        // Arrange
+        coordinator = new ShardCoordinator(peerClient, true, List.of(PEER_OK), 5, 2, 30,
+                new SimpleMeterRegistry());
+
+        // Act & Assert
+        assertTrue(coordinator.shouldDistribute(createBatch(10, 10), 10));
+        assertFalse(coordinator.shouldDistribute(createBatch(10, 10), 4));
+        assertFalse(coordinator.shouldDistribute(createBatch("BATCH-1" + ShardCoordinator.SHARD_SEPARATOR + "0", 10, 10), 10));
+    }
+
+    @Test
+    void distribute_AccountSpreadOverBatch_StaysInOneShard() {
+        // Arrange
+        coordinator = new ShardCoordinator(peerClient, true, List.of(PEER_DOWN), 1, 2, 30,
+                new SimpleMeterRegistry());
+        lenient().when(peerClient.processShard(any(), any())).thenThrow(new RuntimeException("Connection refused"));
+        BatchRecord batch = createBatch(6, 2);
+        List<int[]> localShards = new ArrayList<>();
+
+        // Act
+        coordinator.distribute(batch, localShards::add, (index, result) -> fail("peer is down"),
+                index -> CompletableFuture.completedFuture(null));
+
+        // Assert
+        // Items 0, 2 and 4 debit ACC0; items 1, 3 and 5 debit ACC1
+        assertEquals(2, localShards.size());
+        for (int[] shard : localShards) {
+            assertEquals(3, shard.length);
+            assertEquals(shard[0] % 2, shard[2] % 2);
+        }
+    }
+
+    @Test
+    void distribute_PeerAnswersOtherItems_ResultsRejectedAndShardRunsLocally() {
+        // Arrange
+        coordinator = new ShardCoordinator(peerClient, true, List.of(PEER_OK), 1, 5, 30,
+                new SimpleMeterRegistry());
+        BatchRecord batch = createBatch(10, 2);
+        CountDownLatch peerCalled = new CountDownLatch(1);
+        List<String> shardIds = new ArrayList<>();
+        when(peerClient.processShard(eq(PEER_OK), any())).thenAnswer(invocation -> {
+            BulkTransactionRequest shard = invocation.getArgument(1);
+            shardIds.add(shard.getBatchId());
+            peerCalled.countDown();
+            // Answered from the journal of a shard that once held other items
+            return BulkTransactionResponse.builder()
+                    .batchId(shard.getBatchId())
+                    .results(shard.getTransactions().stream()
+                            .map(tx -> TransactionResult.builder().transactionId("OTHER").status("SUCCESS").build())
+                            .toList())
+                    .build();
+        });
+        List<int[]> localShards = new ArrayList<>();
+
+        // Act
+        coordinator.distribute(batch,
+                indexes -> {
+                    awaitQuietly(peerCalled);
+                    localShards.add(indexes);
+                },
+                (index, result) -> fail("mismatched result recorded for item " + index),
+                index -> CompletableFuture.completedFuture(null));
+
+        // Assert
+        // Items 0, 2, 4, 6 and 8 debit ACC0; items 1, 3, 5, 7 and 9 debit ACC1
+        assertEquals(2, localShards.size());
+        assertEquals(1, shardIds.size());
+        assertTrue(List.of(shardId(new int[]{0, 2, 4, 6, 8}), shardId(new int[]{1, 3, 5, 7, 9}))
+                .contains(shardIds.get(0)));
+    }
+
+    @Test
+    void distribute_ShardSentToPeer_ItemsJournaledAsDispatchedBeforeThePost() {
+        // Arrange
+        coordinator = new ShardCoordinator(peerClient, true, List.of(PEER_OK), 1, 2, 30,
+                new SimpleMeterRegistry());
+        BatchRecord batch = createBatch(4, 2);
+        Set<Integer> journaled = ConcurrentHashMap.newKeySet();
+        List<Integer> journaledAtPost = new ArrayList<>();
+        CountDownLatch peerCalled = new CountDownLatch(1);
+        when(peerClient.processShard(eq(PEER_OK), any())).thenAnswer(invocation -> {
+            BulkTransactionRequest shard = invocation.getArgument(1);
+            journaledAtPost.add(journaled.size());
+            peerCalled.countDown();
+            return BulkTransactionResponse.builder()
+                    .batchId(shard.getBatchId())
+                    .results(shard.getTransactions().stream()
+                            .map(tx -> TransactionResult.builder().transactionId(tx.getTransactionId()).status("SUCCESS").build())
+                            .toList())
+                    .build();
+        });
+        Map<Integer, TransactionResult> recorded = new ConcurrentHashMap<>();
+
+        // Act
+        coordinator.distribute(batch,
+                indexes -> {
+                    // Hold the local shard until the peer has the other one
+                    awaitQuietly(peerCalled);
+                    for (int index : indexes) {
+                        recorded.put(index, TransactionResult.builder().status("SUCCESS").build());
+                    }
+                },
+                recorded::put,
+                index -> {
+                    journaled.add(index);
+                    return CompletableFuture.completedFuture(null);
+                });
+
+        // Assert
+        // Only the peer's shard is journaled here; local items are journaled as they go downstream
+        assertEquals(List.of(2), journaledAtPost);
+        assertEquals(2, journaled.size());
+        assertEquals(4, recorded.size());
+    }
+
+    private static String shardId(int[] indexes) {
+        return "BATCH-1" + ShardCoordinator.SHARD_SEPARATOR + indexes[0] + "-" + Integer.toHexString(Arrays.hashCode(indexes));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BatchRecord createBatch(int size, int accounts) {
+        return createBatch("BATCH-1", size, accounts);
+    }
+
+    private static BatchRecord createBatch(String batchId, int size, int accounts) {
+        List<TransactionRequest> transactions = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            transactions.add(TransactionRequest.builder()
+                    .transactionId("TXN-" + i)
+                    .fromAccount("ACC" + (i % accounts))
+                    .toAccount("DEST")
+                    .amount(BigDecimal.TEN)
+                    .build());
+        }
+        InMemoryBatchRepository repository = new InMemoryBatchRepository();
+        repository.create(BulkTransactionRequest.builder().batchId(batchId).transactions(transactions).build());
+        return repository.findBatch(batchId).orElseThrow();
+    }
+}
@@ -0,0 +1,84 @@
+package com.interswitch.bulktransaction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.interswitch.bulktransaction.security.JwtService;
+import com.interswitch.bulktransaction.startup.StartupWarmup;
+import com.interswitch.bulktransaction.validation.BatchPreflightValidator;
+import com.interswitch.bulktransaction.validation.ValidationMode;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StartupWarmup against a local stub Transaction Service
+ * Tests that warmup opens connections without posting transactions and tolerates a missing downstream
+ */
+class StartupWarmupTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer stub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop(0);
+    }
+
+    @Test
+    void run_ReachableDownstream_OpensConnectionsWithGetOnly() {
+        // Arrange
+        StartupWarmup warmup = createWarmup("http://localhost:" + stub.getAddress().getPort());
+
+        // Act
+        warmup.run(new DefaultApplicationArguments());
+
+        // Assert
+        assertEquals(List.of("GET /", "GET /"), requests);
+        assertTrue(meterRegistry.get("startup.warmup").timeGauge().value(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    void run_UnreachableDownstream_CompletesWithoutFailing() {
+        // Arrange
+        int port = stub.getAddress().getPort();
+        stub.stop(0);
+        StartupWarmup warmup = createWarmup("http://localhost:" + port);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> warmup.run(new DefaultApplicationArguments()));
+        assertTrue(requests.isEmpty());
+    }
+
+    private StartupWarmup createWarmup(String transactionServiceUrl) {
+        return new StartupWarmup(
+                new JwtService("testSecretKeyForJWTAuthenticationTesting12345678901234"),
+                new ObjectMapper(),
+                new MappingJackson2CborHttpMessageConverter(new ObjectMapper(new CBORFactory())),
+                new BatchPreflightValidator(ValidationMode.REJECT_BATCH, 1, 34, 2, meterRegistry),
+                null, transactionServiceUrl, "/", 2, 50, 2, 1000, 3, meterRegistry);
+    }
+}
@@ -0,0 +1,76 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.client.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucketRateLimiter
+ * Tests burst allowance, smooth pacing and refill after idle time
+ */
+class TokenBucketRateLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void burstPermits_AreGrantedImmediately_ThenPacedEvenly() {
+        // Arrange: 100 permits/s = one every 10ms, burst of 3
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 3, meterRegistry, clock::get);
+
+        // Act & Assert: burst is free
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+
+        // Then callers queue one interval apart
+        assertEquals(0, limiter.reserve());
+        assertEquals(10 * MILLIS, limiter.reserve());
+        assertEquals(20 * MILLIS, limiter.reserve());
+        limiter.close();
+    }
+
+    @Test
+    void idleTime_RefillsBucketUpToBurst() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 2, meterRegistry, clock::get);
+        limiter.reserve();
+        limiter.reserve();
+        limiter.reserve();
+
+        // Act: idle for one second, far more than the burst
+        clock.addAndGet(1000 * MILLIS);
+
+        // Assert: only the burst (plus the next paced permit) is free
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(10 * MILLIS, limiter.reserve());
+        limiter.close();
+    }
+
+    @Test
+    void acquire_CompletesWithoutBlockingCaller_AndRecordsWaitTime() {
+        // Arrange: no burst, so the second permit is 50ms away in real time
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20, 0, meterRegistry);
+
+        // Act
+        CompletableFuture<Void> first = limiter.acquire();
+        CompletableFuture<Void> second = limiter.acquire();
+
+        // Assert
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+        second.orTimeout(2, TimeUnit.SECONDS).join();
+        assertEquals(2, meterRegistry.find("downstream.ratelimiter.wait").timer().count());
+        limiter.close();
+    }
+}
@@ -1,18 +1,36 @@
 package com.interswitch.bulktransaction;
 
+import com.interswitch.bulktransaction.client.RetryableFailurePredicate;
+import com.interswitch.bulktransaction.client.TokenBucketRateLimiter;
 import com.interswitch.bulktransaction.client.TransactionServiceClient;
 import com.interswitch.bulktransaction.dto.request.TransactionRequest;
 import com.interswitch.bulktransaction.dto.request.TransactionServiceRequest;
+import com.interswitch.bulktransaction.dto.response.FailureCode;
 import com.interswitch.bulktransaction.dto.response.TransactionResult;
 import com.interswitch.bulktransaction.dto.response.TransactionServiceResponse;
+import com.interswitch.bulktransaction.exceptions.DeadlineExceededException;
+import com.interswitch.bulktransaction.exceptions.TransactionFailedException;
+import com.interswitch.bulktransaction.service.BatchDeadline;
 import com.interswitch.bulktransaction.service.TransactionProcessorService;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -56,6 +74,28 @@ class TransactionProcessorServiceTest {
         verify(transactionServiceClient, times(1)).processTransaction(any(TransactionServiceRequest.class));
     }
 
+    @Test
+    void processTransaction_DownstreamReportsPendingOrFailed_MapsStatusWithoutRetry() {
+        // Arrange
+        TransactionRequest request = createTransactionRequest();
+        when(transactionServiceClient.processTransaction(any(TransactionServiceRequest.class)))
+                .thenReturn(TransactionServiceResponse.builder().transactionId("TXN-001").status("PENDING").build())
+                .thenReturn(TransactionServiceResponse.builder().transactionId("TXN-001").status("FAILED")
+                        .message("Insufficient funds").build());
+
+        // Act
+        TransactionResult pending = transactionProcessorService.processTransaction(request);
+        TransactionResult failed = transactionProcessorService.processTransaction(request);
+
+        // Assert
+        assertEquals("PENDING", pending.getStatus());
+        assertNull(pending.getFailureCode());
+        assertEquals("FAILED", failed.getStatus());
+        assertEquals("Declined by Transaction Service: Insufficient funds", failed.getReason());
+        assertEquals(FailureCode.DOWNSTREAM_REJECTED, failed.getFailureCode());
+        verify(transactionServiceClient, times(2)).processTransaction(any(TransactionServiceRequest.class));
+    }
+
     @Test
     void processTransaction_ExternalServiceThrowsException_ThrowsRuntimeException() {
         // Arrange
@@ -64,13 +104,56 @@ class TransactionProcessorServiceTest {
         when(transactionServiceClient.processTransaction(any(TransactionServiceRequest.class)))
                 .thenThrow(new RuntimeException("Connection refused"));
 
-        // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        // Act & Assert: a shared, stackless exception classified as retryable
+        TransactionFailedException exception = assertThrows(TransactionFailedException.class,
+                () -> transactionProcessorService.processTransaction(request));
+        TransactionFailedException again = assertThrows(TransactionFailedException.class,
                 () -> transactionProcessorService.processTransaction(request));
 
         assertEquals("Transaction processing failed", exception.getMessage());
-        assertNotNull(exception.getCause());
-        assertEquals("Connection refused", exception.getCause().getMessage());
+        assertEquals(FailureCode.DOWNSTREAM_UNAVAILABLE, exception.getCode());
+        assertEquals(0, exception.getStackTrace().length);
+        assertSame(exception, again);
+    }
+
+    @Test
+    void processTransaction_DownstreamRejects_ClassifiedAsTerminal() {
+        // Arrange
+        TransactionRequest request = createTransactionRequest();
+        Request feignRequest = Request.create(Request.HttpMethod.POST, "/api/v1/transactions", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        when(transactionServiceClient.processTransaction(any(TransactionServiceRequest.class)))
+                .thenThrow(new FeignException.UnprocessableEntity("Insufficient funds", feignRequest, null, null))
+                .thenThrow(new FeignException.ServiceUnavailable("Unavailable", feignRequest, null, null));
+
+        // Act
+        TransactionFailedException rejected = assertThrows(TransactionFailedException.class,
+                () -> transactionProcessorService.processTransaction(request));
+        TransactionFailedException unavailable = assertThrows(TransactionFailedException.class,
+                () -> transactionProcessorService.processTransaction(request));
+
+        // Assert: the retry predicate stops on the rejection only
+        RetryableFailurePredicate retryable = new RetryableFailurePredicate();
+        assertEquals(FailureCode.DOWNSTREAM_REJECTED, rejected.getCode());
+        assertFalse(retryable.test(rejected));
+        assertEquals(FailureCode.DOWNSTREAM_UNAVAILABLE, unavailable.getCode());
+        assertTrue(retryable.test(unavailable));
+        assertTrue(retryable.test(new RuntimeException("Unclassified")));
+    }
+
+    @Test
+    void retryFallback_ClassifiedFailure_CarriesCodeAndUnchangedReason() {
+        // Arrange
+        TransactionRequest request = createTransactionRequest();
+
+        // Act
+        TransactionResult result = transactionProcessorService.retryFallback(request,
+                TransactionFailedException.of(FailureCode.DOWNSTREAM_REJECTED));
+
+        // Assert
+        assertEquals("FAILED", result.getStatus());
+        assertEquals("All retry attempts failed: Transaction processing failed", result.getReason());
+        assertEquals(FailureCode.DOWNSTREAM_REJECTED, result.getFailureCode());
     }
 
     @Test
@@ -185,6 +268,113 @@ class TransactionProcessorServiceTest {
         assertEquals("SUCCESS", result.getStatus());
     }
 
+    @Test
+    void processTransaction_WithinDeadline_ReadTimeoutCappedByRemainingBudget() {
+        // Arrange
+        TransactionRequest request = createTransactionRequest();
+        when(transactionServiceClient.processTransaction(any(TransactionServiceRequest.class), any(Request.Options.class)))
+                .thenReturn(TransactionServiceResponse.builder()
+                        .transactionId("TXN-001")
+                        .status("SUCCESS")
+                        .build());
+
+        // Act
+        TransactionResult result = transactionProcessorService.processTransaction(request, BatchDeadline.after(5));
+
+        // Assert
+        assertEquals("SUCCESS", result.getStatus());
+        ArgumentCaptor<Request.Options> options = ArgumentCaptor.forClass(Request.Options.class);
+        verify(transactionServiceClient).processTransaction(any(TransactionServiceRequest.class), options.capture());
+        assertTrue(options.getValue().readTimeoutMillis() <= 5000);
+        assertEquals(2000, options.getValue().connectTimeoutMillis());
+        verify(transactionServiceClient, never()).processTransaction(any(TransactionServiceRequest.class));
+    }
+
+    @Test
+    void processTransaction_DeadlineExpired_NoDownstreamCall() throws InterruptedException {
+        // Arrange
+        TransactionRequest request = createTransactionRequest();
+        BatchDeadline deadline = BatchDeadline.after(1);
+        Thread.sleep(1010);
+
+        // Act & Assert
+        assertThrows(DeadlineExceededException.class,
+                () -> transactionProcessorService.processTransaction(request, deadline));
+        verifyNoInteractions(transactionServiceClient);
+    }
+
+    @Test
+    void retryFallback_DeadlineExceeded_ReturnsDistinctReason() {
+        // Arrange
+        TransactionRequest request = createTransactionRequest();
+
+        // Act
+        TransactionResult deadlineResult = transactionProcessorService.retryFallback(request, BatchDeadline.NONE,
+                new DeadlineExceededException(BatchDeadline.EXCEEDED_REASON));
+        TransactionResult failedResult = transactionProcessorService.retryFallback(request, BatchDeadline.NONE,
+                new RuntimeException("Read timed out"));
+
+        // Assert
+        assertEquals("FAILED", deadlineResult.getStatus());
+        assertEquals("Batch deadline exceeded", deadlineResult.getReason());
+        assertEquals(FailureCode.DEADLINE_EXCEEDED, deadlineResult.getFailureCode());
+        assertEquals("All retry attempts failed: Read timed out", failedResult.getReason());
+    }
+
+    @Test
+    void processTransactionAsync_RetryableFailure_RetryQueuedOnlyOnceItsPermitIsDue() {
+        // Arrange: no thread waits in between, so the retry shows up as a task for the executor
+        TransactionRequest request = createTransactionRequest();
+        Request feignRequest = Request.create(Request.HttpMethod.POST, "/api/v1/transactions", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        when(transactionServiceClient.processTransaction(any(TransactionServiceRequest.class)))
+                .thenThrow(new FeignException.ServiceUnavailable("Unavailable", feignRequest, null, null))
+                .thenReturn(TransactionServiceResponse.builder().transactionId("TXN-001").status("SUCCESS").build());
+        TokenBucketRateLimiter rateLimiter = mock(TokenBucketRateLimiter.class);
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        when(rateLimiter.acquire()).thenReturn(permit);
+        RetryRegistry retryRegistry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(2)
+                .waitDuration(Duration.ofMillis(10))
+                .retryOnException(new RetryableFailurePredicate())
+                .build());
+        TransactionProcessorService processor = new TransactionProcessorService(transactionServiceClient, null,
+                2000, 10000, null, rateLimiter, retryRegistry);
+        BlockingQueue<Runnable> queued = new LinkedBlockingQueue<>();
+
+        // Act
+        CompletableFuture<TransactionResult> outcome = processor.processTransactionAsync(request, BatchDeadline.NONE,
+                queued::add);
+        verify(rateLimiter, timeout(1000)).acquire();
+        boolean queuedBeforePermit = !queued.isEmpty();
+        permit.complete(null);
+        Runnable retry = assertDoesNotThrow(() -> queued.poll(1, TimeUnit.SECONDS));
+        retry.run();
+
+        // Assert
+        assertFalse(queuedBeforePermit);
+        assertEquals("SUCCESS", outcome.join().getStatus());
+        verify(transactionServiceClient, times(2)).processTransaction(any(TransactionServiceRequest.class));
+    }
+
+    @Test
+    void processTransactionAsync_RetriesExhausted_CompletesWithFallbackResult() {
+        // Arrange
+        TransactionRequest request = createTransactionRequest();
+        when(transactionServiceClient.processTransaction(any(TransactionServiceRequest.class)))
+                .thenThrow(new RuntimeException("Read timed out"));
+
+        // Act: the default processor makes a single attempt
+        CompletableFuture<TransactionResult> outcome = transactionProcessorService.processTransactionAsync(request,
+                BatchDeadline.NONE, Runnable::run);
+
+        // Assert
+        TransactionResult result = outcome.join();
+        assertEquals("FAILED", result.getStatus());
+        assertEquals(TransactionProcessorService.RETRIES_EXHAUSTED_REASON, result.getReason());
+        assertEquals(FailureCode.DOWNSTREAM_UNAVAILABLE, result.getFailureCode());
+    }
+
     private TransactionRequest createTransactionRequest() {
         return TransactionRequest.builder()
                 .transactionId("TXN-001")
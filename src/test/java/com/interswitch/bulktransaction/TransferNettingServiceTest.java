@@ -0,0 +1,91 @@
+package com.interswitch.bulktransaction;
+
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.netting.NettedTransfer;
+import com.interswitch.bulktransaction.netting.NettingPlan;
+import com.interswitch.bulktransaction.netting.TransferNettingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TransferNettingService
+ * Tests merging, offsetting and the mapping back to original items
+ */
+class TransferNettingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransferNettingService nettingService = new TransferNettingService(true, meterRegistry);
+
+    @Test
+    void sameDirectionTransfers_AreMerged() {
+        // Arrange
+        List<TransactionRequest> transactions = List.of(
+                transfer("TX1", "111", "222", "100.00"),
+                transfer("TX2", "111", "222", "50.00"),
+                transfer("TX3", "333", "444", "10.00"));
+
+        // Act
+        NettingPlan plan = nettingService.plan(transactions, i -> false);
+
+        // Assert
+        assertEquals(2, plan.transfers().size());
+        NettedTransfer merged = plan.transfers().get(0);
+        assertArrayEquals(new int[]{0, 1}, merged.memberIndexes());
+        assertEquals("NET-TX1", merged.request().getTransactionId());
+        assertEquals("111", merged.request().getFromAccount());
+        assertEquals(0, new BigDecimal("150.00").compareTo(merged.request().getAmount()));
+
+        // Unmerged items keep their original request
+        assertSame(transactions.get(2), plan.transfers().get(1).request());
+        assertEquals(1.0, meterRegistry.find("batch.netting.calls.saved").counter().count());
+    }
+
+    @Test
+    void oppositeTransfers_AreNettedInDominantDirection() {
+        // Arrange
+        List<TransactionRequest> transactions = List.of(
+                transfer("TX1", "222", "111", "30.00"),
+                transfer("TX2", "111", "222", "100.00"));
+
+        // Act
+        NettingPlan plan = nettingService.plan(transactions, i -> false);
+
+        // Assert
+        assertEquals(1, plan.transfers().size());
+        TransactionRequest netted = plan.transfers().get(0).request();
+        assertEquals("111", netted.getFromAccount());
+        assertEquals("222", netted.getToAccount());
+        assertEquals(0, new BigDecimal("70.00").compareTo(netted.getAmount()));
+    }
+
+    @Test
+    void fullyOffsettingTransfers_NeedNoDownstreamCall() {
+        // Arrange
+        List<TransactionRequest> transactions = List.of(
+                transfer("TX1", "111", "222", "40.00"),
+                transfer("TX2", "222", "111", "40.00"),
+                transfer("TX3", "111", "333", "5.00"));
+
+        // Act
+        NettingPlan plan = nettingService.plan(transactions, i -> i == 2);
+
+        // Assert
+        assertTrue(plan.transfers().isEmpty());
+        assertArrayEquals(new int[]{0, 1}, plan.offsetIndexes());
+        assertEquals(2, plan.originalItems());
+    }
+
+    private TransactionRequest transfer(String id, String from, String to, String amount) {
+        return TransactionRequest.builder()
+                .transactionId(id)
+                .fromAccount(from)
+                .toAccount(to)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.interswitch.bulktransaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import com.interswitch.bulktransaction.repository.BatchRepository;
+import com.interswitch.bulktransaction.repository.FileBatchRepository;
+import com.interswitch.bulktransaction.repository.InMemoryBatchRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-item persistence cost of the batch repository implementations
+ * Each invocation creates a batch, marks every item dispatched, appends a result for every item
+ * and finalizes it. Markers are awaited together, as concurrent workers share journal writes.
+ * The file repository is flushed at the end of each batch so journal writes are included.
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.interswitch.bulktransaction.benchmark.BatchRepositoryBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchRepositoryBenchmark {
+
+    @Param({"memory", "file", "file-fsync"})
+    private String repositoryType;
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private Path directory;
+    private BatchRepository repository;
+    private List<TransactionRequest> transactions;
+    private TransactionResult result;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("batch-repository-benchmark");
+        repository = switch (repositoryType) {
+            case "memory" -> new InMemoryBatchRepository();
+            case "file" -> new FileBatchRepository(new ObjectMapper(), directory, 512, false);
+            default -> new FileBatchRepository(new ObjectMapper(), directory, 512, true);
+        };
+
+        transactions = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            transactions.add(TransactionRequest.builder()
+                    .transactionId("TXN-" + i)
+                    .fromAccount("0123456789")
+                    .toAccount("9876543210")
+                    .amount(new BigDecimal("1500.00"))
+                    .build());
+        }
+        result = TransactionResult.builder().transactionId("TXN-0").status("SUCCESS").build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (repository instanceof FileBatchRepository fileRepository) {
+            fileRepository.close();
+        }
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Object createAppendFinalize() {
+        String batchId = "BATCH-" + sequence++;
+        repository.create(BulkTransactionRequest.builder()
+                .batchId(batchId)
+                .transactions(transactions)
+                .build());
+        CompletableFuture<?>[] markers = new CompletableFuture<?>[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            markers[i] = repository.markDispatched(batchId, new int[]{i}, transactions.get(i).getTransactionId());
+        }
+        CompletableFuture.allOf(markers).join();
+        for (int i = 0; i < batchSize; i++) {
+            repository.appendResult(batchId, i, result);
+        }
+        Object response = repository.finalizeBatch(batchId);
+        if (repository instanceof FileBatchRepository fileRepository) {
+            fileRepository.flush();
+        }
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BatchRepositoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.interswitch.bulktransaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.interswitch.bulktransaction.dto.request.BulkTransactionRequest;
+import com.interswitch.bulktransaction.dto.request.TransactionRequest;
+import com.interswitch.bulktransaction.dto.response.BulkTransactionResponse;
+import com.interswitch.bulktransaction.dto.response.TransactionResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON and CBOR for parsing batch requests and serializing batch results
+ * Payload sizes are printed at setup so bandwidth can be compared alongside CPU time.
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.interswitch.bulktransaction.benchmark.SerializationFormatBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private byte[] requestBytes;
+    private BulkTransactionResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper mapper = "cbor".equals(format) ? new ObjectMapper(new CBORFactory()) : new ObjectMapper();
+        requestReader = mapper.readerFor(BulkTransactionRequest.class);
+        responseWriter = mapper.writerFor(BulkTransactionResponse.class);
+
+        List<TransactionRequest> transactions = new ArrayList<>(batchSize);
+        List<TransactionResult> results = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            transactions.add(TransactionRequest.builder()
+                    .transactionId("TXN-" + i)
+                    .fromAccount("0123456789")
+                    .toAccount("9876543210")
+                    .amount(new BigDecimal("1500.25"))
+                    .build());
+            results.add(TransactionResult.builder().transactionId("TXN-" + i).status("SUCCESS").build());
+        }
+        requestBytes = mapper.writeValueAsBytes(BulkTransactionRequest.builder()
+                .batchId("BATCH-1")
+                .transactions(transactions)
+                .build());
+        response = BulkTransactionResponse.builder().batchId("BATCH-1").results(results).build();
+
+        System.out.printf("%n%s: request %d bytes, response %d bytes%n",
+                format, requestBytes.length, responseWriter.writeValueAsBytes(response).length);
+    }
+
+    @Benchmark
+    public BulkTransactionRequest parseRequest() throws IOException {
+        return requestReader.readValue(requestBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializationFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}